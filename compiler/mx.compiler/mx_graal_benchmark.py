@@ -151,6 +151,7 @@ _graal_variants = [
     ('limit-truffle-inlining', ['-Dpolyglot.engine.InliningRecursionDepth=2'], 0),
     ('no-splitting-limit-truffle-inlining', ['-Dpolyglot.engine.Splitting=false', '-Dpolyglot.engine.InliningRecursionDepth=2'], 0),
     ('no-truffle-bg-comp', ['-Dpolyglot.engine.BackgroundCompilation=false'], 0),
+    ('tail-duplication', ['-Dgraal.TailDuplication=true'], 0),
     ('avx0', ['-XX:UseAVX=0'], 11),
     ('avx1', ['-XX:UseAVX=1'], 11),
     ('avx2', ['-XX:UseAVX=2'], 11),
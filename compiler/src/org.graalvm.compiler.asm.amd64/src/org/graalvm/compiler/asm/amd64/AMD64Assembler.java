@@ -3484,6 +3484,60 @@ public class AMD64Assembler extends AMD64BaseAssembler {
         emitModRM(dst, src);
     }
 
+    private void aesOp(Register dst, Register src, int op) {
+        assert supports(CPUFeature.AES);
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F38, false);
+        emitByte(op);
+        emitModRM(dst, src);
+    }
+
+    public final void aesenc(Register dst, Register src) {
+        aesOp(dst, src, 0xDC);
+    }
+
+    public final void aesenclast(Register dst, Register src) {
+        aesOp(dst, src, 0xDD);
+    }
+
+    public final void aesdec(Register dst, Register src) {
+        aesOp(dst, src, 0xDE);
+    }
+
+    public final void aesdeclast(Register dst, Register src) {
+        aesOp(dst, src, 0xDF);
+    }
+
+    /**
+     * Accumulates the CRC32C (Castagnoli) checksum of the byte at {@code src} into {@code crc}.
+     * The mandatory {@code F2} prefix must precede any REX prefix, so this instruction cannot be
+     * expressed as an {@link AMD64RMOp}.
+     */
+    public final void crc32b(Register crc, AMD64Address src) {
+        assert supports(CPUFeature.SSE4_2);
+        assert inRC(CPU, crc);
+        emitByte(0xF2);
+        prefix(src, crc);
+        emitByte(0x0F);
+        emitByte(0x38);
+        emitByte(0xF0);
+        emitOperandHelper(crc, src, 0);
+    }
+
+    /**
+     * Accumulates the CRC32C (Castagnoli) checksum of the quadword at {@code src} into {@code crc}.
+     */
+    public final void crc32q(Register crc, AMD64Address src) {
+        assert supports(CPUFeature.SSE4_2);
+        assert inRC(CPU, crc);
+        emitByte(0xF2);
+        prefixq(src, crc);
+        emitByte(0x0F);
+        emitByte(0x38);
+        emitByte(0xF1);
+        emitOperandHelper(crc, src, 0);
+    }
+
     public final void pshuflw(Register dst, Register src, int imm8) {
         assert supports(CPUFeature.SSE2);
         assert isUByte(imm8) : "invalid value";
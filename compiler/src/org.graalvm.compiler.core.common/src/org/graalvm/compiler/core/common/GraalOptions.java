@@ -87,6 +87,12 @@ public final class GraalOptions {
     @Option(help = "The maximum length of an array that will be escape analyzed.", type = OptionType.Expert)
     public static final OptionKey<Integer> MaximumEscapeAnalysisArrayLength = new OptionKey<>(128);
 
+    @Option(help = "The maximum length of an array that will be escape analyzed if it is accessed with a non-constant index.", type = OptionType.Expert)
+    public static final OptionKey<Integer> MaximumEscapeAnalysisVariableIndexArrayLength = new OptionKey<>(8);
+
+    @Option(help = "Merge allocations at phis without materializing them if the allocations are only visible after the merge through the phi.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> EscapeAnalysisMergeLocalAllocations = new OptionKey<>(true);
+
     @Option(help = "", type = OptionType.Expert)
     public static final OptionKey<Integer> DeoptsToDisableOptimisticOptimization = new OptionKey<>(40);
 
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_IGNORED;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_IGNORED;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Graph;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.graph.NodeSourcePosition;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Tests the interning of node source positions and the trimming of usage lists done by
+ * {@link Graph} to reduce its footprint.
+ */
+public class GraphFootprintTest extends GraalCompilerTest {
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class Def extends Node {
+        public static final NodeClass<Def> TYPE = NodeClass.create(Def.class);
+
+        protected Def() {
+            super(TYPE);
+        }
+    }
+
+    @NodeInfo(cycles = CYCLES_IGNORED, size = SIZE_IGNORED)
+    static final class Use extends Node {
+        public static final NodeClass<Use> TYPE = NodeClass.create(Use.class);
+        @Input Def in;
+
+        protected Use(Def in) {
+            super(TYPE);
+            this.in = in;
+        }
+    }
+
+    public static int positionSnippet() {
+        return 42;
+    }
+
+    /**
+     * Creates a new position that is equal to, but not the same as, the other positions created
+     * for {@code bci}.
+     */
+    private NodeSourcePosition position(int bci) {
+        ResolvedJavaMethod method = getResolvedJavaMethod("positionSnippet");
+        return new NodeSourcePosition(new NodeSourcePosition(null, method, 0), method, bci);
+    }
+
+    private Graph createGraph() {
+        DebugContext debug = getDebugContext();
+        return new Graph("GraphFootprintTest", debug.getOptions(), debug, true);
+    }
+
+    private static Def addDef(Graph graph, NodeSourcePosition position) {
+        Def def = graph.add(new Def());
+        def.setNodeSourcePosition(position);
+        return def;
+    }
+
+    /**
+     * Adds and deletes nodes until fewer than half of the nodes of {@code graph} are live.
+     */
+    private static void addGarbage(Graph graph) {
+        int count = graph.getNodeCount() + 1;
+        for (int i = 0; i < count; i++) {
+            graph.add(new Def()).safeDelete();
+        }
+    }
+
+    @Test
+    public void testInterning() {
+        Graph graph = createGraph();
+        NodeSourcePosition first = position(1);
+        Def def0 = addDef(graph, first);
+        Def def1 = addDef(graph, position(1));
+        Def def2 = addDef(graph, position(2));
+
+        Assert.assertSame(first, def0.getNodeSourcePosition());
+        Assert.assertSame(first, def1.getNodeSourcePosition());
+        Assert.assertNotEquals(first, def2.getNodeSourcePosition());
+    }
+
+    @Test
+    public void testCompressionPrunesInternedPositions() {
+        Graph graph = createGraph();
+        NodeSourcePosition kept = position(1);
+        addDef(graph, kept);
+        addDef(graph, position(2)).safeDelete();
+        addGarbage(graph);
+        Assert.assertTrue(graph.maybeCompress());
+
+        NodeSourcePosition fresh = position(2);
+        Assert.assertSame(fresh, addDef(graph, fresh).getNodeSourcePosition());
+        Assert.assertSame(kept, addDef(graph, position(1)).getNodeSourcePosition());
+    }
+
+    @Test
+    public void testCopyInternsOnlyLivePositions() {
+        Graph graph = createGraph();
+        NodeSourcePosition kept = position(1);
+        addDef(graph, kept);
+        addDef(graph, position(2)).safeDelete();
+
+        Graph copy = graph.copy(getDebugContext());
+        NodeSourcePosition fresh = position(2);
+        Assert.assertSame(fresh, addDef(copy, fresh).getNodeSourcePosition());
+        Assert.assertSame(kept, addDef(copy, position(1)).getNodeSourcePosition());
+    }
+
+    @Test
+    public void testCompressionTrimsUsages() {
+        Graph graph = createGraph();
+        Def def = graph.add(new Def());
+        List<Use> uses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            uses.add(graph.add(new Use(def)));
+        }
+        List<Use> live = new ArrayList<>();
+        for (int i = 0; i < uses.size(); i++) {
+            if (i % 5 == 0) {
+                live.add(uses.get(i));
+            } else {
+                uses.get(i).safeDelete();
+            }
+        }
+        addGarbage(graph);
+        Assert.assertTrue(graph.maybeCompress());
+        Assert.assertEquals(live.size(), def.getUsageCount());
+        Assert.assertEquals(new HashSet<>(live), new HashSet<>(def.usages().snapshot()));
+
+        for (int i = 0; i < 10; i++) {
+            live.add(graph.add(new Use(def)));
+        }
+        Assert.assertEquals(live.size(), def.getUsageCount());
+        Assert.assertEquals(new HashSet<>(live), new HashSet<>(def.usages().snapshot()));
+
+        Def replacement = graph.add(new Def());
+        def.replaceAtUsages(replacement);
+        Assert.assertEquals(0, def.getUsageCount());
+        Assert.assertEquals(new HashSet<>(live), new HashSet<>(replacement.usages().snapshot()));
+        for (Use use : live) {
+            Assert.assertSame(replacement, use.in);
+        }
+    }
+
+    @Test
+    public void testCompressionReleasesUnusedUsages() {
+        Graph graph = createGraph();
+        Def def = graph.add(new Def());
+        List<Use> uses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            uses.add(graph.add(new Use(def)));
+        }
+        for (Use use : uses) {
+            use.safeDelete();
+        }
+        addGarbage(graph);
+        Assert.assertTrue(graph.maybeCompress());
+        Assert.assertEquals(0, def.getUsageCount());
+        Use use = graph.add(new Use(def));
+        Assert.assertEquals(1, def.getUsageCount());
+        Assert.assertSame(use, def.usages().first());
+    }
+}
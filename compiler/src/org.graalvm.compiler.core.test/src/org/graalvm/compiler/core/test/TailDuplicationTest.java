@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.nodes.calc.IntegerEqualsNode;
+import org.graalvm.compiler.nodes.java.InstanceOfNode;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.OptimisticOptimizations;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.TailDuplicationPhase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TailDuplicationTest extends GraalCompilerTest {
+
+    /**
+     * These tests assume all code paths are reachable so disable profile based dead code removal.
+     */
+    @Override
+    protected OptimisticOptimizations getOptimisticOptimizations() {
+        return OptimisticOptimizations.ALL.remove(OptimisticOptimizations.Optimization.RemoveNeverExecutedCode);
+    }
+
+    static class A {
+    }
+
+    public static int staticField;
+
+    public static int constantPhiSnippet(int a, int b) {
+        int x;
+        if (a > 0) {
+            staticField = a;
+            x = 7;
+        } else {
+            x = b;
+        }
+        if (x == 7) {
+            return a + 1;
+        }
+        return b * 3;
+    }
+
+    public static int typeCheckSnippet(boolean a, Object o) {
+        Object x;
+        if (a) {
+            x = new A();
+        } else {
+            x = o;
+        }
+        if (x instanceof A) {
+            return 1;
+        }
+        return 2;
+    }
+
+    private OptionValues getTailDuplicationOptions() {
+        return new OptionValues(getInitialOptions(), TailDuplicationPhase.Options.TailDuplication, true);
+    }
+
+    @Test
+    public void testConstantPhi() {
+        OptionValues options = getTailDuplicationOptions();
+        test(options, "constantPhiSnippet", 1, 7);
+        test(options, "constantPhiSnippet", 1, 2);
+        test(options, "constantPhiSnippet", -1, 7);
+        test(options, "constantPhiSnippet", -1, 2);
+
+        StructuredGraph graph = duplicateTails("constantPhiSnippet");
+        for (IntegerEqualsNode equals : graph.getNodes().filter(IntegerEqualsNode.class)) {
+            Assert.assertFalse("comparison of a phi was not duplicated: " + equals, equals.getX() instanceof PhiNode || equals.getY() instanceof PhiNode);
+        }
+    }
+
+    @Test
+    public void testTypeCheck() {
+        OptionValues options = getTailDuplicationOptions();
+        test(options, "typeCheckSnippet", true, new A());
+        test(options, "typeCheckSnippet", false, new A());
+        test(options, "typeCheckSnippet", false, "string");
+        test(options, "typeCheckSnippet", false, null);
+
+        StructuredGraph graph = duplicateTails("typeCheckSnippet");
+        for (InstanceOfNode instanceOf : graph.getNodes().filter(InstanceOfNode.class)) {
+            Assert.assertFalse("type check of a phi was not duplicated: " + instanceOf, instanceOf.getValue() instanceof PhiNode);
+        }
+    }
+
+    private StructuredGraph duplicateTails(String snippet) {
+        StructuredGraph graph = parseEager(snippet, AllowAssumptions.NO, getTailDuplicationOptions());
+        CoreProviders context = getProviders();
+        CanonicalizerPhase canonicalizer = createCanonicalizerPhase();
+        canonicalizer.apply(graph, context);
+        new TailDuplicationPhase().apply(graph, context);
+        canonicalizer.apply(graph, context);
+        return graph;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test.backend;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.lir.alloc.lsra.GraphColoringAllocator;
+import org.graalvm.compiler.lir.alloc.lsra.GraphColoringAllocator.RegisterAllocator;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class GraphColoringAllocatorTest extends GraalCompilerTest {
+
+    private OptionValues graphColoringOptions(RegisterAllocator allocator) {
+        return new OptionValues(getInitialOptions(), GraphColoringAllocator.Options.LIRRegisterAllocator, allocator, GraphColoringAllocator.Options.VerifyGraphColoring, true);
+    }
+
+    private void testAllocators(String name, Object... args) {
+        test(graphColoringOptions(RegisterAllocator.GraphColoring), name, args);
+        test(graphColoringOptions(RegisterAllocator.Adaptive), name, args);
+    }
+
+    public static int loopSnippet(int[] a, int n) {
+        int sum = 0;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int v = a[i];
+            sum += v;
+            if (v > max) {
+                max = v;
+            }
+        }
+        return sum * 31 + max;
+    }
+
+    @Test
+    public void testLoop() {
+        testAllocators("loopSnippet", new int[]{3, -1, 4, 1, -5, 9, 2, 6}, 8);
+    }
+
+    public static long pressureSnippet(long a, long b, long c, long d) {
+        long e = a * b;
+        long f = b * c;
+        long g = c * d;
+        long h = d * a;
+        long i = e ^ f;
+        long j = g ^ h;
+        long k = e + g;
+        long l = f + h;
+        long m = i * j;
+        long n = k * l;
+        long o = a - d;
+        long p = b - c;
+        long q = m ^ o;
+        long r = n ^ p;
+        return a + b + c + d + e + f + g + h + i + j + k + l + m + n + o + p + q + r;
+    }
+
+    @Test
+    public void testRegisterPressure() {
+        testAllocators("pressureSnippet", 3L, 5L, 7L, 11L);
+    }
+
+    static double callee(double x) {
+        return Math.sqrt(x) + String.valueOf(x).length();
+    }
+
+    public static double callSnippet(double x, double y, int n) {
+        double acc = 0;
+        for (int i = 0; i < n; i++) {
+            double t = x * i + y;
+            acc += callee(t) + t;
+        }
+        return acc + x + y;
+    }
+
+    @Test
+    public void testLiveAcrossCall() {
+        testAllocators("callSnippet", 1.5, 2.25, 10);
+    }
+}
@@ -644,4 +644,113 @@ public class EscapeAnalysisTest extends EATestBase {
         // EA test: only two allocations (new array and new instance) remain
         testEscapeAnalysis("testComplexRowSumSnippet", null, true, 2);
     }
+
+    public static int testVariableIndexLoadSnippet(int a, int b, int index) {
+        int[] array = new int[]{a, b, 3};
+        return array[index];
+    }
+
+    @Test
+    public void testVariableIndexLoad() {
+        test("testVariableIndexLoadSnippet", 1, 2, 0);
+        test("testVariableIndexLoadSnippet", 1, 2, 2);
+        test("testVariableIndexLoadSnippet", 1, 2, 3);
+        test("testVariableIndexLoadSnippet", 1, 2, -1);
+        testEscapeAnalysis("testVariableIndexLoadSnippet", null, false);
+    }
+
+    public static int testVariableIndexStoreSnippet(int a, int index) {
+        int[] array = new int[4];
+        array[index] = a;
+        return array[0] + array[1] * 2 + array[2] * 3 + array[3] * 4;
+    }
+
+    @Test
+    public void testVariableIndexStore() {
+        test("testVariableIndexStoreSnippet", 5, 0);
+        test("testVariableIndexStoreSnippet", 5, 3);
+        test("testVariableIndexStoreSnippet", 5, 4);
+        testEscapeAnalysis("testVariableIndexStoreSnippet", null, false);
+    }
+
+    private static int sum(int... values) {
+        int result = 0;
+        for (int i = 0; i < values.length; i++) {
+            result += values[i];
+        }
+        return result;
+    }
+
+    public static int testVarargsLoopSnippet(int a, int b) {
+        return sum(a, b, a * b);
+    }
+
+    @Test
+    public void testVarargsLoop() {
+        test("testVarargsLoopSnippet", 3, 4);
+        testEscapeAnalysis("testVarargsLoopSnippet", null, false);
+    }
+
+    public static int testLoopCarriedAllocationSnippet(int n) {
+        TestClassInt box = new TestClassInt(0);
+        for (int i = 0; i < n; i++) {
+            box = new TestClassInt(box.x + i);
+        }
+        return box.x;
+    }
+
+    @Test
+    public void testLoopCarriedAllocation() {
+        test("testLoopCarriedAllocationSnippet", 10);
+        testEscapeAnalysis("testLoopCarriedAllocationSnippet", null, false);
+    }
+
+    public static int testLoopCarriedAllocationComparedSnippet(int n, Object other) {
+        TestClassInt box = new TestClassInt(0);
+        boolean isOther = false;
+        int same = 0;
+        for (int i = 0; i < n; i++) {
+            if (i % 2 == 0 && isOther) {
+                same++;
+            }
+            box = new TestClassInt(box.x + i);
+            isOther = box == other;
+        }
+        return box.x + same;
+    }
+
+    /**
+     * The comparison with the loop-carried allocation flows into a branch in a different block of
+     * the next iteration, so it must not be ignored when merging the allocation at the loop header.
+     */
+    @Test
+    public void testLoopCarriedAllocationCompared() {
+        test("testLoopCarriedAllocationComparedSnippet", 10, null);
+        test("testLoopCarriedAllocationComparedSnippet", 10, new TestClassInt(45));
+    }
+
+    public static int testNestedLoopCarriedAllocationSnippet(int n, int m) {
+        int same = 0;
+        for (int i = 0; i < n; i++) {
+            TestClassInt first = new TestClassInt(i);
+            TestClassInt box = first;
+            for (int j = 0; j < m; j++) {
+                box = new TestClassInt(box.x + j);
+            }
+            if (box == first) {
+                same++;
+            }
+        }
+        return same;
+    }
+
+    /**
+     * If the inner loop does not run, the loop-carried value after it is the allocation made before
+     * it, so the allocation must keep its identity at the inner loop header.
+     */
+    @Test
+    public void testNestedLoopCarriedAllocation() {
+        test("testNestedLoopCarriedAllocationSnippet", 3, 0);
+        test("testNestedLoopCarriedAllocationSnippet", 3, 2);
+    }
 }
@@ -24,8 +24,12 @@
  */
 package org.graalvm.compiler.core.test.inlining;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 
+import org.graalvm.compiler.api.directives.GraalDirectives;
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.test.GraalCompilerTest;
 import org.graalvm.compiler.debug.DebugContext;
@@ -42,6 +46,9 @@ import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.PhaseSuite;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
+import org.graalvm.compiler.phases.common.inlining.InliningPhase;
+import org.graalvm.compiler.phases.common.inlining.policy.InliningPolicy;
+import org.graalvm.compiler.phases.common.inlining.policy.ProfileGuidedInliningPolicy;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.serviceprovider.GraalServices;
 import org.junit.Assert;
@@ -99,6 +106,62 @@ public class InliningTest extends GraalCompilerTest {
         assertManyMethodInfopoints(assertInlined(getGraph("invokeMethodOnFieldSnippet", true)));
     }
 
+    @Test
+    public void testProfileGuidedInlining() {
+        assertInlined(getGraph("invokeStaticSnippet", new ProfileGuidedInliningPolicy(null)));
+        assertInlined(getGraph("invokeConstructorSnippet", new ProfileGuidedInliningPolicy(null)));
+        assertInlined(getGraph("invokeFinalMethodSnippet", new ProfileGuidedInliningPolicy(null)));
+        assertInlined(getGraph("invokeMethodOnFinalClassSnippet", new ProfileGuidedInliningPolicy(null)));
+    }
+
+    @Test
+    public void testProfileGuidedInliningMinPriority() {
+        assertInvokes(getGraph("hotAndColdCallSnippet", getInitialOptions(), new ProfileGuidedInliningPolicy(null)), "coldCallee");
+        OptionValues options = new OptionValues(getInitialOptions(), ProfileGuidedInliningPolicy.Options.ProfileGuidedInliningMinPriority, 0.0);
+        assertInvokes(getGraph("hotAndColdCallSnippet", options, new ProfileGuidedInliningPolicy(null)));
+    }
+
+    @Test
+    public void testProfileGuidedInliningBudget() {
+        OptionValues unlimited = new OptionValues(getInitialOptions(), ProfileGuidedInliningPolicy.Options.ProfileGuidedInliningMinPriority, 0.0);
+        assertInvokes(getGraph("hotAndColdCallSnippet", unlimited, new ProfileGuidedInliningPolicy(null)));
+
+        /*
+         * The budget fits one of the equally sized callees. The hot call site is explored first and
+         * uses up the budget that the cold call site would need.
+         */
+        StructuredGraph callee = parseEager("hotCallee", AllowAssumptions.YES);
+        createCanonicalizerPhase().apply(callee, getDefaultHighTierContext());
+        int calleeSize = callee.getNodeCount();
+        OptionValues limited = new OptionValues(unlimited, ProfileGuidedInliningPolicy.Options.ProfileGuidedInliningBudget, calleeSize + calleeSize / 2);
+        assertInvokes(getGraph("hotAndColdCallSnippet", limited, new ProfileGuidedInliningPolicy(null)), "coldCallee");
+    }
+
+    @SuppressWarnings("all")
+    public static double hotAndColdCallSnippet(int value) {
+        double result = hotCallee(value);
+        if (GraalDirectives.injectBranchProbability(GraalDirectives.SLOWPATH_PROBABILITY, value == 42)) {
+            result += coldCallee(value);
+        }
+        return result;
+    }
+
+    private static double hotCallee(int value) {
+        double x = 0.0;
+        for (int i = 0; i < value; i++) {
+            x += i * 1.21;
+        }
+        return x;
+    }
+
+    private static double coldCallee(int value) {
+        double x = 0.0;
+        for (int i = 0; i < value; i++) {
+            x += i * 1.21;
+        }
+        return x;
+    }
+
     @SuppressWarnings("all")
     public static Object invokeConstructorSnippet(int value) {
         return new SuperClass(value);
@@ -282,8 +345,20 @@ public class InliningTest extends GraalCompilerTest {
         return getGraph(snippet, null, eagerInfopointMode);
     }
 
-    @SuppressWarnings("try")
     private StructuredGraph getGraph(final String snippet, OptionValues options, final boolean eagerInfopointMode) {
+        return getGraph(snippet, options, eagerInfopointMode, null);
+    }
+
+    private StructuredGraph getGraph(final String snippet, InliningPolicy policy) {
+        return getGraph(snippet, null, false, policy);
+    }
+
+    private StructuredGraph getGraph(final String snippet, OptionValues options, InliningPolicy policy) {
+        return getGraph(snippet, options, false, policy);
+    }
+
+    @SuppressWarnings("try")
+    private StructuredGraph getGraph(final String snippet, OptionValues options, final boolean eagerInfopointMode, InliningPolicy policy) {
         DebugContext debug = options == null ? getDebugContext() : getDebugContext(options, null, null);
         try (DebugContext.Scope s = debug.scope("InliningTest", new DebugDumpScope(snippet, true))) {
             ResolvedJavaMethod method = getResolvedJavaMethod(snippet);
@@ -296,7 +371,7 @@ public class InliningTest extends GraalCompilerTest {
                 HighTierContext context = new HighTierContext(getProviders(), graphBuilderSuite, OptimisticOptimizations.ALL);
                 debug.dump(DebugContext.BASIC_LEVEL, graph, "Graph");
                 createCanonicalizerPhase().apply(graph, context);
-                createInliningPhase().apply(graph, context);
+                (policy == null ? createInliningPhase() : new InliningPhase(policy, createCanonicalizerPhase())).apply(graph, context);
                 debug.dump(DebugContext.BASIC_LEVEL, graph, "Graph");
                 createCanonicalizerPhase().apply(graph, context);
                 new DeadCodeEliminationPhase().apply(graph);
@@ -315,6 +390,15 @@ public class InliningTest extends GraalCompilerTest {
         return assertInGraph(graph, Invoke.class);
     }
 
+    private static StructuredGraph assertInvokes(StructuredGraph graph, String... expectedTargets) {
+        List<String> targets = new ArrayList<>();
+        for (Invoke invoke : graph.getNodes().filter(Invoke.class)) {
+            targets.add(invoke.callTarget().targetMethod().getName());
+        }
+        Assert.assertEquals(Arrays.asList(expectedTargets), targets);
+        return graph;
+    }
+
     private static StructuredGraph assertNotInGraph(StructuredGraph graph, Class<?> clazz) {
         for (Node node : graph.getNodes()) {
             if (clazz.isInstance(node)) {
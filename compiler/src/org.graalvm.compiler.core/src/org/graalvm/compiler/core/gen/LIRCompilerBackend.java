@@ -44,6 +44,8 @@ import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.debug.TimerKey;
 import org.graalvm.compiler.lir.LIR;
 import org.graalvm.compiler.lir.alloc.OutOfRegistersException;
+import org.graalvm.compiler.lir.alloc.lsra.GraphColoringAllocator;
+import org.graalvm.compiler.lir.alloc.lsra.GraphColoringAllocator.RegisterAllocator;
 import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
 import org.graalvm.compiler.lir.asm.CompilationResultBuilderFactory;
 import org.graalvm.compiler.lir.framemap.FrameMap;
@@ -58,6 +60,7 @@ import org.graalvm.compiler.nodes.StructuredGraph.ScheduleResult;
 import org.graalvm.compiler.nodes.StructuredGraph.StageFlag;
 import org.graalvm.compiler.nodes.cfg.Block;
 import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.compiler.options.OptionValues;
 
 import jdk.vm.ci.code.RegisterConfig;
 import jdk.vm.ci.code.TargetDescription;
@@ -111,12 +114,18 @@ public class LIRCompilerBackend {
     public static LIRGenerationResult emitLIR(Backend backend, StructuredGraph graph, Object stub, RegisterConfig registerConfig, LIRSuites lirSuites) {
         String registerPressure = GraalOptions.RegisterPressure.getValue(graph.getOptions());
         String[] allocationRestrictedTo = registerPressure == null ? null : registerPressure.split(",");
+        OptionValues options = graph.getOptions();
         try {
-            return emitLIR0(backend, graph, stub, registerConfig, lirSuites, allocationRestrictedTo);
+            return emitLIR0(backend, graph, stub, registerConfig, lirSuites, allocationRestrictedTo, options);
         } catch (OutOfRegistersException e) {
-            if (allocationRestrictedTo != null) {
+            boolean graphColoring = GraphColoringAllocator.Options.LIRRegisterAllocator.getValue(options) != RegisterAllocator.LinearScan;
+            if (allocationRestrictedTo != null || graphColoring) {
                 allocationRestrictedTo = null;
-                return emitLIR0(backend, graph, stub, registerConfig, lirSuites, allocationRestrictedTo);
+                if (graphColoring) {
+                    /* Registers reserved by graph coloring did not suffice, fall back to linear scan */
+                    options = new OptionValues(options, GraphColoringAllocator.Options.LIRRegisterAllocator, RegisterAllocator.LinearScan);
+                }
+                return emitLIR0(backend, graph, stub, registerConfig, lirSuites, allocationRestrictedTo, options);
             }
             /* If the re-execution fails we convert the exception into a "hard" failure */
             throw new GraalError(e);
@@ -131,7 +140,8 @@ public class LIRCompilerBackend {
                     Object stub,
                     RegisterConfig registerConfig,
                     LIRSuites lirSuites,
-                    String[] allocationRestrictedTo) {
+                    String[] allocationRestrictedTo,
+                    OptionValues lirOptions) {
         DebugContext debug = graph.getDebug();
         try (DebugContext.Scope ds = debug.scope("EmitLIR"); DebugCloseable a = EmitLIR.start(debug)) {
             assert graph.isAfterStage(StageFlag.VALUE_PROXY_REMOVAL);
@@ -144,7 +154,7 @@ public class LIRCompilerBackend {
 
             AbstractBlockBase<?>[] codeEmittingOrder = ComputeBlockOrder.computeCodeEmittingOrder(blocks.length, startBlock);
             AbstractBlockBase<?>[] linearScanOrder = ComputeBlockOrder.computeLinearScanOrder(blocks.length, startBlock);
-            LIR lir = new LIR(schedule.getCFG(), linearScanOrder, codeEmittingOrder, graph.getOptions(), graph.getDebug());
+            LIR lir = new LIR(schedule.getCFG(), linearScanOrder, codeEmittingOrder, lirOptions, graph.getDebug());
 
             LIRGenerationProvider lirBackend = (LIRGenerationProvider) backend;
             RegisterAllocationConfig registerAllocationConfig = backend.newRegisterAllocationConfig(registerConfig, allocationRestrictedTo);
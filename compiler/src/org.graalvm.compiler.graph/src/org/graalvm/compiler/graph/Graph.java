@@ -65,6 +65,8 @@ public class Graph {
         public static final OptionKey<Boolean> VerifyGraalGraphEdges = new OptionKey<>(false);
         @Option(help = "Graal graph compression is performed when percent of live nodes falls below this value", type = OptionType.Debug)//
         public static final OptionKey<Integer> GraphCompressionThreshold = new OptionKey<>(70);
+        @Option(help = "Share a single instance between the nodes of a graph that have equal source positions", type = OptionType.Debug)//
+        public static final OptionKey<Boolean> InternNodeSourcePositions = new OptionKey<>(true);
     }
 
     private enum FreezeState {
@@ -90,6 +92,18 @@ public class Graph {
      */
     protected boolean trackNodeSourcePosition;
 
+    /**
+     * Determines if {@link #internNodeSourcePosition} canonicalizes source positions.
+     */
+    private final boolean internNodeSourcePositions;
+
+    /**
+     * Canonical instances of the source positions attached to the nodes of this graph. Inlining
+     * and partial evaluation create a new {@link NodeSourcePosition} chain for every node they
+     * copy, so without sharing a large graph retains many equal copies of the same chain.
+     */
+    private EconomicMap<NodeSourcePosition, NodeSourcePosition> internedSourcePositions;
+
     /**
      * The number of valid entries in {@link #nodes}.
      */
@@ -126,6 +140,39 @@ public class Graph {
      */
     private EconomicMap<Node, Node>[] cachedLeafNodes;
 
+    /**
+     * Compares source positions including the {@linkplain NodeSourcePosition#getMarker() markers}
+     * of all positions in the caller chain, which are ignored by
+     * {@link NodeSourcePosition#equals(Object)}.
+     */
+    private static final Equivalence SOURCE_POSITION_COMPARE = new Equivalence() {
+
+        @Override
+        public boolean equals(Object a, Object b) {
+            if (a == b) {
+                return true;
+            }
+            if (!a.equals(b)) {
+                return false;
+            }
+            NodeSourcePosition posA = (NodeSourcePosition) a;
+            NodeSourcePosition posB = (NodeSourcePosition) b;
+            while (posA != null) {
+                if (posA.getMarker() != posB.getMarker()) {
+                    return false;
+                }
+                posA = posA.getCaller();
+                posB = posB.getCaller();
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode(Object k) {
+            return k.hashCode();
+        }
+    };
+
     private static final Equivalence NODE_VALUE_COMPARE = new Equivalence() {
 
         @Override
@@ -226,6 +273,42 @@ public class Graph {
         }
     }
 
+    /**
+     * Gets the instance shared by all nodes in this graph whose source position is equal to
+     * {@code position}.
+     */
+    NodeSourcePosition internNodeSourcePosition(NodeSourcePosition position) {
+        if (!internNodeSourcePositions || freezeState != FreezeState.Unfrozen) {
+            return position;
+        }
+        if (internedSourcePositions == null) {
+            internedSourcePositions = EconomicMap.create(SOURCE_POSITION_COMPARE);
+        }
+        NodeSourcePosition interned = internedSourcePositions.get(position);
+        if (interned == null) {
+            internedSourcePositions.put(position, position);
+            return position;
+        }
+        return interned;
+    }
+
+    /**
+     * Drops the interned source positions that are no longer attached to a live node of this graph.
+     */
+    private void pruneInternedSourcePositions() {
+        if (internedSourcePositions == null || internedSourcePositions.isEmpty()) {
+            return;
+        }
+        EconomicMap<NodeSourcePosition, NodeSourcePosition> live = EconomicMap.create(SOURCE_POSITION_COMPARE);
+        for (Node node : getNodes()) {
+            NodeSourcePosition position = node.getNodeSourcePosition();
+            if (position != null && !live.containsKey(position)) {
+                live.put(position, position);
+            }
+        }
+        internedSourcePositions = live;
+    }
+
     public static boolean trackNodeSourcePositionDefault(OptionValues options, DebugContext debug) {
         return (GraalOptions.TrackNodeSourcePosition.getValue(options) || debug.isDumpEnabledForMethod());
     }
@@ -280,6 +363,7 @@ public class Graph {
         this.name = name;
         this.options = options;
         this.trackNodeSourcePosition = trackNodeSourcePosition || trackNodeSourcePositionDefault(options, debug);
+        this.internNodeSourcePositions = Options.InternNodeSourcePositions.getValue(options);
         assert debug != null;
         this.debug = debug;
 
@@ -924,7 +1008,8 @@ public class Graph {
     /**
      * If the {@linkplain Options#GraphCompressionThreshold compression threshold} is met, the list
      * of nodes is compressed such that all non-null entries precede all null entries while
-     * preserving the ordering between the nodes within the list.
+     * preserving the ordering between the nodes within the list. Usage lists that have shrunk
+     * considerably are trimmed and the source positions of deleted nodes are no longer interned.
      */
     public boolean maybeCompress() {
         if (debug.isDumpEnabledForMethod() || debug.isLogEnabledForMethod()) {
@@ -950,6 +1035,7 @@ public class Graph {
                     nodes[nextId] = n;
                     nodes[i] = null;
                 }
+                n.trimUsages();
                 nextId++;
             }
         }
@@ -959,6 +1045,7 @@ public class Graph {
             Arrays.fill(nodeUsageModCounts, 0);
         }
         nodesSize = nextId;
+        pruneInternedSourcePositions();
         compressions++;
         nodesDeletedBeforeLastCompression += nodesDeletedSinceLastCompression;
         nodesDeletedSinceLastCompression = 0;
@@ -1086,8 +1173,12 @@ public class Graph {
         int id = nodesSize++;
         nodes[id] = node;
         node.id = id;
-        if (currentNodeSourcePosition != null && trackNodeSourcePosition()) {
-            node.setNodeSourcePosition(currentNodeSourcePosition);
+        if (trackNodeSourcePosition()) {
+            if (currentNodeSourcePosition != null) {
+                node.setNodeSourcePosition(currentNodeSourcePosition);
+            } else {
+                node.internNodeSourcePosition();
+            }
         }
         if (TrackNodeInsertion.getValue(getOptions())) {
             node.setInsertionPosition(new NodeInsertionStackTrace());
@@ -486,6 +486,21 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
         }
     }
 
+    /**
+     * Releases the {@link #extraUsages} array or replaces it with a smaller one if the number of
+     * usages has dropped well below its capacity.
+     */
+    void trimUsages() {
+        int length = extraUsages.length;
+        if (extraUsagesCount == 0) {
+            if (length != 0) {
+                extraUsages = NO_NODES;
+            }
+        } else if (length > 4 && extraUsagesCount * 4 <= length) {
+            extraUsages = Arrays.copyOf(extraUsages, Math.max(4, extraUsagesCount * 2));
+        }
+    }
+
     private void movUsageFromEndTo(int destIndex) {
         if (destIndex >= INLINE_USAGE_COUNT) {
             movUsageFromEndToExtraUsages(destIndex - INLINE_USAGE_COUNT);
@@ -717,7 +732,18 @@ public abstract class Node implements Cloneable, Formattable, NodeInterface {
         if (sourcePosition == null) {
             return;
         }
-        setNodeInfo(NodeSourcePosition.class, sourcePosition);
+        setNodeInfo(NodeSourcePosition.class, graph == null ? sourcePosition : graph.internNodeSourcePosition(sourcePosition));
+    }
+
+    /**
+     * Replaces the source position of this node with the equal instance shared by other nodes in
+     * its graph.
+     */
+    void internNodeSourcePosition() {
+        NodeSourcePosition sourcePosition = getNodeSourcePosition();
+        if (sourcePosition != null) {
+            setNodeInfo(NodeSourcePosition.class, graph.internNodeSourcePosition(sourcePosition));
+        }
     }
 
     public void clearNodeSourcePosition() {
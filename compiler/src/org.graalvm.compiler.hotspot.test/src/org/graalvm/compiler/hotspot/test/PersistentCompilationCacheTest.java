@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import static org.graalvm.compiler.hotspot.PersistentCompilationCache.Options.CompilationCacheFile;
+import static org.graalvm.compiler.hotspot.PersistentCompilationCache.Options.CompilationCacheMaxEntries;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.graalvm.compiler.hotspot.HotSpotGraalCompiler;
+import org.graalvm.compiler.hotspot.PersistentCompilationCache;
+import org.graalvm.compiler.hotspot.PersistentCompilationCache.Entry;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import jdk.vm.ci.hotspot.HotSpotCompilationRequest;
+import jdk.vm.ci.hotspot.HotSpotJVMCIRuntime;
+import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.runtime.JVMCICompiler;
+
+/**
+ * Tests the file format, the validation and the replay of the {@link PersistentCompilationCache}.
+ */
+public class PersistentCompilationCacheTest extends HotSpotGraalCompilerTest {
+
+    public static int cachedSnippet1(int a) {
+        return a + 1;
+    }
+
+    public static int cachedSnippet2(int a, int b) {
+        return a * b;
+    }
+
+    public static int replayedSnippet(int a) {
+        int result = 0;
+        for (int i = 0; i < a; i++) {
+            result += i ^ a;
+        }
+        return result;
+    }
+
+    private void record(PersistentCompilationCache cache, String methodName) {
+        HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) getResolvedJavaMethod(methodName);
+        cache.recordCompilation(new HotSpotCompilationRequest(method, JVMCICompiler.INVOCATION_ENTRY_BCI, 0L));
+    }
+
+    private PersistentCompilationCache writeCache(OptionValues options) {
+        PersistentCompilationCache cache = new PersistentCompilationCache(null, options);
+        record(cache, "cachedSnippet1");
+        record(cache, "cachedSnippet2");
+        // a method compiled twice is recorded once
+        record(cache, "cachedSnippet1");
+        cache.write();
+        return cache;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = Files.createTempFile("compilationcache", ".txt");
+        try {
+            OptionValues options = new OptionValues(getInitialOptions(), CompilationCacheFile, file.toString());
+            writeCache(options);
+
+            List<Entry> entries = new PersistentCompilationCache(null, options).read();
+            Assert.assertEquals(2, entries.size());
+            String[] names = {"cachedSnippet1", "cachedSnippet2"};
+            for (int i = 0; i < names.length; i++) {
+                Entry entry = entries.get(i);
+                ResolvedJavaMethod expected = getResolvedJavaMethod(names[i]);
+                Assert.assertEquals(getClass().getName(), entry.className);
+                Assert.assertEquals(names[i], entry.methodName);
+                Assert.assertEquals(expected.getSignature().toMethodDescriptor(), entry.descriptor);
+                Assert.assertEquals(PersistentCompilationCache.bytecodeHash(expected), entry.bytecodeHash);
+                Assert.assertEquals(expected, entry.lookup(getMetaAccess().lookupJavaType(getClass())));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testOptionsChanged() throws IOException {
+        Path file = Files.createTempFile("compilationcache", ".txt");
+        try {
+            OptionValues options = new OptionValues(getInitialOptions(), CompilationCacheFile, file.toString());
+            writeCache(options);
+
+            OptionValues changedOptions = new OptionValues(options, CompilationCacheMaxEntries, CompilationCacheMaxEntries.getValue(options) + 1);
+            Assert.assertTrue("cache written with different options must be ignored", new PersistentCompilationCache(null, changedOptions).read().isEmpty());
+            Assert.assertEquals(2, new PersistentCompilationCache(null, options).read().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testBytecodeChanged() throws IOException {
+        Path file = Files.createTempFile("compilationcache", ".txt");
+        try {
+            OptionValues options = new OptionValues(getInitialOptions(), CompilationCacheFile, file.toString());
+            writeCache(options);
+
+            // simulate a change of the bytecode of cachedSnippet1 by changing its recorded hash
+            long hash = PersistentCompilationCache.bytecodeHash(getResolvedJavaMethod("cachedSnippet1"));
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            String recorded = "\tcachedSnippet1\t";
+            for (int i = 0; i < lines.size(); i++) {
+                if (lines.get(i).contains(recorded)) {
+                    lines.set(i, lines.get(i).replace('\t' + Long.toHexString(hash), '\t' + Long.toHexString(hash ^ 1)));
+                }
+            }
+            Files.write(file, lines, StandardCharsets.UTF_8);
+
+            List<Entry> entries = new PersistentCompilationCache(null, options).read();
+            Assert.assertEquals(2, entries.size());
+            Assert.assertNull("entry with changed bytecode must not match", entries.get(0).lookup(getMetaAccess().lookupJavaType(getClass())));
+            Assert.assertEquals(getResolvedJavaMethod("cachedSnippet2"), entries.get(1).lookup(getMetaAccess().lookupJavaType(getClass())));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testReplayCompiles() throws IOException {
+        HotSpotResolvedJavaMethod method = (HotSpotResolvedJavaMethod) getResolvedJavaMethod("replayedSnippet");
+        int topTier = runtime().getVMConfig().compilationLevelFullOptimization;
+        // the lower tiers produce the mature profile the replay waits for
+        for (int i = 0; i < 1_000_000 && !method.getProfilingInfo().isMature(); i++) {
+            replayedSnippet(i & 0xF);
+        }
+        Assume.assumeTrue("profile did not mature", method.getProfilingInfo().isMature());
+        Assume.assumeFalse("already compiled by the top tier", method.hasCodeAtLevel(JVMCICompiler.INVOCATION_ENTRY_BCI, topTier));
+
+        Path file = Files.createTempFile("compilationcache", ".txt");
+        try {
+            OptionValues options = new OptionValues(getInitialOptions(), CompilationCacheFile, file.toString());
+            HotSpotGraalCompiler compiler = (HotSpotGraalCompiler) HotSpotJVMCIRuntime.runtime().getCompiler();
+            PersistentCompilationCache cache = new PersistentCompilationCache(compiler, options);
+            cache.recordCompilation(new HotSpotCompilationRequest(method, JVMCICompiler.INVOCATION_ENTRY_BCI, 0L));
+            cache.write();
+
+            List<Entry> entries = new PersistentCompilationCache(compiler, options).read();
+            Assert.assertEquals(1, entries.size());
+            List<Entry> retry = cache.replayRound(entries, getMetaAccess());
+            Assert.assertTrue("entry must not be retried: " + retry, retry.isEmpty());
+            Assert.assertTrue("replay must install top-tier code", method.hasCodeAtLevel(JVMCICompiler.INVOCATION_ENTRY_BCI, topTier));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
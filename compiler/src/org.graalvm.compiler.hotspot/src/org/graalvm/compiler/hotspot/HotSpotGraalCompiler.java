@@ -83,6 +83,7 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable, JV
     private final HotSpotGraalRuntimeProvider graalRuntime;
     private final CompilationCounters compilationCounters;
     private final BootstrapWatchDog bootstrapWatchDog;
+    private PersistentCompilationCache compilationCache;
     private List<DebugHandlersFactory> factories;
 
     HotSpotGraalCompiler(HotSpotJVMCIRuntime jvmciRuntime, HotSpotGraalRuntimeProvider graalRuntime, OptionValues options) {
@@ -93,6 +94,13 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable, JV
         this.bootstrapWatchDog = graalRuntime.isBootstrapping() && !DebugOptions.BootstrapInitializeOnly.getValue(options) ? BootstrapWatchDog.maybeCreate(graalRuntime) : null;
     }
 
+    /**
+     * Enables the {@link PersistentCompilationCache} for this compiler if it is configured.
+     */
+    void initializeCompilationCache(HotSpotGraalRuntime runtime) {
+        compilationCache = PersistentCompilationCache.maybeCreate(this, runtime, runtime.getOptions());
+    }
+
     public List<DebugHandlersFactory> getDebugHandlersFactories() {
         if (factories == null) {
             factories = Collections.singletonList(new GraalDebugHandlersFactory(graalRuntime.getHostProviders().getSnippetReflection()));
@@ -154,6 +162,9 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable, JV
                     r = task.runCompilation(debug);
                 }
                 assert r != null;
+                if (compilationCache != null && installAsDefault && r.getFailure() == null) {
+                    compilationCache.recordCompilation(hsRequest);
+                }
                 return r;
             }
         }
@@ -155,6 +155,7 @@ public final class HotSpotGraalCompilerFactory extends HotSpotJVMCICompilerFacto
             isGraalPredicate.onCompilerConfigurationFactorySelection(hsRuntime, factory);
         }
         HotSpotGraalCompiler compiler = createCompiler("VM", runtime, options, factory);
+        compiler.initializeCompilationCache((HotSpotGraalRuntime) compiler.getGraalRuntime());
         // Only the HotSpotGraalRuntime associated with the compiler created via
         // jdk.vm.ci.runtime.JVMCIRuntime.getCompiler() is registered for receiving
         // VM events.
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import static org.graalvm.compiler.hotspot.HotSpotGraalCompiler.fmt;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+import jdk.vm.ci.hotspot.HotSpotCompilationRequest;
+import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import jdk.vm.ci.runtime.JVMCICompiler;
+import jdk.vm.ci.services.Services;
+
+/**
+ * A cache of the methods compiled by Graal that persists across VM executions. When the VM shuts
+ * down, the methods for which Graal installed default code are written to a file. When the next VM
+ * starts with the same file and the same compiler options, a background thread compiles these
+ * methods as soon as their declaring classes are initialized and their profiles are mature instead
+ * of waiting for them to reach the compilation thresholds of the interpreter and the lower tiers
+ * again. A method without a mature profile is not compiled, so the replayed code is never compiled
+ * with less profiling information than the lower tiers would provide.
+ *
+ * The cache stores compilation requests, not machine code. Installed code embeds addresses,
+ * metadata and speculations that are specific to one VM execution, so a cached method is compiled
+ * again in the new VM. This way the code is always valid for the current class hierarchy and the
+ * current {@link jdk.vm.ci.meta.SpeculationLog speculation log}: the assumptions are registered
+ * with the newly installed code as for any other compilation. A cache entry is discarded if the
+ * bytecode of its method changed and the whole cache is discarded if the compiler options changed.
+ */
+public final class PersistentCompilationCache {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "File in which the methods compiled by Graal are recorded at VM shutdown. If the file exists " +
+                       "at VM startup and was created with the same compiler options, the recorded methods are " +
+                       "compiled in the background as soon as their classes are initialized and their profiles are mature.", type = OptionType.Expert)
+        public static final OptionKey<String> CompilationCacheFile = new OptionKey<>(null);
+        @Option(help = "Maximum number of methods recorded in the compilation cache.", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationCacheMaxEntries = new OptionKey<>(5000);
+        @Option(help = "Delay in milliseconds between two rounds of compiling the methods in the compilation cache. " +
+                       "Methods of classes that are not yet initialized and methods without a mature profile are retried in the next round.", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationCacheReplayDelay = new OptionKey<>(500);
+        @Option(help = "Number of rounds in which the methods in the compilation cache are compiled.", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationCacheReplayRounds = new OptionKey<>(20);
+        // @formatter:on
+    }
+
+    private static final String HEADER = "# Graal compilation cache, version 1";
+
+    /**
+     * A method recorded in the cache.
+     */
+    public static final class Entry {
+        public final String className;
+        public final String methodName;
+        public final String descriptor;
+        public final long bytecodeHash;
+
+        Entry(String className, String methodName, String descriptor, long bytecodeHash) {
+            this.className = className;
+            this.methodName = methodName;
+            this.descriptor = descriptor;
+            this.bytecodeHash = bytecodeHash;
+        }
+
+        Entry(ResolvedJavaMethod method) {
+            this(method.getDeclaringClass().toJavaName(), method.getName(), method.getSignature().toMethodDescriptor(), bytecodeHash(method));
+        }
+
+        String key() {
+            return className + '.' + methodName + descriptor;
+        }
+
+        /**
+         * Looks up the method of this entry in {@code type}.
+         *
+         * @return null if there is no such method or its bytecode changed
+         */
+        public ResolvedJavaMethod lookup(ResolvedJavaType type) {
+            for (ResolvedJavaMethod method : type.getDeclaredMethods()) {
+                if (matches(method)) {
+                    return method;
+                }
+            }
+            for (ResolvedJavaMethod method : type.getDeclaredConstructors()) {
+                if (matches(method)) {
+                    return method;
+                }
+            }
+            return null;
+        }
+
+        private boolean matches(ResolvedJavaMethod method) {
+            return method.getName().equals(methodName) && method.getSignature().toMethodDescriptor().equals(descriptor) && bytecodeHash(method) == bytecodeHash;
+        }
+    }
+
+    private final HotSpotGraalCompiler compiler;
+    private final OptionValues options;
+    private final Path file;
+    private final String optionsHash;
+    private final int maxEntries;
+
+    /**
+     * The methods compiled in this VM, in the order of their first compilation.
+     */
+    private final Map<String, Entry> compiled = new LinkedHashMap<>();
+
+    public PersistentCompilationCache(HotSpotGraalCompiler compiler, OptionValues options) {
+        this.compiler = compiler;
+        this.options = options;
+        this.file = Paths.get(Options.CompilationCacheFile.getValue(options));
+        this.optionsHash = Integer.toHexString(options.toString().hashCode());
+        this.maxEntries = Options.CompilationCacheMaxEntries.getValue(options);
+    }
+
+    /**
+     * Creates the compilation cache for {@code compiler} if {@link Options#CompilationCacheFile} is
+     * set, and starts compiling the methods recorded by a previous VM execution.
+     *
+     * @return null if the compilation cache is disabled
+     */
+    static PersistentCompilationCache maybeCreate(HotSpotGraalCompiler compiler, HotSpotGraalRuntime graalRuntime, OptionValues options) {
+        if (Options.CompilationCacheFile.getValue(options) == null) {
+            return null;
+        }
+        if (Services.IS_IN_NATIVE_IMAGE) {
+            // application classes cannot be looked up by name from the JVMCI shared library
+            TTY.println("Warning: %s is not supported with libgraal", Options.CompilationCacheFile.getName());
+            return null;
+        }
+        PersistentCompilationCache cache = new PersistentCompilationCache(compiler, options);
+        graalRuntime.addShutdownHook(cache::write);
+        List<Entry> entries = cache.read();
+        if (!entries.isEmpty() && !graalRuntime.isBootstrapping()) {
+            cache.startReplay(entries, graalRuntime.getHostProviders().getMetaAccess());
+        }
+        return cache;
+    }
+
+    public static long bytecodeHash(ResolvedJavaMethod method) {
+        byte[] code = method.getCode();
+        if (code == null) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(code);
+        return crc.getValue();
+    }
+
+    /**
+     * Records a compilation that installed default code for a method.
+     */
+    public void recordCompilation(HotSpotCompilationRequest request) {
+        if (request.getEntryBCI() != JVMCICompiler.INVOCATION_ENTRY_BCI) {
+            return;
+        }
+        Entry entry = new Entry(request.getMethod());
+        synchronized (compiled) {
+            if (compiled.size() < maxEntries) {
+                compiled.putIfAbsent(entry.key(), entry);
+            }
+        }
+    }
+
+    /**
+     * Reads the entries from the cache file.
+     *
+     * @return an empty list if the file does not exist, cannot be read or was written with
+     *         different compiler options
+     */
+    public List<Entry> read() {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine()) || !optionsHash.equals(reader.readLine())) {
+                return entries;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t");
+                if (parts.length == 4) {
+                    entries.add(new Entry(parts[0], parts[1], parts[2], Long.parseLong(parts[3], 16)));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            TTY.println("Warning: could not read compilation cache %s: %s", file, e);
+            entries.clear();
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the methods compiled in this VM to the cache file. The file is written to a temporary
+     * file first and then moved, so a concurrently starting VM never sees a partial cache.
+     */
+    public void write() {
+        List<Entry> entries;
+        synchronized (compiled) {
+            entries = new ArrayList<>(compiled.values());
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                writer.write(optionsHash);
+                writer.newLine();
+                for (Entry entry : entries) {
+                    writer.write(entry.className + '\t' + entry.methodName + '\t' + entry.descriptor + '\t' + Long.toHexString(entry.bytecodeHash));
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            TTY.println("Warning: could not write compilation cache %s: %s", file, e);
+        }
+    }
+
+    private void startReplay(List<Entry> entries, MetaAccessProvider metaAccess) {
+        Thread thread = new Thread(() -> replay(entries, metaAccess), "GraalCompilationCacheReplay");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Compiles the methods of {@code entries} in {@link Options#CompilationCacheReplayRounds}
+     * rounds.
+     */
+    private void replay(List<Entry> entries, MetaAccessProvider metaAccess) {
+        int delay = Options.CompilationCacheReplayDelay.getValue(options);
+        int rounds = Options.CompilationCacheReplayRounds.getValue(options);
+        List<Entry> pending = entries;
+        for (int round = 0; round < rounds && !pending.isEmpty(); round++) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending = replayRound(pending, metaAccess);
+        }
+    }
+
+    /**
+     * Compiles the methods of {@code entries} that are ready to be compiled. A method is only
+     * compiled once its declaring class is initialized, so the compiled code does not need to
+     * deoptimize for the class initialization, and once its profile is mature, so the code is
+     * optimized for the current execution. Methods that already have top-tier code are skipped.
+     * Code of the lower tiers does not prevent the compilation, since the lower tiers produce the
+     * mature profile in the first place.
+     *
+     * @return the entries that are not ready yet and should be retried in a later round
+     */
+    public List<Entry> replayRound(List<Entry> entries, MetaAccessProvider metaAccess) {
+        int topTier = compiler.getGraalRuntime().getVMConfig().compilationLevelFullOptimization;
+        List<Entry> retry = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (compiler.getGraalRuntime().isShutdown()) {
+                return new ArrayList<>();
+            }
+            ResolvedJavaType type = lookupType(entry.className, metaAccess);
+            if (type == null) {
+                continue;
+            }
+            if (!type.isInitialized()) {
+                retry.add(entry);
+                continue;
+            }
+            ResolvedJavaMethod method = entry.lookup(type);
+            if (method == null || method.getCode() == null || ((HotSpotResolvedJavaMethod) method).hasCodeAtLevel(JVMCICompiler.INVOCATION_ENTRY_BCI, topTier)) {
+                continue;
+            }
+            if (!method.getProfilingInfo().isMature()) {
+                retry.add(entry);
+                continue;
+            }
+            HotSpotCompilationRequest request = new HotSpotCompilationRequest((HotSpotResolvedJavaMethod) method, JVMCICompiler.INVOCATION_ENTRY_BCI, 0L);
+            try {
+                compiler.compileMethod(request, true, options);
+            } catch (Throwable t) {
+                TTY.println("Warning: compiling cached method %s failed: %s", fmt(method), t);
+            }
+        }
+        return retry;
+    }
+
+    private static ResolvedJavaType lookupType(String className, MetaAccessProvider metaAccess) {
+        try {
+            return metaAccess.lookupJavaType(Class.forName(className, false, ClassLoader.getSystemClassLoader()));
+        } catch (ClassNotFoundException | LinkageError e) {
+            // the class is not visible to the system class loader or no longer exists
+            return null;
+        }
+    }
+}
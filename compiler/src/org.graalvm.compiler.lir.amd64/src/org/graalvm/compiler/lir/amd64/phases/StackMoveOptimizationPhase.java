@@ -29,8 +29,8 @@ import static org.graalvm.compiler.lir.phases.LIRPhase.Options.LIROptimization;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.lir.LIR;
@@ -39,6 +39,7 @@ import org.graalvm.compiler.lir.RedundantMoveElimination;
 import org.graalvm.compiler.lir.amd64.AMD64Move.AMD64MultiStackMove;
 import org.graalvm.compiler.lir.amd64.AMD64Move.AMD64StackMove;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.phases.LIRBlockParallelism;
 import org.graalvm.compiler.lir.phases.PostAllocationOptimizationPhase;
 import org.graalvm.compiler.options.NestedBooleanOptionKey;
 import org.graalvm.compiler.options.Option;
@@ -70,10 +71,15 @@ public class StackMoveOptimizationPhase extends PostAllocationOptimizationPhase
     protected void run(TargetDescription target, LIRGenerationResult lirGenRes, PostAllocationOptimizationContext context) {
         LIR lir = lirGenRes.getLIR();
         DebugContext debug = lir.getDebug();
-        for (AbstractBlockBase<?> block : lir.getControlFlowGraph().getBlocks()) {
+        AtomicInteger eliminated = new AtomicInteger();
+        LIRBlockParallelism.forEachBlock(lir, lir.getControlFlowGraph().getBlocks(), block -> {
             ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
-            new Closure().process(debug, instructions);
-        }
+            int count = new Closure().process(instructions);
+            if (count != 0) {
+                eliminated.addAndGet(count);
+            }
+        });
+        eliminatedBackup.add(debug, eliminated.get());
     }
 
     private static class Closure {
@@ -85,8 +91,14 @@ public class StackMoveOptimizationPhase extends PostAllocationOptimizationPhase
         private List<Value> src;
         private AllocatableValue slot;
         private boolean removed = false;
-
-        public void process(DebugContext debug, List<LIRInstruction> instructions) {
+        private int eliminated = 0;
+
+        /**
+         * Processes the instructions of a single block.
+         *
+         * @return the number of eliminated scratch register backups and restores
+         */
+        public int process(List<LIRInstruction> instructions) {
             for (int i = 0; i < instructions.size(); i++) {
                 LIRInstruction inst = instructions.get(i);
 
@@ -95,7 +107,7 @@ public class StackMoveOptimizationPhase extends PostAllocationOptimizationPhase
 
                     if (reg != null && !reg.equals(move.getScratchRegister())) {
                         // end of trace & start of new
-                        replaceStackMoves(debug, instructions);
+                        replaceStackMoves(instructions);
                     }
 
                     // lazy initialize
@@ -117,17 +129,17 @@ public class StackMoveOptimizationPhase extends PostAllocationOptimizationPhase
 
                 } else if (begin != NONE) {
                     // end of trace
-                    replaceStackMoves(debug, instructions);
+                    replaceStackMoves(instructions);
                 }
             }
             // remove instructions
             if (removed) {
                 instructions.removeAll(Collections.singleton(null));
             }
-
+            return eliminated;
         }
 
-        private void replaceStackMoves(DebugContext debug, List<LIRInstruction> instructions) {
+        private void replaceStackMoves(List<LIRInstruction> instructions) {
             int size = dst.size();
             if (size > 1) {
                 AMD64MultiStackMove multiMove = new AMD64MultiStackMove(dst.toArray(new AllocatableValue[size]), src.toArray(new AllocatableValue[size]), reg, slot);
@@ -137,7 +149,7 @@ public class StackMoveOptimizationPhase extends PostAllocationOptimizationPhase
                 Collections.fill(instructions.subList(begin + 1, begin + size), null);
                 // removed
                 removed = true;
-                eliminatedBackup.add(debug, size - 1);
+                eliminated += size - 1;
             }
             // reset
             dst.clear();
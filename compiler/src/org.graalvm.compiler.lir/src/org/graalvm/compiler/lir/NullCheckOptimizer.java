@@ -30,6 +30,7 @@ import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.lir.StandardOp.ImplicitNullCheck;
 import org.graalvm.compiler.lir.StandardOp.NullCheck;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.phases.LIRBlockParallelism;
 import org.graalvm.compiler.lir.phases.PostAllocationOptimizationPhase;
 
 import jdk.vm.ci.code.TargetDescription;
@@ -44,30 +45,27 @@ public final class NullCheckOptimizer extends PostAllocationOptimizationPhase {
     }
 
     private static void foldNullChecks(LIR ir, AbstractBlockBase<?>[] blocks, int implicitNullCheckLimit) {
-        for (AbstractBlockBase<?> block : blocks) {
-            if (block == null) {
-                continue;
-            }
-            ArrayList<LIRInstruction> list = ir.getLIRforBlock(block);
+        LIRBlockParallelism.forEachBlock(ir, blocks, block -> foldNullChecks(ir.getLIRforBlock(block), implicitNullCheckLimit));
+    }
 
-            if (!list.isEmpty()) {
+    private static void foldNullChecks(ArrayList<LIRInstruction> list, int implicitNullCheckLimit) {
+        if (!list.isEmpty()) {
 
-                LIRInstruction lastInstruction = list.get(0);
-                for (int i = 0; i < list.size(); i++) {
-                    LIRInstruction instruction = list.get(i);
+            LIRInstruction lastInstruction = list.get(0);
+            for (int i = 0; i < list.size(); i++) {
+                LIRInstruction instruction = list.get(i);
 
-                    if (instruction instanceof ImplicitNullCheck && lastInstruction instanceof NullCheck) {
-                        NullCheck nullCheck = (NullCheck) lastInstruction;
-                        ImplicitNullCheck implicitNullCheck = (ImplicitNullCheck) instruction;
-                        if (implicitNullCheck.makeNullCheckFor(nullCheck.getCheckedValue(), nullCheck.getState(), implicitNullCheckLimit)) {
-                            list.remove(i - 1);
-                            if (i < list.size()) {
-                                instruction = list.get(i);
-                            }
+                if (instruction instanceof ImplicitNullCheck && lastInstruction instanceof NullCheck) {
+                    NullCheck nullCheck = (NullCheck) lastInstruction;
+                    ImplicitNullCheck implicitNullCheck = (ImplicitNullCheck) instruction;
+                    if (implicitNullCheck.makeNullCheckFor(nullCheck.getCheckedValue(), nullCheck.getState(), implicitNullCheckLimit)) {
+                        list.remove(i - 1);
+                        if (i < list.size()) {
+                            instruction = list.get(i);
                         }
                     }
-                    lastInstruction = instruction;
                 }
+                lastInstruction = instruction;
             }
         }
     }
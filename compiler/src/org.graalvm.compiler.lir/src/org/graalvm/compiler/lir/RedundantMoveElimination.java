@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.graalvm.collections.EconomicMap;
 import org.graalvm.collections.Equivalence;
@@ -45,6 +46,7 @@ import org.graalvm.compiler.lir.StandardOp.MoveOp;
 import org.graalvm.compiler.lir.StandardOp.ValueMoveOp;
 import org.graalvm.compiler.lir.framemap.FrameMap;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.phases.LIRBlockParallelism;
 import org.graalvm.compiler.lir.phases.PostAllocationOptimizationPhase;
 
 import jdk.vm.ci.code.Register;
@@ -332,44 +334,62 @@ public final class RedundantMoveElimination extends PostAllocationOptimizationPh
 
                 AbstractBlockBase<?>[] blocks = lir.linearScanOrder();
 
-                for (AbstractBlockBase<?> block : blocks) {
-
-                    try (Indent indent2 = debug.logAndIndent("eliminate moves in block %d", block.getId())) {
-
-                        ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
-                        BlockData data = blockData.get(block);
-                        boolean hasDead = false;
-
-                        // Reuse the entry state for iteration, we don't need it later.
-                        int[] iterState = data.entryState;
-
-                        // Add the values which are "consumed" by clearValues and
-                        // mergeState in solveDataFlow
-                        int valueNum = data.entryValueNum + data.entryState.length;
-
-                        int numInsts = instructions.size();
-                        for (int idx = 0; idx < numInsts; idx++) {
-                            LIRInstruction op = instructions.get(idx);
-                            if (isEligibleMove(op)) {
-                                ValueMoveOp moveOp = ValueMoveOp.asValueMoveOp(op);
-                                int sourceIdx = getStateIdx(moveOp.getInput());
-                                int destIdx = getStateIdx(moveOp.getResult());
-                                if (sourceIdx >= 0 && destIdx >= 0 && iterState[sourceIdx] == iterState[destIdx]) {
-                                    assert iterState[sourceIdx] != INIT_VALUE;
-                                    debug.log("delete move %s", op);
-                                    instructions.set(idx, null);
-                                    hasDead = true;
-                                    deletedMoves.increment(debug);
-                                }
-                            }
-                            // It doesn't harm if updateState is also called for a deleted move
-                            valueNum = updateState(debug, iterState, op, valueNum);
-                        }
-                        if (hasDead) {
-                            instructions.removeAll(Collections.singleton(null));
+                /*
+                 * The data flow is solved at this point and each block only modifies its own entry
+                 * state and instruction list, so the blocks can be processed independently.
+                 */
+                AtomicInteger deleted = new AtomicInteger();
+                LIRBlockParallelism.forEachBlock(lir, blocks, block -> {
+                    int count = eliminateMoves(debug, lir, block);
+                    if (count != 0) {
+                        deleted.addAndGet(count);
+                    }
+                });
+                deletedMoves.add(debug, deleted.get());
+            }
+        }
+
+        /**
+         * Removes the redundant moves of a single block.
+         *
+         * @return the number of deleted moves
+         */
+        @SuppressWarnings("try")
+        private int eliminateMoves(DebugContext debug, LIR lir, AbstractBlockBase<?> block) {
+            try (Indent indent = debug.logAndIndent("eliminate moves in block %d", block.getId())) {
+
+                ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
+                BlockData data = blockData.get(block);
+                int deleted = 0;
+
+                // Reuse the entry state for iteration, we don't need it later.
+                int[] iterState = data.entryState;
+
+                // Add the values which are "consumed" by clearValues and
+                // mergeState in solveDataFlow
+                int valueNum = data.entryValueNum + data.entryState.length;
+
+                int numInsts = instructions.size();
+                for (int idx = 0; idx < numInsts; idx++) {
+                    LIRInstruction op = instructions.get(idx);
+                    if (isEligibleMove(op)) {
+                        ValueMoveOp moveOp = ValueMoveOp.asValueMoveOp(op);
+                        int sourceIdx = getStateIdx(moveOp.getInput());
+                        int destIdx = getStateIdx(moveOp.getResult());
+                        if (sourceIdx >= 0 && destIdx >= 0 && iterState[sourceIdx] == iterState[destIdx]) {
+                            assert iterState[sourceIdx] != INIT_VALUE;
+                            debug.log("delete move %s", op);
+                            instructions.set(idx, null);
+                            deleted++;
                         }
                     }
+                    // It doesn't harm if updateState is also called for a deleted move
+                    valueNum = updateState(debug, iterState, op, valueNum);
+                }
+                if (deleted != 0) {
+                    instructions.removeAll(Collections.singleton(null));
                 }
+                return deleted;
             }
         }
 
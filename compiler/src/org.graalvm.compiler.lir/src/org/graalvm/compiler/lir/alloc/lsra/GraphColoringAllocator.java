@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.alloc.lsra;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static jdk.vm.ci.code.ValueUtil.isRegister;
+import static org.graalvm.compiler.lir.LIRValueUtil.isVariable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+
+import org.graalvm.compiler.core.common.alloc.RegisterAllocationConfig;
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.Indent;
+import org.graalvm.compiler.lir.alloc.lsra.LinearScan.IntervalPredicate;
+import org.graalvm.compiler.options.EnumOptionKey;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+import jdk.vm.ci.code.Register;
+
+/**
+ * Assigns registers to whole {@linkplain Interval intervals} by coloring their interference graph
+ * (Chaitin-Briggs simplify/select with optimistic spilling) before the {@link LinearScanWalker}
+ * runs.
+ *
+ * Colored intervals keep their register for their entire lifetime and are handed to the walker as
+ * {@linkplain Interval.RegisterBinding#Fixed fixed} intervals. Intervals that could not be colored
+ * are allocated by the walker as usual, which means splitting and spilling still use the linear
+ * scan machinery. To guarantee that the walker can always find a register for the operands of an
+ * instruction, the last {@link Options#GraphColoringReservedRegisters} allocatable registers of
+ * each register category are never used for coloring.
+ *
+ * Move-related intervals are coalesced by biased coloring: when an interval has a
+ * {@linkplain Interval#locationHint(boolean) location hint}, the register of the hint is preferred
+ * if it is still available.
+ */
+public final class GraphColoringAllocator {
+
+    public enum RegisterAllocator {
+        /**
+         * Always use the linear scan walker.
+         */
+        LinearScan,
+        /**
+         * Always color the interference graph before walking the remaining intervals.
+         */
+        GraphColoring,
+        /**
+         * Use graph coloring for methods that contain hot blocks and are small enough for the
+         * quadratic interference graph construction to be cheap.
+         */
+        Adaptive
+    }
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Register allocator used for a compilation: LinearScan, GraphColoring or Adaptive (graph coloring for small methods with hot blocks).", type = OptionType.Expert)
+        public static final EnumOptionKey<RegisterAllocator> LIRRegisterAllocator = new EnumOptionKey<>(RegisterAllocator.LinearScan);
+        @Option(help = "Maximum number of LIR variables of a method for which the Adaptive register allocator uses graph coloring.", type = OptionType.Expert)
+        public static final OptionKey<Integer> GraphColoringMaxVariables = new OptionKey<>(1000);
+        @Option(help = "Minimum relative block frequency that makes the Adaptive register allocator use graph coloring.", type = OptionType.Expert)
+        public static final OptionKey<Double> GraphColoringMinBlockFrequency = new OptionKey<>(8.0);
+        @Option(help = "Number of registers per register category that graph coloring leaves to the linear scan walker.", type = OptionType.Debug)
+        public static final OptionKey<Integer> GraphColoringReservedRegisters = new OptionKey<>(4);
+        @Option(help = "Check the register assignment with the RegisterVerifier after graph coloring allocation.", type = OptionType.Debug)
+        public static final OptionKey<Boolean> VerifyGraphColoring = new OptionKey<>(false);
+        // @formatter:on
+    }
+
+    private static final CounterKey coloredIntervals = DebugContext.counter("LSRA[coloredIntervals]");
+    private static final CounterKey uncoloredIntervals = DebugContext.counter("LSRA[uncoloredIntervals]");
+    private static final CounterKey coalescedIntervals = DebugContext.counter("LSRA[coalescedIntervals]");
+
+    /**
+     * Fixed intervals together with the intervals that received a register from graph coloring.
+     */
+    static final IntervalPredicate IS_PRECOLORED_OR_COLORED_INTERVAL = new IntervalPredicate() {
+
+        @Override
+        public boolean apply(Interval i) {
+            return isRegister(i.operand) || isColored(i);
+        }
+    };
+
+    /**
+     * Variable intervals that are left to the linear scan walker.
+     */
+    static final IntervalPredicate IS_UNCOLORED_VARIABLE_INTERVAL = new IntervalPredicate() {
+
+        @Override
+        public boolean apply(Interval i) {
+            return isVariable(i.operand) && !isColored(i);
+        }
+    };
+
+    private static boolean isColored(Interval i) {
+        return isVariable(i.operand) && i.location() != null && isRegister(i.location());
+    }
+
+    private final LinearScan allocator;
+
+    GraphColoringAllocator(LinearScan allocator) {
+        this.allocator = allocator;
+    }
+
+    /**
+     * Decides whether the compilation processed by {@code allocator} should use graph coloring.
+     */
+    static boolean isSelected(LinearScan allocator) {
+        OptionValues options = allocator.getOptions();
+        switch (Options.LIRRegisterAllocator.getValue(options)) {
+            case GraphColoring:
+                return true;
+            case Adaptive:
+                if (allocator.getLIR().numVariables() > Options.GraphColoringMaxVariables.getValue(options)) {
+                    return false;
+                }
+                double minFrequency = Options.GraphColoringMinBlockFrequency.getValue(options);
+                for (AbstractBlockBase<?> block : allocator.sortedBlocks()) {
+                    if (block.getRelativeFrequency() >= minFrequency) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * A node of the interference graph.
+     */
+    private static final class Node {
+        final Interval interval;
+        /**
+         * Registers this interval may be colored with, i.e., the allocatable registers of its kind
+         * without the reserved registers and without the registers of intersecting fixed
+         * intervals.
+         */
+        final BitSet allowed;
+        final int colors;
+        final ArrayList<Node> neighbors = new ArrayList<>();
+        int degree;
+        boolean removed;
+        Register color;
+
+        Node(Interval interval, BitSet allowed) {
+            this.interval = interval;
+            this.allowed = allowed;
+            this.colors = allowed.cardinality();
+        }
+
+        double spillCost() {
+            return (double) (interval.numUsePositions() + 1) / (degree + 1);
+        }
+    }
+
+    /**
+     * Colors the variable intervals and assigns the chosen registers as their locations.
+     *
+     * @return the number of colored intervals
+     */
+    @SuppressWarnings("try")
+    int color() {
+        DebugContext debug = allocator.getDebug();
+        try (Indent indent = debug.logAndIndent("graph coloring")) {
+            Node[] nodes = buildInterferenceGraph();
+            Deque<Node> stack = simplify(nodes);
+            int colored = select(stack);
+            coloredIntervals.add(debug, colored);
+            uncoloredIntervals.add(debug, nodes.length - colored);
+            debug.log("colored %d of %d intervals", colored, nodes.length);
+            return colored;
+        }
+    }
+
+    private Node[] buildInterferenceGraph() {
+        RegisterAllocationConfig config = allocator.getRegisterAllocationConfig();
+        int reserved = Options.GraphColoringReservedRegisters.getValue(allocator.getOptions());
+
+        ArrayList<Interval> fixed = new ArrayList<>();
+        ArrayList<Node> candidates = new ArrayList<>();
+        for (Interval interval : allocator.intervals()) {
+            if (interval == null) {
+                continue;
+            }
+            if (isRegister(interval.operand)) {
+                fixed.add(interval);
+            }
+        }
+        for (Interval interval : allocator.intervals()) {
+            if (interval == null || !isVariable(interval.operand) || interval.location() != null || interval.canMaterialize()) {
+                // stack-based parameters and rematerializable constants are left to the walker
+                continue;
+            }
+            Register[] registers = config.getAllocatableRegisters(interval.kind().getPlatformKind()).allocatableRegisters;
+            BitSet allowed = new BitSet();
+            for (int i = 0; i < registers.length - reserved; i++) {
+                allowed.set(registers[i].number);
+            }
+            for (Interval f : fixed) {
+                int reg = asRegister(f.operand).number;
+                if (allowed.get(reg) && f.intersects(interval)) {
+                    allowed.clear(reg);
+                }
+            }
+            if (!allowed.isEmpty()) {
+                candidates.add(new Node(interval, allowed));
+            }
+        }
+
+        Node[] nodes = candidates.toArray(new Node[candidates.size()]);
+        Arrays.sort(nodes, Comparator.comparingInt(n -> n.interval.from()));
+
+        // sweep over the intervals sorted by start position and only test the ones still live
+        Node[] live = new Node[nodes.length];
+        int liveCount = 0;
+        for (Node node : nodes) {
+            int from = node.interval.from();
+            int newLiveCount = 0;
+            for (int i = 0; i < liveCount; i++) {
+                Node other = live[i];
+                if (other.interval.to() > from) {
+                    live[newLiveCount++] = other;
+                    if (other.allowed.intersects(node.allowed) && other.interval.intersects(node.interval)) {
+                        node.neighbors.add(other);
+                        other.neighbors.add(node);
+                    }
+                }
+            }
+            live[newLiveCount++] = node;
+            liveCount = newLiveCount;
+        }
+        for (Node node : nodes) {
+            node.degree = node.neighbors.size();
+        }
+        return nodes;
+    }
+
+    /**
+     * Removes nodes of insignificant degree from the graph and pushes them on the coloring stack.
+     * If only significant nodes remain, the one with the lowest spill cost is pushed optimistically.
+     */
+    private static Deque<Node> simplify(Node[] nodes) {
+        Deque<Node> stack = new ArrayDeque<>(nodes.length);
+        ArrayDeque<Node> worklist = new ArrayDeque<>();
+        for (Node node : nodes) {
+            if (node.degree < node.colors) {
+                worklist.add(node);
+            }
+        }
+        int remaining = nodes.length;
+        while (remaining > 0) {
+            Node next = worklist.poll();
+            if (next == null) {
+                for (Node node : nodes) {
+                    if (!node.removed && (next == null || node.spillCost() < next.spillCost())) {
+                        next = node;
+                    }
+                }
+            } else if (next.removed) {
+                continue;
+            }
+            next.removed = true;
+            remaining--;
+            stack.push(next);
+            for (Node neighbor : next.neighbors) {
+                if (!neighbor.removed) {
+                    neighbor.degree--;
+                    if (neighbor.degree == neighbor.colors - 1) {
+                        worklist.add(neighbor);
+                    }
+                }
+            }
+        }
+        return stack;
+    }
+
+    private int select(Deque<Node> stack) {
+        RegisterAllocationConfig config = allocator.getRegisterAllocationConfig();
+        int colored = 0;
+        BitSet available = new BitSet();
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            available.clear();
+            available.or(node.allowed);
+            for (Node neighbor : node.neighbors) {
+                if (neighbor.color != null) {
+                    available.clear(neighbor.color.number);
+                }
+            }
+            if (available.isEmpty()) {
+                // optimistic push failed: the walker will split or spill this interval
+                continue;
+            }
+            Register hint = hintedRegister(node.interval);
+            Register color = null;
+            if (hint != null && available.get(hint.number)) {
+                color = hint;
+                coalescedIntervals.increment(allocator.getDebug());
+            } else {
+                for (Register reg : config.getAllocatableRegisters(node.interval.kind().getPlatformKind()).allocatableRegisters) {
+                    if (available.get(reg.number)) {
+                        color = reg;
+                        break;
+                    }
+                }
+            }
+            assert color != null : "no register for " + node.interval;
+            node.color = color;
+            node.interval.assignLocation(color.asValue(node.interval.kind()));
+            colored++;
+        }
+        return colored;
+    }
+
+    private static Register hintedRegister(Interval interval) {
+        Interval hint = interval.locationHint(false);
+        if (hint == null) {
+            return null;
+        }
+        if (isRegister(hint.operand)) {
+            return asRegister(hint.operand);
+        }
+        if (hint.location() != null && isRegister(hint.location())) {
+            return asRegister(hint.location());
+        }
+        return null;
+    }
+}
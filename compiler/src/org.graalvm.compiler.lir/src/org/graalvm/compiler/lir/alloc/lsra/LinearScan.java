@@ -183,6 +183,11 @@ public class LinearScan {
     private int numVariables;
     private final boolean neverSpillConstants;
 
+    /**
+     * Set if some intervals were assigned a register by the {@link GraphColoringAllocator}.
+     */
+    private boolean graphColored;
+
     /**
      * Sentinel interval to denote the end of an interval list.
      */
@@ -723,6 +728,8 @@ public class LinearScan {
 
                 if (detailedAsserts) {
                     verify();
+                } else if (graphColored && GraphColoringAllocator.Options.VerifyGraphColoring.getValue(getOptions())) {
+                    verifyRegisters();
                 }
                 beforeSpillMoveElimination();
                 createSpillMoveEliminationPhase().apply(target, lirGenRes, context);
@@ -972,4 +979,8 @@ public class LinearScan {
         return neverSpillConstants;
     }
 
+    void setGraphColored() {
+        graphColored = true;
+    }
+
 }
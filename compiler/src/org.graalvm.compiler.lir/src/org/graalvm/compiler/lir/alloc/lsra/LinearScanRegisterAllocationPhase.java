@@ -26,6 +26,7 @@ package org.graalvm.compiler.lir.alloc.lsra;
 
 import org.graalvm.collections.Pair;
 import org.graalvm.compiler.debug.Indent;
+import org.graalvm.compiler.lir.alloc.lsra.LinearScan.IntervalPredicate;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
 import org.graalvm.compiler.lir.phases.AllocationPhase.AllocationContext;
 
@@ -52,7 +53,16 @@ public final class LinearScanRegisterAllocationPhase extends LinearScanAllocatio
             Interval precoloredIntervals;
             Interval notPrecoloredIntervals;
 
-            Pair<Interval, Interval> result = allocator.createUnhandledLists(LinearScan.IS_PRECOLORED_INTERVAL, LinearScan.IS_VARIABLE_INTERVAL);
+            IntervalPredicate isFixed = LinearScan.IS_PRECOLORED_INTERVAL;
+            IntervalPredicate isAny = LinearScan.IS_VARIABLE_INTERVAL;
+            if (GraphColoringAllocator.isSelected(allocator) && new GraphColoringAllocator(allocator).color() > 0) {
+                // colored intervals keep their register and are walked like fixed intervals
+                allocator.setGraphColored();
+                isFixed = GraphColoringAllocator.IS_PRECOLORED_OR_COLORED_INTERVAL;
+                isAny = GraphColoringAllocator.IS_UNCOLORED_VARIABLE_INTERVAL;
+            }
+
+            Pair<Interval, Interval> result = allocator.createUnhandledLists(isFixed, isAny);
             precoloredIntervals = result.getLeft();
             notPrecoloredIntervals = result.getRight();
 
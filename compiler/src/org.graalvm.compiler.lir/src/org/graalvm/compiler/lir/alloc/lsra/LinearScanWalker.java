@@ -753,8 +753,11 @@ class LinearScanWalker extends IntervalWalker {
             freeExcludeActiveAny();
             freeCollectInactiveFixed(interval);
             freeCollectInactiveAny(interval);
-            // freeCollectUnhandled(fixedKind, cur);
-            assert unhandledLists.get(RegisterBinding.Fixed).isEndMarker() : "must not have unhandled fixed intervals because all fixed intervals have a use at position 0";
+            /*
+             * All fixed register intervals have a use at position 0, so unhandled fixed intervals
+             * only exist for intervals that were colored by the GraphColoringAllocator.
+             */
+            freeCollectUnhandled(RegisterBinding.Fixed, interval);
 
             // usePos contains the start of the next interval that has this register assigned
             // (either as a fixed register or a normal allocated register in the past)
@@ -865,8 +868,7 @@ class LinearScanWalker extends IntervalWalker {
                 // collect current usage of registers
                 initUseLists(false);
                 spillExcludeActiveFixed();
-                // spillBlockUnhandledFixed(cur);
-                assert unhandledLists.get(RegisterBinding.Fixed).isEndMarker() : "must not have unhandled fixed intervals because all fixed intervals have a use at position 0";
+                spillBlockUnhandledFixed(interval);
                 spillBlockInactiveFixed(interval);
                 spillCollectActiveAny(registerPriority);
                 spillCollectInactiveAny(interval);
@@ -222,8 +222,7 @@ public class OptimizingLinearScanWalker extends LinearScanWalker {
         initVarsForAlloc(interval);
         initUseLists(false);
         spillExcludeActiveFixed();
-        // spillBlockUnhandledFixed(cur);
-        assert unhandledLists.get(RegisterBinding.Fixed).isEndMarker() : "must not have unhandled fixed intervals because all fixed intervals have a use at position 0";
+        spillBlockUnhandledFixed(interval);
         spillBlockInactiveFixed(interval);
         spillCollectActiveAny(RegisterPriority.LiveAtLoopEnd);
         spillCollectInactiveAny(interval);
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.phases;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+/**
+ * Support for running the block-local part of a {@link LIRPhase} concurrently for the blocks of a
+ * single large compilation.
+ *
+ * An action passed to {@link #forEachBlock} must only read and write state belonging to the block
+ * it is invoked for (typically the {@linkplain LIR#getLIRforBlock instruction list} of that block)
+ * and state that is read-only for the duration of the iteration. Since a {@link DebugContext} must
+ * only be accessed by the thread that created it, blocks are only processed in parallel if neither
+ * debug scopes nor metrics are enabled. Actions must therefore not depend on the debug context for
+ * anything but logging and must report counter values back to the calling thread.
+ */
+public final class LIRBlockParallelism {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Process the blocks of block-local LIR phases in parallel for large compilation units.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> LIRParallelBlockPhases = new OptionKey<>(false);
+        @Option(help = "Minimum number of blocks a compilation unit must have before block-local LIR phases are processed in parallel.", type = OptionType.Expert)
+        public static final OptionKey<Integer> LIRParallelBlockPhasesMinBlocks = new OptionKey<>(256);
+        // @formatter:on
+    }
+
+    private LIRBlockParallelism() {
+    }
+
+    /**
+     * Determines if {@link #forEachBlock} processes {@code blockCount} blocks of {@code lir} in
+     * parallel.
+     */
+    public static boolean isParallel(LIR lir, int blockCount) {
+        OptionValues options = lir.getOptions();
+        if (!Options.LIRParallelBlockPhases.getValue(options) || blockCount < Options.LIRParallelBlockPhasesMinBlocks.getValue(options)) {
+            return false;
+        }
+        DebugContext debug = lir.getDebug();
+        return !debug.areScopesEnabled() && !debug.areMetricsEnabled();
+    }
+
+    /**
+     * Applies {@code action} to each non-null element of {@code blocks}. The blocks are processed
+     * in parallel if {@link #isParallel} allows it and sequentially in array order otherwise.
+     */
+    public static void forEachBlock(LIR lir, AbstractBlockBase<?>[] blocks, Consumer<AbstractBlockBase<?>> action) {
+        if (isParallel(lir, blocks.length)) {
+            Arrays.stream(blocks).parallel().forEach(block -> {
+                if (block != null) {
+                    action.accept(block);
+                }
+            });
+        } else {
+            for (AbstractBlockBase<?> block : blocks) {
+                if (block != null) {
+                    action.accept(block);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import static org.graalvm.compiler.core.common.GraalOptions.GenLoopSafepoints;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.core.common.type.Stamp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.ProfileData.BranchProbabilityData;
+import org.graalvm.compiler.nodes.ProfileData.LoopFrequencyData;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.StageFlag;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.SignExtendNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.loop.CountedLoopInfo;
+import org.graalvm.compiler.nodes.loop.InductionVariable;
+import org.graalvm.compiler.nodes.loop.InductionVariable.Direction;
+import org.graalvm.compiler.nodes.loop.LoopEx;
+import org.graalvm.compiler.nodes.loop.LoopsData;
+import org.graalvm.compiler.nodes.memory.MemoryPhiNode;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.BasePhase;
+
+/**
+ * Splits long running counted loops whose safepoint was removed by
+ * {@link LoopSafepointEliminationPhase} into an outer loop that polls for safepoints and an inner
+ * loop that runs at most {@link Options#StripMiningLength} iterations without polling:
+ *
+ * <pre>
+ * for (int i = start; i < limit; i++) {
+ *     body(i);
+ * }
+ * </pre>
+ *
+ * becomes
+ *
+ * <pre>
+ * int i = start;
+ * while (true) {
+ *     int innerLimit = limit - i > STRIP ? i + STRIP : limit;
+ *     for (; i < innerLimit; i++) {
+ *         body(i);
+ *     }
+ *     if (!(i < limit)) {
+ *         break;
+ *     }
+ *     // safepoint
+ * }
+ * </pre>
+ *
+ * The inner loop keeps the shape of the original counted loop, so later loop optimizations such as
+ * partial unrolling still apply to it, while the time to reach a safepoint stays bounded by the
+ * length of one strip.
+ *
+ * The phase runs after value proxies were removed and before {@link LoopBeginNode loop} safepoints
+ * are inserted, so only the back edge of the outer loop receives a safepoint poll. It handles
+ * head-tested innermost loops with a single exit and a signed 32 bit induction variable, which
+ * covers the loops whose safepoints are eliminated.
+ */
+public class LoopStripMiningPhase extends BasePhase<CoreProviders> {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Strip mine counted loops whose safepoint polls were eliminated.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> StripMineCountedLoops = new OptionKey<>(false);
+        @Option(help = "Number of iterations of a strip mined loop between two safepoint polls.", type = OptionType.Expert)
+        public static final OptionKey<Integer> StripMiningLength = new OptionKey<>(1000);
+        // @formatter:on
+    }
+
+    private static final CounterKey STRIP_MINED = DebugContext.counter("StripMinedLoops");
+
+    @Override
+    @SuppressWarnings("try")
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops() || !GenLoopSafepoints.getValue(graph.getOptions())) {
+            return;
+        }
+        assert graph.isAfterStage(StageFlag.VALUE_PROXY_REMOVAL) : "strip mining does not create value proxies";
+        int stripLength = Options.StripMiningLength.getValue(graph.getOptions());
+        DebugContext debug = graph.getDebug();
+        LoopsData data = context.getLoopsDataProvider().getLoopsData(graph);
+        data.detectedCountedLoops();
+        try (DebugContext.Scope s = debug.scope("StripMining", data.getCFG())) {
+            List<LoopEx> candidates = new ArrayList<>();
+            for (LoopEx loop : data.countedLoops()) {
+                if (shouldStripMine(loop, stripLength)) {
+                    candidates.add(loop);
+                }
+            }
+            for (LoopEx loop : candidates) {
+                debug.log("Strip mining %s", loop);
+                stripMine(loop, stripLength);
+                STRIP_MINED.increment(debug);
+            }
+            if (!candidates.isEmpty()) {
+                debug.dump(DebugContext.DETAILED_LEVEL, graph, "After strip mining %d loops", candidates.size());
+            }
+        } catch (Throwable t) {
+            throw debug.handle(t);
+        }
+    }
+
+    private static boolean shouldStripMine(LoopEx loop, int stripLength) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (!loop.loop().getChildren().isEmpty() || loopBegin.isStripMinedInner() || loopBegin.isStripMinedOuter()) {
+            return false;
+        }
+        if (loopBegin.getLoopEndCount() != 1 || loopBegin.loopExits().count() != 1 || loopBegin.stateAfter() == null) {
+            return false;
+        }
+        for (LoopEndNode loopEnd : loopBegin.loopEnds()) {
+            if (loopEnd.canSafepoint()) {
+                /* The loop polls on every iteration anyway. */
+                return false;
+            }
+        }
+        CountedLoopInfo counted = loop.counted();
+        IfNode limitTest = counted.getLimitTest();
+        if (loopBegin.next() != limitTest || counted.getLimitCheckedIV() != counted.getBodyIV() || counted.isUnsignedCheck()) {
+            /* Only head-tested loops have the loop header state at their exit. */
+            return false;
+        }
+        if (!(limitTest.condition() instanceof CompareNode) || !(counted.getCountedExit() instanceof LoopExitNode)) {
+            return false;
+        }
+        InductionVariable iv = counted.getBodyIV();
+        CompareNode condition = (CompareNode) limitTest.condition();
+        ValueNode limit = counted.getLimit();
+        if (!(condition.getX() == iv.valueNode() && condition.getY() == limit) && !(condition.getX() == limit && condition.getY() == iv.valueNode())) {
+            return false;
+        }
+        Stamp ivStamp = iv.valueNode().stamp(NodeView.DEFAULT);
+        if (!(iv.valueNode() instanceof ValuePhiNode) || !(ivStamp instanceof IntegerStamp) || ((IntegerStamp) ivStamp).getBits() != 32 || !iv.isConstantStride() || iv.constantStride() == 0) {
+            return false;
+        }
+        if (Math.abs(iv.constantStride()) * (long) stripLength > Integer.MAX_VALUE / 2) {
+            return false;
+        }
+        if (counted.isConstantMaxTripCount() && counted.constantMaxTripCount().isLessThan(stripLength)) {
+            /* The loop never runs longer than a single strip. */
+            return false;
+        }
+        for (PhiNode phi : loopBegin.phis()) {
+            if (!(phi instanceof ValuePhiNode) && !(phi instanceof MemoryPhiNode)) {
+                return false;
+            }
+        }
+        return loop.canStripMine();
+    }
+
+    private static void stripMine(LoopEx loop, int stripLength) {
+        StructuredGraph graph = loop.loopBegin().graph();
+        LoopBeginNode inner = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        IfNode limitTest = counted.getLimitTest();
+        AbstractBeginNode body = counted.getBody();
+        LoopExitNode exit = (LoopExitNode) counted.getCountedExit();
+        InductionVariable iv = counted.getBodyIV();
+        ValueNode limit = counted.getLimit();
+        CompareNode condition = (CompareNode) limitTest.condition();
+
+        /* Insert the outer loop header in front of the inner loop. */
+        LoopBeginNode outer = graph.add(new LoopBeginNode());
+        AbstractEndNode innerEntry = inner.forwardEnd();
+        FixedWithNextNode entryPredecessor = (FixedWithNextNode) innerEntry.predecessor();
+        entryPredecessor.setNext(null);
+        EndNode outerEntry = graph.add(new EndNode());
+        entryPredecessor.setNext(outerEntry);
+        outer.addForwardEnd(outerEntry);
+        outer.setNext(innerEntry);
+        LoopEndNode outerBackEdge = graph.add(new LoopEndNode(outer));
+
+        /* Every value carried by the inner loop is also carried by the outer loop. */
+        EconomicMap<PhiNode, PhiNode> outerPhis = EconomicMap.create(Equivalence.IDENTITY);
+        for (PhiNode innerPhi : inner.phis().snapshot()) {
+            PhiNode outerPhi = innerPhi.duplicateOn(outer);
+            outerPhi.addInput(innerPhi.valueAt(innerEntry));
+            outerPhi.addInput(innerPhi);
+            innerPhi.setValueAt(innerEntry, outerPhi);
+            outerPhis.put(innerPhi, outerPhi);
+        }
+        FrameState outerState = inner.stateAfter().duplicateWithVirtualState();
+        outerState.applyToVirtual(state -> {
+            for (PhiNode innerPhi : outerPhis.getKeys()) {
+                state.replaceAllInputs(innerPhi, outerPhis.get(innerPhi));
+            }
+        });
+        outer.setStateAfter(outerState);
+
+        /* The inner loop runs until the end of the current strip. */
+        ValueNode outerIV = outerPhis.get((PhiNode) iv.valueNode());
+        long chunk = Math.abs(iv.constantStride()) * (long) stripLength;
+        boolean up = iv.direction() == Direction.Up;
+        ValueNode remaining = up ? SubNode.create(SignExtendNode.create(limit, 64, NodeView.DEFAULT), SignExtendNode.create(outerIV, 64, NodeView.DEFAULT), NodeView.DEFAULT)
+                        : SubNode.create(SignExtendNode.create(outerIV, 64, NodeView.DEFAULT), SignExtendNode.create(limit, 64, NodeView.DEFAULT), NodeView.DEFAULT);
+        LogicNode longerThanStrip = IntegerLessThanNode.create(ConstantNode.forLong(chunk), remaining, NodeView.DEFAULT);
+        ConstantNode chunkNode = ConstantNode.forIntegerBits(32, chunk);
+        ValueNode stripEnd = up ? AddNode.create(outerIV, chunkNode, NodeView.DEFAULT) : SubNode.create(outerIV, chunkNode, NodeView.DEFAULT);
+        ValueNode innerLimit = graph.addOrUniqueWithInputs(ConditionalNode.create(longerThanStrip, stripEnd, limit, NodeView.DEFAULT));
+        CompareNode innerCondition = (CompareNode) condition.copyWithInputs();
+        innerCondition.replaceFirstInput(limit, innerLimit);
+        limitTest.setCondition(innerCondition);
+
+        /*
+         * Leaving the inner loop re-evaluates the original condition: either the loop is done, or
+         * the outer loop polls for a safepoint and starts the next strip. The new inner exit has no
+         * state, so the safepoint uses the state of the inner loop header.
+         */
+        LoopExitNode innerExit = graph.add(new LoopExitNode(inner));
+        boolean bodyIsTrueSuccessor = limitTest.trueSuccessor() == body;
+        if (bodyIsTrueSuccessor) {
+            limitTest.setFalseSuccessor(innerExit);
+        } else {
+            limitTest.setTrueSuccessor(innerExit);
+        }
+        exit.replaceFirstInput(inner, outer);
+
+        BeginNode nextStrip = graph.add(new BeginNode());
+        nextStrip.setNext(outerBackEdge);
+        double outerFrequency = Math.max(1.0, inner.loopFrequency() / stripLength);
+        double continueProbability = 1.0 - 1.0 / outerFrequency;
+        IfNode outerTest = graph.add(bodyIsTrueSuccessor ? new IfNode(condition, nextStrip, exit, BranchProbabilityData.injected(continueProbability))
+                        : new IfNode(condition, exit, nextStrip, BranchProbabilityData.injected(1.0 - continueProbability)));
+        innerExit.setNext(outerTest);
+
+        outer.setLoopFrequency(LoopFrequencyData.create(outerFrequency, inner.profileData().getProfileSource()));
+        inner.setLoopFrequency(inner.profileData().copy(Math.min(inner.loopFrequency(), stripLength)));
+        outer.setStripMinedOuter(true);
+        inner.setStripMinedInner(true);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.api.directives.GraalDirectives;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.graph.iterators.NodeIterable;
+import org.graalvm.compiler.loop.phases.LoopStripMiningPhase;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class LoopStripMiningTest extends GraalCompilerTest {
+
+    private static final int STRIP_LENGTH = 7;
+
+    private boolean expectStripMined;
+
+    @Override
+    protected void checkMidTierGraph(StructuredGraph graph) {
+        NodeIterable<LoopBeginNode> loops = graph.getNodes().filter(LoopBeginNode.class);
+        boolean stripMined = false;
+        for (LoopBeginNode loop : loops) {
+            stripMined |= loop.isStripMinedOuter();
+        }
+        assertTrue(stripMined == expectStripMined, "expected strip mined loop: %s", expectStripMined);
+    }
+
+    public static int sumUpSnippet(int[] a, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    public static int sumUpInclusiveSnippet(int[] a, int from, int to) {
+        int sum = 0;
+        for (int i = from; i <= to; i++) {
+            sum += a[i] * i;
+        }
+        return sum;
+    }
+
+    public static long sumDownSnippet(long[] a) {
+        long sum = 0;
+        for (int i = a.length - 1; i >= 0; i -= 3) {
+            sum = sum * 31 + a[i];
+        }
+        return sum;
+    }
+
+    public static void fillSnippet(int[] a, int n, int value) {
+        for (int i = 0; i < n; i++) {
+            a[i] = value + i;
+        }
+    }
+
+    public static int neverStripMineSnippet(int[] a, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            GraalDirectives.neverStripMine();
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    private static int[] ints(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 17 + 3;
+        }
+        return result;
+    }
+
+    private static long[] longs(int length) {
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 1234567L;
+        }
+        return result;
+    }
+
+    private void testStripMined(boolean expected, String snippet, Object... args) {
+        OptionValues options = new OptionValues(getInitialOptions(), LoopStripMiningPhase.Options.StripMineCountedLoops, true, LoopStripMiningPhase.Options.StripMiningLength, STRIP_LENGTH);
+        expectStripMined = expected;
+        test(options, snippet, args);
+    }
+
+    @Test
+    public void testSumUp() {
+        for (int n : new int[]{0, 1, STRIP_LENGTH - 1, STRIP_LENGTH, STRIP_LENGTH + 1, 5 * STRIP_LENGTH + 3}) {
+            testStripMined(true, "sumUpSnippet", ints(n), n);
+        }
+    }
+
+    @Test
+    public void testSumUpInclusive() {
+        testStripMined(true, "sumUpInclusiveSnippet", ints(100), 3, 99);
+        testStripMined(true, "sumUpInclusiveSnippet", ints(100), 50, 50);
+        testStripMined(true, "sumUpInclusiveSnippet", ints(100), 60, 10);
+    }
+
+    @Test
+    public void testSumDown() {
+        for (int n : new int[]{0, 2, 3 * STRIP_LENGTH, 3 * STRIP_LENGTH + 2, 100}) {
+            testStripMined(true, "sumDownSnippet", longs(n));
+        }
+    }
+
+    @Test
+    public void testFill() {
+        testStripMined(true, "fillSnippet", new int[4 * STRIP_LENGTH + 1], 4 * STRIP_LENGTH + 1, 42);
+    }
+
+    @Test
+    public void testNeverStripMine() {
+        testStripMined(false, "neverStripMineSnippet", ints(50), 50);
+    }
+}
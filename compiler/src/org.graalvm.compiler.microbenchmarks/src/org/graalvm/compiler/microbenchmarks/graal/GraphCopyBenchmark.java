@@ -24,16 +24,23 @@
  */
 package org.graalvm.compiler.microbenchmarks.graal;
 
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 
 import org.graalvm.compiler.graph.Graph;
 import org.graalvm.compiler.microbenchmarks.graal.util.GraalState;
 import org.graalvm.compiler.microbenchmarks.graal.util.GraphState;
 import org.graalvm.compiler.microbenchmarks.graal.util.MethodSpec;
 import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.serviceprovider.GraalServices;
 
 /**
- * Benchmarks the performance of {@link Graph#copy(org.graalvm.compiler.debug.DebugContext)}.
+ * Benchmarks the performance of {@link Graph#copy(org.graalvm.compiler.debug.DebugContext)}. The
+ * {@code *Footprint} benchmarks additionally report the bytes allocated and the nodes copied.
  */
 public class GraphCopyBenchmark extends GraalBenchmark {
 
@@ -129,4 +136,43 @@ public class GraphCopyBenchmark extends GraalBenchmark {
     public StructuredGraph search(Search s, GraalState g) {
         return (StructuredGraph) s.graph.copy(g.debug);
     }
+
+    /**
+     * Bytes allocated by the graph copies of the current iteration and the number of nodes they
+     * contain. Dividing the two gives the bytes allocated per copied node.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long allocatedBytes;
+        public long copiedNodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            allocatedBytes = 0;
+            copiedNodes = 0;
+        }
+
+        StructuredGraph measure(GraphState s, GraalState g) {
+            if (!GraalServices.isThreadAllocatedMemorySupported()) {
+                return (StructuredGraph) s.graph.copy(g.debug);
+            }
+            long before = GraalServices.getCurrentThreadAllocatedBytes();
+            StructuredGraph copy = (StructuredGraph) s.graph.copy(g.debug);
+            long allocated = GraalServices.getCurrentThreadAllocatedBytes() - before;
+            allocatedBytes += allocated;
+            copiedNodes += copy.getNodeCount();
+            return copy;
+        }
+    }
+
+    @Benchmark
+    public StructuredGraph nullnessFootprint(Nullness s, GraalState g, Footprint f) {
+        return f.measure(s, g);
+    }
+
+    @Benchmark
+    public StructuredGraph searchFootprint(Search s, GraalState g, Footprint f) {
+        return f.measure(s, g);
+    }
 }
@@ -28,16 +28,32 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Param;
 
 import org.graalvm.compiler.code.CompilationResult;
+import org.graalvm.compiler.lir.phases.LIRBlockParallelism;
 import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
 import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
 
 public class CompileTimeBenchmark extends GraalBenchmark {
 
     public static class CompileState extends GraalCompilerState.Compile {
         @MethodDescString @Param({
                         "java.lang.String#equals",
-                        "java.util.HashMap#computeIfAbsent"
+                        "java.util.HashMap#computeIfAbsent",
+                        "java.util.concurrent.ConcurrentHashMap#transfer",
+                        "java.util.Formatter#parse"
         }) public String method;
+
+        @Param({"false", "true"}) public boolean parallelBlockPhases;
+
+        private OptionValues graphOptions;
+
+        @Override
+        protected OptionValues getGraphOptions() {
+            if (graphOptions == null) {
+                graphOptions = parallelBlockPhasesOptions(super.getGraphOptions(), parallelBlockPhases);
+            }
+            return graphOptions;
+        }
     }
 
     @Benchmark
@@ -60,12 +76,34 @@ public class CompileTimeBenchmark extends GraalBenchmark {
     public static class BackEndEndState extends GraalCompilerState.BackEndOnly {
         @MethodDescString @Param({
                         "java.lang.String#equals",
-                        "java.util.HashMap#computeIfAbsent"
+                        "java.util.HashMap#computeIfAbsent",
+                        "java.util.concurrent.ConcurrentHashMap#transfer",
+                        "java.util.Formatter#parse"
         }) public String method;
+
+        @Param({"false", "true"}) public boolean parallelBlockPhases;
+
+        private OptionValues graphOptions;
+
+        @Override
+        protected OptionValues getGraphOptions() {
+            if (graphOptions == null) {
+                graphOptions = parallelBlockPhasesOptions(super.getGraphOptions(), parallelBlockPhases);
+            }
+            return graphOptions;
+        }
     }
 
     @Benchmark
     public CompilationResult backend(BackEndEndState s) {
         return s.compile();
     }
+
+    /**
+     * Enables {@linkplain LIRBlockParallelism parallel block processing} for every compilation unit
+     * so that its effect on large methods is visible independent of the block count threshold.
+     */
+    static OptionValues parallelBlockPhasesOptions(OptionValues options, boolean parallel) {
+        return new OptionValues(options, LIRBlockParallelism.Options.LIRParallelBlockPhases, parallel, LIRBlockParallelism.Options.LIRParallelBlockPhasesMinBlocks, 0);
+    }
 }
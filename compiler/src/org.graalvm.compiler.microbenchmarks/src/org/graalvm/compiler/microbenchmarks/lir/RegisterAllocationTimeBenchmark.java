@@ -24,11 +24,30 @@
  */
 package org.graalvm.compiler.microbenchmarks.lir;
 
+import static jdk.vm.ci.code.ValueUtil.isRegister;
+import static org.graalvm.compiler.lir.LIRValueUtil.isStackSlotValue;
+
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.LIRInstruction;
+import org.graalvm.compiler.lir.StandardOp.ValueMoveOp;
+import org.graalvm.compiler.lir.alloc.lsra.GraphColoringAllocator;
+import org.graalvm.compiler.lir.alloc.lsra.GraphColoringAllocator.RegisterAllocator;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
 import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
+import org.graalvm.compiler.options.OptionValues;
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 
+/**
+ * Measures the time spent in the allocation stage for each {@link RegisterAllocator}. The
+ * {@link #spillMoves} benchmark additionally reports the number of spill stores and reloads the
+ * allocator produced for the method.
+ */
 public class RegisterAllocationTimeBenchmark extends GraalBenchmark {
 
     public static class State extends GraalCompilerState.AllocationStage {
@@ -36,10 +55,68 @@ public class RegisterAllocationTimeBenchmark extends GraalBenchmark {
                         "java.lang.String#equals",
                         "java.util.HashMap#computeIfAbsent"
         }) public String method;
+
+        @Param({"LinearScan", "GraphColoring"}) public RegisterAllocator allocator;
+
+        private OptionValues graphOptions;
+
+        @Override
+        protected OptionValues getGraphOptions() {
+            if (graphOptions == null) {
+                graphOptions = new OptionValues(super.getGraphOptions(), GraphColoringAllocator.Options.LIRRegisterAllocator, allocator);
+            }
+            return graphOptions;
+        }
+    }
+
+    /**
+     * Spill moves of all allocations in the current iteration. Allocation is deterministic for a
+     * given method, so dividing by the number of operations gives the per-compilation counts.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @org.openjdk.jmh.annotations.State(Scope.Thread)
+    public static class SpillCounters {
+        public long spillStores;
+        public long spillLoads;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            spillStores = 0;
+            spillLoads = 0;
+        }
+
+        void count(LIR lir) {
+            long stores = 0;
+            long loads = 0;
+            for (AbstractBlockBase<?> block : lir.codeEmittingOrder()) {
+                if (block == null) {
+                    continue;
+                }
+                for (LIRInstruction op : lir.getLIRforBlock(block)) {
+                    if (ValueMoveOp.isValueMoveOp(op)) {
+                        ValueMoveOp move = ValueMoveOp.asValueMoveOp(op);
+                        if (isStackSlotValue(move.getResult())) {
+                            stores++;
+                        } else if (isRegister(move.getResult()) && isStackSlotValue(move.getInput())) {
+                            loads++;
+                        }
+                    }
+                }
+            }
+            spillStores += stores;
+            spillLoads += loads;
+        }
     }
 
     @Benchmark
     public LIRGenerationResult allocateRegisters(State s) {
         return s.compile();
     }
+
+    @Benchmark
+    public LIRGenerationResult spillMoves(State s, SpillCounters counters) {
+        LIRGenerationResult result = s.compile();
+        counters.count(result.getLIR());
+        return result;
+    }
 }
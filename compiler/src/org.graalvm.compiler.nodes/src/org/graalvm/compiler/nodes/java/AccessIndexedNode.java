@@ -24,14 +24,25 @@
  */
 package org.graalvm.compiler.nodes.java;
 
+import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.type.Stamp;
 import org.graalvm.compiler.graph.NodeClass;
 import org.graalvm.compiler.nodeinfo.InputType;
 import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FixedGuardNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.NodeView;
 import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
 import org.graalvm.compiler.nodes.extended.GuardingNode;
 import org.graalvm.compiler.nodes.spi.Lowerable;
+import org.graalvm.compiler.nodes.spi.VirtualizerTool;
+import org.graalvm.compiler.nodes.virtual.VirtualArrayNode;
+import org.graalvm.compiler.nodes.virtual.VirtualObjectNode;
 
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
 import jdk.vm.ci.meta.JavaKind;
 
 /**
@@ -80,4 +91,37 @@ public abstract class AccessIndexedNode extends AccessArrayNode implements Lower
         return elementKind;
     }
 
+    /**
+     * Determines whether an access to the virtual array {@code virtual} with the non-constant index
+     * {@code indexValue} can be virtualized by selecting between all entries of the array. This is
+     * only done for small arrays whose entries are all scalar values of the element kind of this
+     * access. If there is no explicit bounds check for this access yet, a deoptimizing bounds
+     * check is added in front of it, which is what lowering of this access would emit as well.
+     */
+    protected boolean canVirtualizeVariableIndexAccess(VirtualizerTool tool, VirtualArrayNode virtual, ValueNode indexValue) {
+        int length = virtual.entryCount();
+        if (length == 0 || length > GraalOptions.MaximumEscapeAnalysisVariableIndexArrayLength.getValue(tool.getOptions())) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            ValueNode entry = tool.getEntry(virtual, i);
+            if (virtual.entryKind(tool.getMetaAccessExtensionProvider(), i) != elementKind || entry instanceof VirtualObjectNode || entry.isIllegalConstant()) {
+                return false;
+            }
+        }
+        if (boundsCheck == null) {
+            LogicNode inBounds = IntegerBelowNode.create(indexValue, ConstantNode.forInt(length), NodeView.DEFAULT);
+            if (inBounds.isContradiction()) {
+                return false;
+            }
+            if (!inBounds.isTautology()) {
+                if (!inBounds.isAlive()) {
+                    tool.addNode(inBounds);
+                }
+                tool.addNode(new FixedGuardNode(inBounds, DeoptimizationReason.BoundsCheckException, DeoptimizationAction.InvalidateReprofile));
+            }
+        }
+        return true;
+    }
+
 }
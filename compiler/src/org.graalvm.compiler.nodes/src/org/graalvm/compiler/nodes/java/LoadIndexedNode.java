@@ -47,6 +47,8 @@ import org.graalvm.compiler.nodes.LogicNode;
 import org.graalvm.compiler.nodes.NodeView;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerEqualsNode;
 import org.graalvm.compiler.nodes.extended.GuardingNode;
 import org.graalvm.compiler.nodes.spi.Virtualizable;
 import org.graalvm.compiler.nodes.spi.VirtualizerTool;
@@ -139,10 +141,33 @@ public class LoadIndexedNode extends AccessIndexedNode implements Virtualizable,
                     assert stamp(NodeView.DEFAULT).getStackKind() == JavaKind.Int && (entry.stamp(NodeView.DEFAULT).getStackKind() == JavaKind.Long || entry.getStackKind() == JavaKind.Double ||
                                     entry.getStackKind() == JavaKind.Illegal) : "Can only allow different stack kind two slot marker writes on one stot fields.";
                 }
+            } else if (!indexValue.isConstant()) {
+                virtualizeVariableIndexRead(tool, virtual, indexValue);
             }
         }
     }
 
+    /**
+     * Replaces a read with a non-constant index from a small virtual array by a chain of
+     * conditionals that selects the entry for the index.
+     */
+    private void virtualizeVariableIndexRead(VirtualizerTool tool, VirtualArrayNode virtual, ValueNode indexValue) {
+        int length = virtual.entryCount();
+        for (int i = 0; i < length; i++) {
+            if (!stamp.isCompatible(tool.getEntry(virtual, i).stamp(NodeView.DEFAULT))) {
+                return;
+            }
+        }
+        if (canVirtualizeVariableIndexAccess(tool, virtual, indexValue)) {
+            ValueNode result = tool.getEntry(virtual, length - 1);
+            for (int i = length - 2; i >= 0; i--) {
+                LogicNode isIndex = IntegerEqualsNode.create(indexValue, ConstantNode.forInt(i), NodeView.DEFAULT);
+                result = ConditionalNode.create(isIndex, tool.getEntry(virtual, i), result, NodeView.DEFAULT);
+            }
+            tool.replaceWith(result);
+        }
+    }
+
     @Override
     public Node canonical(CanonicalizerTool tool) {
         if (array().isNullConstant()) {
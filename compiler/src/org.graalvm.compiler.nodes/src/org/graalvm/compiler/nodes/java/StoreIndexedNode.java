@@ -35,10 +35,15 @@ import org.graalvm.compiler.nodes.spi.Canonicalizable;
 import org.graalvm.compiler.nodes.spi.CanonicalizerTool;
 import org.graalvm.compiler.nodeinfo.InputType;
 import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.ConstantNode;
 import org.graalvm.compiler.nodes.DeoptimizeNode;
 import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.NodeView;
 import org.graalvm.compiler.nodes.StateSplit;
 import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerEqualsNode;
 import org.graalvm.compiler.nodes.extended.GuardingNode;
 import org.graalvm.compiler.nodes.spi.Lowerable;
 import org.graalvm.compiler.nodes.spi.Virtualizable;
@@ -109,10 +114,38 @@ public final class StoreIndexedNode extends AccessIndexedNode implements StateSp
                     tool.setVirtualEntry(virtual, idx, value());
                     tool.delete();
                 }
+            } else if (!indexValue.isConstant()) {
+                virtualizeVariableIndexWrite(tool, virtual, indexValue);
             }
         }
     }
 
+    /**
+     * Replaces a write with a non-constant index into a small virtual array by updating every entry
+     * with a conditional that selects the new value if the entry is the one being written.
+     */
+    private void virtualizeVariableIndexWrite(VirtualizerTool tool, VirtualArrayNode virtual, ValueNode indexValue) {
+        ResolvedJavaType componentType = virtual.type().getComponentType();
+        if (!elementKind.isPrimitive() && !StampTool.isPointerAlwaysNull(value) && !componentType.isJavaLangObject() &&
+                        (StampTool.typeReferenceOrNull(value) == null || !componentType.isAssignableFrom(StampTool.typeOrNull(value)))) {
+            return;
+        }
+        if (tool.getAlias(value()) instanceof VirtualObjectNode) {
+            return;
+        }
+        if (canVirtualizeVariableIndexAccess(tool, virtual, indexValue)) {
+            for (int i = 0; i < virtual.entryCount(); i++) {
+                LogicNode isIndex = IntegerEqualsNode.create(indexValue, ConstantNode.forInt(i), NodeView.DEFAULT);
+                ValueNode entry = ConditionalNode.create(isIndex, value(), tool.getEntry(virtual, i), NodeView.DEFAULT);
+                if (!entry.isAlive() && !(entry instanceof ConstantNode)) {
+                    tool.addNode(entry);
+                }
+                tool.setVirtualEntry(virtual, i, entry);
+            }
+            tool.delete();
+        }
+    }
+
     public FrameState getState() {
         return stateAfter;
     }
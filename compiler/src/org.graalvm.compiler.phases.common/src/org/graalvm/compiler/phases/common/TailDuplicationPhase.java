@@ -0,0 +1,696 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.EconomicSet;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.collections.UnmodifiableEconomicMap;
+import org.graalvm.compiler.core.common.cfg.AbstractControlFlowGraph;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugCloseable;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.Position;
+import org.graalvm.compiler.nodeinfo.InputType;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.AbstractFixedGuardNode;
+import org.graalvm.compiler.nodes.AbstractMergeNode;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.LogicConstantNode;
+import org.graalvm.compiler.nodes.MergeNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.ProxyNode;
+import org.graalvm.compiler.nodes.StateSplit;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.StageFlag;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.ValueProxyNode;
+import org.graalvm.compiler.nodes.VirtualState;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
+import org.graalvm.compiler.nodes.spi.Canonicalizable;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.nodes.spi.SimplifierTool;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.nodes.virtual.VirtualObjectNode;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.contract.NodeCostUtil;
+
+/**
+ * Duplicates the tail of a merge into those predecessors of the merge in which the duplicated
+ * code simplifies. The tail is the block starting at the merge and ending in an {@link IfNode},
+ * together with the floating nodes it uses that depend on the merge. Conditional elimination and
+ * the canonicalizer cannot exploit facts that only hold on one predecessor of a merge; after
+ * duplication, the phis of the merge are replaced by the values of the predecessor, so type
+ * checks, comparisons and reads of constants fold in the duplicate.
+ *
+ * Consider the following code snippet:
+ *
+ * <pre>
+ * if (a) {
+ *     x = new A();
+ * } else {
+ *     x = o;
+ * }
+ * if (x instanceof A) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * which is rewritten to
+ *
+ * <pre>
+ * if (a) {
+ *     x = new A();
+ *     // the type check folds to true
+ * } else {
+ *     x = o;
+ *     if (o instanceof A) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * with both paths joined again at the successors of the {@link IfNode}. The phase does not use
+ * profiles: the benefit of duplicating into a predecessor is estimated by canonicalizing the tail
+ * with the phi values of that predecessor, and the cost is the estimated size of the tail. Tails
+ * with side effects are never duplicated, and values of the tail that are used after the two
+ * branches of the {@link IfNode} join again are not supported.
+ */
+public class TailDuplicationPhase extends BasePhase<CoreProviders> {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Duplicate the tail of a merge into the predecessors in which it simplifies.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> TailDuplication = new OptionKey<>(false);
+        @Option(help = "Maximum estimated size of a tail considered for duplication.", type = OptionType.Expert)
+        public static final OptionKey<Integer> TailDuplicationMaxTailSize = new OptionKey<>(50);
+        @Option(help = "Maximum number of size units a duplication may add per size unit it is expected to save.", type = OptionType.Expert)
+        public static final OptionKey<Integer> TailDuplicationCostPerBenefit = new OptionKey<>(8);
+        @Option(help = "Maximum growth of the graph size caused by tail duplication, in percent of the graph size before the phase.", type = OptionType.Expert)
+        public static final OptionKey<Integer> TailDuplicationMaxGrowth = new OptionKey<>(25);
+        // @formatter:on
+    }
+
+    private static final CounterKey COUNTER_CANDIDATES = DebugContext.counter("TailDuplication_Candidates");
+    private static final CounterKey COUNTER_DUPLICATED_TAILS = DebugContext.counter("TailDuplication_DuplicatedTails");
+    private static final CounterKey COUNTER_DUPLICATED_SIZE = DebugContext.counter("TailDuplication_DuplicatedSize");
+
+    /**
+     * Bounds the depth of the search for floating nodes that depend on a merge.
+     */
+    private static final int MAX_SEARCH_DEPTH = 64;
+
+    /**
+     * Bounds the number of nodes visited when looking for the fixed nodes that consume a floating
+     * value of the tail.
+     */
+    private static final int MAX_USAGE_VISITS = 256;
+
+    @Override
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (graph.isAfterStage(StageFlag.FLOATING_READS) || !graph.getGuardsStage().areFrameStatesAtSideEffects()) {
+            return;
+        }
+        OptionValues options = graph.getOptions();
+        int maxTailSize = Options.TailDuplicationMaxTailSize.getValue(options);
+        int costPerBenefit = Options.TailDuplicationCostPerBenefit.getValue(options);
+        int budget = NodeCostUtil.computeGraphSize(graph) * Options.TailDuplicationMaxGrowth.getValue(options) / 100;
+        SimplifierTool tool = GraphUtil.getDefaultSimplifier(context, true, graph.getAssumptions(), options);
+        DebugContext debug = graph.getDebug();
+
+        ControlFlowGraph cfg = null;
+        for (MergeNode merge : graph.getNodes(MergeNode.TYPE).snapshot()) {
+            if (budget <= 0) {
+                break;
+            }
+            if (!merge.isAlive()) {
+                continue;
+            }
+            Tail tail = Tail.create(merge, maxTailSize);
+            if (tail == null) {
+                continue;
+            }
+            COUNTER_CANDIDATES.increment(debug);
+            List<EndNode> ends = tail.selectEnds(tool, costPerBenefit, budget);
+            if (ends.isEmpty()) {
+                continue;
+            }
+            if (cfg == null) {
+                cfg = ControlFlowGraph.compute(graph, true, false, true, false);
+            }
+            if (!tail.collectExternalUsages(cfg)) {
+                continue;
+            }
+            debug.log("Duplicating tail of %s into %s", merge, ends);
+            budget -= tail.duplicate(ends);
+            COUNTER_DUPLICATED_TAILS.add(debug, ends.size());
+            COUNTER_DUPLICATED_SIZE.add(debug, ends.size() * tail.size);
+            cfg = null;
+        }
+    }
+
+    /**
+     * A use of a value of the tail by a node that is not duplicated. Such a use is rewired to a
+     * phi (or, for guard and anchor inputs, to the merge itself) at the successor of the
+     * {@link IfNode} that dominates the use.
+     */
+    private static final class ExternalUsage {
+        final Node usage;
+        final Node value;
+        /**
+         * The index of the phi input for uses by phis, -1 otherwise.
+         */
+        final int phiIndex;
+        final boolean trueSide;
+
+        ExternalUsage(Node usage, Node value, int phiIndex, boolean trueSide) {
+            this.usage = usage;
+            this.value = value;
+            this.phiIndex = phiIndex;
+            this.trueSide = trueSide;
+        }
+    }
+
+    private static final class Tail {
+        private final MergeNode merge;
+        private final List<FixedWithNextNode> fixedNodes;
+        private final IfNode ifNode;
+        /**
+         * The phis of the merge, the fixed nodes of the tail and the floating nodes that depend on
+         * them.
+         */
+        private final EconomicSet<Node> values = EconomicSet.create(Equivalence.IDENTITY);
+        /**
+         * Caches whether a floating node depends on {@link #values}.
+         */
+        private final EconomicMap<Node, Boolean> dependent = EconomicMap.create(Equivalence.IDENTITY);
+        /**
+         * All nodes that are copied for each duplicate: the fixed nodes, the floating nodes of
+         * {@link #values} and the frame states of the fixed nodes.
+         */
+        private final List<Node> duplicatedNodes = new ArrayList<>();
+        private final List<ExternalUsage> externalUsages = new ArrayList<>();
+        private int size;
+
+        private Tail(MergeNode merge, List<FixedWithNextNode> fixedNodes, IfNode ifNode) {
+            this.merge = merge;
+            this.fixedNodes = fixedNodes;
+            this.ifNode = ifNode;
+        }
+
+        static Tail create(MergeNode merge, int maxTailSize) {
+            for (Node usage : merge.usages()) {
+                if (!(usage instanceof ValuePhiNode)) {
+                    return null;
+                }
+            }
+            if (merge.stateAfter() != null && merge.stateAfter().virtualObjectMappingCount() > 0) {
+                return null;
+            }
+            List<FixedWithNextNode> fixedNodes = new ArrayList<>();
+            int size = 0;
+            FixedNode current = merge.next();
+            while (current instanceof FixedWithNextNode) {
+                if (!isDuplicable((FixedWithNextNode) current)) {
+                    return null;
+                }
+                size += current.estimatedNodeSize().value;
+                if (size > maxTailSize) {
+                    return null;
+                }
+                fixedNodes.add((FixedWithNextNode) current);
+                current = ((FixedWithNextNode) current).next();
+            }
+            if (!(current instanceof IfNode)) {
+                return null;
+            }
+            IfNode ifNode = (IfNode) current;
+            if (!(ifNode.trueSuccessor() instanceof BeginNode) || !(ifNode.falseSuccessor() instanceof BeginNode)) {
+                // loop exits would need proxies for the duplicated values
+                return null;
+            }
+            Tail tail = new Tail(merge, fixedNodes, ifNode);
+            tail.size = size + ifNode.estimatedNodeSize().value;
+            return tail.collectValues(maxTailSize) ? tail : null;
+        }
+
+        private static boolean isDuplicable(FixedWithNextNode node) {
+            if (node instanceof AbstractBeginNode || node instanceof Invoke || node instanceof MemoryKill) {
+                return false;
+            }
+            return !(node instanceof StateSplit && ((StateSplit) node).hasSideEffect());
+        }
+
+        private boolean collectValues(int maxTailSize) {
+            for (PhiNode phi : merge.phis()) {
+                values.add(phi);
+            }
+            values.addAll(fixedNodes);
+            List<FixedNode> roots = new ArrayList<>(fixedNodes);
+            roots.add(ifNode);
+            List<Node> frameStates = new ArrayList<>();
+            for (FixedNode root : roots) {
+                duplicatedNodes.add(root);
+                for (Position pos : root.inputPositions()) {
+                    Node input = pos.get(root);
+                    if (input == null) {
+                        continue;
+                    }
+                    Boolean isDependent = isDependent(input, 0);
+                    if (isDependent == null) {
+                        return false;
+                    }
+                    if (pos.getInputType() == InputType.State && !isDependent) {
+                        // never share frame states between the tail and its duplicates
+                        frameStates.add(input);
+                    }
+                }
+            }
+            for (Node node : values) {
+                if (!(node instanceof FixedNode) && !(node instanceof PhiNode)) {
+                    duplicatedNodes.add(node);
+                    if (!(node instanceof VirtualState)) {
+                        size += node.estimatedNodeSize().value;
+                    }
+                }
+            }
+            duplicatedNodes.addAll(frameStates);
+            return size <= maxTailSize;
+        }
+
+        /**
+         * Determines whether {@code node} depends on the phis or the fixed nodes of the tail, and
+         * if so, adds it to {@link #values}.
+         *
+         * @return null if the search was too deep
+         */
+        private Boolean isDependent(Node node, int depth) {
+            if (values.contains(node)) {
+                return Boolean.TRUE;
+            }
+            Boolean cached = dependent.get(node);
+            if (cached != null) {
+                return cached;
+            }
+            if (node instanceof FixedNode || node instanceof PhiNode || node instanceof ProxyNode || node instanceof VirtualObjectNode) {
+                dependent.put(node, Boolean.FALSE);
+                return Boolean.FALSE;
+            }
+            if (depth > MAX_SEARCH_DEPTH) {
+                return null;
+            }
+            boolean result = false;
+            for (Node input : node.inputs()) {
+                Boolean inputDependent = isDependent(input, depth + 1);
+                if (inputDependent == null) {
+                    return null;
+                }
+                result |= inputDependent;
+            }
+            dependent.put(node, result);
+            if (result) {
+                values.add(node);
+            }
+            return result;
+        }
+
+        /**
+         * Selects the ends of the merge into which the tail is duplicated. At least one end always
+         * keeps the original tail.
+         */
+        List<EndNode> selectEnds(SimplifierTool tool, int costPerBenefit, int budget) {
+            List<EndNode> selected = new ArrayList<>();
+            List<Integer> benefits = new ArrayList<>();
+            for (EndNode end : merge.forwardEnds()) {
+                int benefit = estimateBenefit(end, tool);
+                if (benefit > 0 && size - benefit <= benefit * costPerBenefit) {
+                    int index = 0;
+                    while (index < benefits.size() && benefits.get(index) >= benefit) {
+                        index++;
+                    }
+                    selected.add(index, end);
+                    benefits.add(index, benefit);
+                }
+            }
+            if (selected.size() == merge.forwardEndCount()) {
+                selected.remove(selected.size() - 1);
+                benefits.remove(benefits.size() - 1);
+            }
+            int growth = 0;
+            for (int i = 0; i < selected.size(); i++) {
+                growth += size - benefits.get(i);
+                if (growth > budget) {
+                    return selected.subList(0, i);
+                }
+            }
+            return selected;
+        }
+
+        /**
+         * Estimates the size saved by duplicating the tail into the predecessor ending in
+         * {@code end} by canonicalizing the tail with the values of the phis for this predecessor.
+         * The graph is not modified.
+         */
+        private int estimateBenefit(EndNode end, SimplifierTool tool) {
+            EconomicMap<Node, Node> simulated = EconomicMap.create(Equivalence.IDENTITY);
+            for (PhiNode phi : merge.phis()) {
+                simulated.put(phi, phi.valueAt(end));
+            }
+            int benefit = 0;
+            for (FixedWithNextNode node : fixedNodes) {
+                benefit += simulate(node, simulated, tool);
+                if (node instanceof AbstractFixedGuardNode && simulated.get(((AbstractFixedGuardNode) node).condition()) instanceof LogicConstantNode) {
+                    benefit += node.estimatedNodeSize().value;
+                }
+            }
+            benefit += simulate(ifNode.condition(), simulated, tool);
+            if (simulated.get(ifNode.condition()) instanceof LogicConstantNode) {
+                benefit += ifNode.estimatedNodeSize().value;
+            }
+            return benefit;
+        }
+
+        /**
+         * Computes the replacement of {@code node} on the simulated path and records it in
+         * {@code simulated}.
+         *
+         * @return the size saved by simplifications of {@code node} and its inputs
+         */
+        @SuppressWarnings("unchecked")
+        private int simulate(Node node, EconomicMap<Node, Node> simulated, SimplifierTool tool) {
+            if (simulated.containsKey(node) || !values.contains(node)) {
+                return 0;
+            }
+            int benefit = 0;
+            Node result = node;
+            if (node instanceof Canonicalizable.Unary) {
+                Canonicalizable.Unary<Node> unary = (Canonicalizable.Unary<Node>) node;
+                Node value = unary.getValue();
+                if (value != null) {
+                    benefit += simulate(value, simulated, tool);
+                    Node forValue = replacement(value, simulated);
+                    if (forValue != value) {
+                        result = unary.canonical(tool, forValue);
+                    }
+                }
+            } else if (node instanceof Canonicalizable.Binary) {
+                Canonicalizable.Binary<Node> binary = (Canonicalizable.Binary<Node>) node;
+                Node x = binary.getX();
+                Node y = binary.getY();
+                benefit += simulate(x, simulated, tool);
+                benefit += simulate(y, simulated, tool);
+                Node forX = replacement(x, simulated);
+                Node forY = replacement(y, simulated);
+                if (forX != x || forY != y) {
+                    result = binary.canonical(tool, forX, forY);
+                }
+            } else {
+                for (Node input : node.inputs()) {
+                    benefit += simulate(input, simulated, tool);
+                }
+            }
+            if (result != node && (result == null || result instanceof LogicConstantNode || (result instanceof ValueNode && ((ValueNode) result).isConstant()) || result.isAlive())) {
+                benefit += node.estimatedNodeSize().value;
+            }
+            simulated.put(node, result == null ? node : result);
+            return benefit;
+        }
+
+        private static Node replacement(Node node, EconomicMap<Node, Node> simulated) {
+            Node result = simulated.get(node);
+            return result == null ? node : result;
+        }
+
+        /**
+         * Collects the uses of tail values by nodes that are not duplicated and determines on which
+         * side of the {@link IfNode} they are.
+         *
+         * @return false if there is a use that is not dominated by one of the successors of the
+         *         {@link IfNode} or that cannot be rewired to a phi
+         */
+        boolean collectExternalUsages(ControlFlowGraph cfg) {
+            Block trueBlock = cfg.blockFor(ifNode.trueSuccessor());
+            Block falseBlock = cfg.blockFor(ifNode.falseSuccessor());
+            EconomicSet<Node> duplicated = EconomicSet.create(Equivalence.IDENTITY);
+            duplicated.addAll(duplicatedNodes);
+            for (Node value : values) {
+                for (Node usage : value.usages()) {
+                    if (duplicated.contains(usage) || usage == merge.stateAfter()) {
+                        continue;
+                    }
+                    if (usage instanceof PhiNode) {
+                        PhiNode phi = (PhiNode) usage;
+                        if (!(phi instanceof ValuePhiNode)) {
+                            return false;
+                        }
+                        for (int i = 0; i < phi.valueCount(); i++) {
+                            if (phi.valueAt(i) == value) {
+                                Boolean side = side(cfg, trueBlock, falseBlock, phi.merge().phiPredecessorAt(i));
+                                if (side == null) {
+                                    return false;
+                                }
+                                externalUsages.add(new ExternalUsage(phi, value, i, side));
+                            }
+                        }
+                        continue;
+                    }
+                    for (Position pos : usage.inputPositions()) {
+                        if (pos.get(usage) == value) {
+                            InputType type = pos.getInputType();
+                            if (type != InputType.Value && type != InputType.Guard && type != InputType.Anchor) {
+                                return false;
+                            }
+                        }
+                    }
+                    List<FixedNode> positions = new ArrayList<>();
+                    if (usage instanceof FixedNode) {
+                        positions.add((FixedNode) usage);
+                    } else if (usage instanceof ValueProxyNode) {
+                        positions.add(((ValueProxyNode) usage).proxyPoint());
+                    } else if (usage instanceof ProxyNode || !collectPositions(usage, positions)) {
+                        return false;
+                    }
+                    Boolean side = null;
+                    for (FixedNode position : positions) {
+                        Boolean positionSide = side(cfg, trueBlock, falseBlock, position);
+                        if (positionSide == null || (side != null && side != positionSide)) {
+                            return false;
+                        }
+                        side = positionSide;
+                    }
+                    if (side == null) {
+                        return false;
+                    }
+                    externalUsages.add(new ExternalUsage(usage, value, -1, side));
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Collects the fixed nodes that a floating node is scheduled relative to: its fixed
+         * guards and anchors and the fixed nodes consuming it.
+         */
+        private static boolean collectPositions(Node floating, List<FixedNode> positions) {
+            EconomicSet<Node> visited = EconomicSet.create(Equivalence.IDENTITY);
+            List<Node> worklist = new ArrayList<>();
+            worklist.add(floating);
+            visited.add(floating);
+            while (!worklist.isEmpty()) {
+                Node current = worklist.remove(worklist.size() - 1);
+                for (Position pos : current.inputPositions()) {
+                    Node input = pos.get(current);
+                    if (input instanceof FixedNode && (pos.getInputType() == InputType.Guard || pos.getInputType() == InputType.Anchor)) {
+                        positions.add((FixedNode) input);
+                    }
+                }
+                for (Node usage : current.usages()) {
+                    if (usage instanceof FixedNode) {
+                        positions.add((FixedNode) usage);
+                    } else if (usage instanceof PhiNode) {
+                        PhiNode phi = (PhiNode) usage;
+                        for (int i = 0; i < phi.valueCount(); i++) {
+                            if (phi.valueAt(i) == current) {
+                                positions.add(phi.merge().phiPredecessorAt(i));
+                            }
+                        }
+                    } else if (usage instanceof ProxyNode) {
+                        positions.add(((ProxyNode) usage).proxyPoint());
+                    } else if (visited.add(usage)) {
+                        if (visited.size() > MAX_USAGE_VISITS) {
+                            return false;
+                        }
+                        worklist.add(usage);
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static Boolean side(ControlFlowGraph cfg, Block trueBlock, Block falseBlock, FixedNode position) {
+            Block block = cfg.blockFor(position);
+            if (block == null) {
+                return null;
+            }
+            if (AbstractControlFlowGraph.dominates(trueBlock, block)) {
+                return Boolean.TRUE;
+            }
+            if (AbstractControlFlowGraph.dominates(falseBlock, block)) {
+                return Boolean.FALSE;
+            }
+            return null;
+        }
+
+        /**
+         * Duplicates the tail into the predecessors ending in {@code ends} and joins the original
+         * and the duplicated paths at new merges in front of the successors of the {@link IfNode}.
+         *
+         * @return the estimated size added to the graph
+         */
+        @SuppressWarnings("try")
+        int duplicate(List<EndNode> ends) {
+            StructuredGraph graph = merge.graph();
+            try (DebugCloseable position = ifNode.withNodeSourcePosition()) {
+                MergeNode trueMerge = graph.add(new MergeNode());
+                MergeNode falseMerge = graph.add(new MergeNode());
+                AbstractBeginNode trueSuccessor = ifNode.trueSuccessor();
+                AbstractBeginNode falseSuccessor = ifNode.falseSuccessor();
+                connect(ifNode, true, trueMerge);
+                connect(ifNode, false, falseMerge);
+                trueMerge.setNext(trueSuccessor);
+                falseMerge.setNext(falseSuccessor);
+
+                List<EconomicMap<Node, Node>> pathValues = new ArrayList<>(ends.size());
+                for (EndNode end : ends) {
+                    EconomicMap<Node, Node> replacements = EconomicMap.create(Equivalence.IDENTITY);
+                    for (PhiNode phi : merge.phis()) {
+                        replacements.put(phi, phi.valueAt(end));
+                    }
+                    UnmodifiableEconomicMap<Node, Node> duplicates = graph.addDuplicates(duplicatedNodes, graph, duplicatedNodes.size(), replacements);
+                    FixedNode first = fixedNodes.isEmpty() ? ifNode : fixedNodes.get(0);
+                    ((FixedWithNextNode) end.predecessor()).setNext((FixedNode) duplicates.get(first));
+                    merge.removeEnd(end);
+                    GraphUtil.killCFG(end);
+
+                    IfNode ifCopy = (IfNode) duplicates.get(ifNode);
+                    connect(ifCopy, true, trueMerge);
+                    connect(ifCopy, false, falseMerge);
+                    replacements.putAll(duplicates);
+                    pathValues.add(replacements);
+                }
+
+                EconomicMap<Node, ValuePhiNode> truePhis = EconomicMap.create(Equivalence.IDENTITY);
+                EconomicMap<Node, ValuePhiNode> falsePhis = EconomicMap.create(Equivalence.IDENTITY);
+                for (ExternalUsage external : externalUsages) {
+                    MergeNode target = external.trueSide ? trueMerge : falseMerge;
+                    EconomicMap<Node, ValuePhiNode> phis = external.trueSide ? truePhis : falsePhis;
+                    if (external.phiIndex >= 0) {
+                        ((PhiNode) external.usage).setValueAt(external.phiIndex, phiFor(target, phis, external.value, pathValues));
+                    } else {
+                        for (Position pos : external.usage.inputPositions()) {
+                            if (pos.get(external.usage) == external.value) {
+                                pos.set(external.usage, pos.getInputType() == InputType.Value ? phiFor(target, phis, external.value, pathValues) : target);
+                            }
+                        }
+                    }
+                }
+
+                FrameState stateAfter = merge.stateAfter();
+                if (stateAfter != null) {
+                    trueMerge.setStateAfter(mergeState(stateAfter, trueMerge, truePhis, pathValues));
+                    falseMerge.setStateAfter(mergeState(stateAfter, falseMerge, falsePhis, pathValues));
+                }
+                if (merge.forwardEndCount() == 1) {
+                    graph.reduceTrivialMerge(merge);
+                }
+            }
+            return ends.size() * size;
+        }
+
+        private static void connect(IfNode split, boolean trueSuccessor, MergeNode target) {
+            StructuredGraph graph = split.graph();
+            BeginNode begin = graph.add(new BeginNode());
+            EndNode end = graph.add(new EndNode());
+            if (trueSuccessor) {
+                split.setTrueSuccessor(begin);
+            } else {
+                split.setFalseSuccessor(begin);
+            }
+            begin.setNext(end);
+            target.addForwardEnd(end);
+        }
+
+        /**
+         * Gets the phi at {@code target} that merges {@code value} from the original path with its
+         * duplicates.
+         */
+        private static ValuePhiNode phiFor(MergeNode target, EconomicMap<Node, ValuePhiNode> phis, Node value, List<EconomicMap<Node, Node>> pathValues) {
+            ValuePhiNode phi = phis.get(value);
+            if (phi == null) {
+                ValueNode original = (ValueNode) value;
+                phi = target.graph().addWithoutUnique(new ValuePhiNode(original.stamp(NodeView.DEFAULT).unrestricted(), target));
+                phi.addInput(original);
+                for (EconomicMap<Node, Node> path : pathValues) {
+                    phi.addInput((ValueNode) path.get(value));
+                }
+                phi.inferStamp();
+                phis.put(value, phi);
+            }
+            return phi;
+        }
+
+        /**
+         * The tail has no side effects, so the state of the original merge also describes the new
+         * merges, with the phis of the original merge replaced by phis of the new merge.
+         */
+        private FrameState mergeState(FrameState stateAfter, MergeNode target, EconomicMap<Node, ValuePhiNode> phis, List<EconomicMap<Node, Node>> pathValues) {
+            FrameState state = stateAfter.duplicate();
+            for (PhiNode phi : merge.phis()) {
+                if (state.inputs().contains(phi)) {
+                    state.replaceAllInputs(phi, phiFor(target, phis, phi, pathValues));
+                }
+            }
+            return state;
+        }
+    }
+}
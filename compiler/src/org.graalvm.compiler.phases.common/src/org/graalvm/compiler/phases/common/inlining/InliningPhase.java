@@ -91,7 +91,8 @@ public class InliningPhase extends AbstractInliningPhase {
      */
     @Override
     protected void run(final StructuredGraph graph, final HighTierContext context) {
-        final InliningData data = new InliningData(graph, context, maxMethodPerInlining, canonicalizer, inliningPolicy, rootInvokes);
+        final InliningPolicy policy = inliningPolicy.forRootGraph(graph);
+        final InliningData data = new InliningData(graph, context, maxMethodPerInlining, canonicalizer, policy, rootInvokes != null ? rootInvokes : policy.rootInvokes(graph));
 
         int count = 0;
         assert data.repOK();
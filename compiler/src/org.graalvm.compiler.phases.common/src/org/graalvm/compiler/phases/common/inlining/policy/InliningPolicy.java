@@ -24,6 +24,9 @@
  */
 package org.graalvm.compiler.phases.common.inlining.policy;
 
+import java.util.LinkedList;
+
+import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.spi.Replacements;
 import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
@@ -70,6 +73,23 @@ public interface InliningPolicy {
         }
     }
 
+    /**
+     * Gets the policy used for a single run of the inliner on {@code rootGraph}. A policy object is
+     * shared by all compilations using the same suite, so a policy that accumulates state across the
+     * decisions of one compilation must return a fresh instance.
+     */
+    default InliningPolicy forRootGraph(@SuppressWarnings("unused") StructuredGraph rootGraph) {
+        return this;
+    }
+
+    /**
+     * Gets the call sites of {@code rootGraph} in the order in which they should be explored, or
+     * {@code null} to explore them in dominator order.
+     */
+    default LinkedList<Invoke> rootInvokes(@SuppressWarnings("unused") StructuredGraph rootGraph) {
+        return null;
+    }
+
     boolean continueInlining(StructuredGraph graph);
 
     Decision isWorthInlining(Replacements replacements, MethodInvocation invocation, InlineInfo calleeInfo, int inliningDepth, boolean fullyProcessed);
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common.inlining.policy;
+
+import static org.graalvm.compiler.core.common.GraalOptions.InlineEverything;
+import static org.graalvm.compiler.core.common.GraalOptions.MaximumDesiredSize;
+import static org.graalvm.compiler.core.common.GraalOptions.MaximumInliningSize;
+import static org.graalvm.compiler.core.common.GraalOptions.TraceInlining;
+import static org.graalvm.compiler.core.common.GraalOptions.TrivialInliningSize;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.Map;
+
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.spi.Replacements;
+import org.graalvm.compiler.nodes.type.StampTool;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.common.inlining.InliningUtil;
+import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
+import org.graalvm.compiler.phases.common.inlining.walker.InliningIterator;
+import org.graalvm.compiler.phases.common.inlining.walker.MethodInvocation;
+import org.graalvm.compiler.phases.graph.FixedNodeRelativeFrequencyCache;
+
+/**
+ * An inlining policy that spends a per-compilation code budget on the call sites with the highest
+ * priority. The priority of a call site is its profiled frequency times the expected benefit of
+ * inlining it (constant arguments, arguments whose type becomes known in the callee and the share
+ * of receiver types covered by a type-guarded inline), divided by the size of the callee.
+ *
+ * The call sites of the root graph are explored in order of decreasing frequency. The priority a
+ * call site needs to be inlined grows as the budget is used up, so cold call sites are only inlined
+ * while most of the budget is still available while hot call sites, including the most frequent
+ * receivers of megamorphic call sites, are inlined until the budget is exhausted.
+ */
+public class ProfileGuidedInliningPolicy extends AbstractInliningPolicy {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Use the profile-guided inlining policy that spends a per-compilation code budget on the most frequent call sites.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> ProfileGuidedInlining = new OptionKey<>(false);
+        @Option(help = "Number of nodes the profile-guided inlining policy may add to a compilation unit.", type = OptionType.Expert)
+        public static final OptionKey<Integer> ProfileGuidedInliningBudget = new OptionKey<>(6000);
+        @Option(help = "Priority a call site needs to be inlined by the profile-guided inlining policy while the whole budget is available.", type = OptionType.Expert)
+        public static final OptionKey<Double> ProfileGuidedInliningMinPriority = new OptionKey<>(0.005);
+        // @formatter:on
+    }
+
+    /**
+     * Benefit added for each constant argument, which typically enables folding in the callee.
+     */
+    private static final double CONSTANT_ARGUMENT_BENEFIT = 0.5;
+
+    /**
+     * Benefit added for each argument of exactly known type, which enables devirtualization and
+     * type check folding in the callee.
+     */
+    private static final double TYPE_SHARPENING_BENEFIT = 0.25;
+
+    /**
+     * Lower bound for the unused fraction of the budget so that the required priority stays finite.
+     */
+    private static final double MIN_REMAINING_FRACTION = 0.05;
+
+    private static final CounterKey inliningStoppedByBudgetCounter = DebugContext.counter("InliningStoppedByBudget");
+
+    /**
+     * The graph into which inlining is performed or {@code null} for the shared instance.
+     */
+    private final StructuredGraph rootGraph;
+
+    /**
+     * The number of nodes this policy may add to {@link #rootGraph}.
+     */
+    private final int budget;
+
+    /**
+     * The number of nodes added to {@link #rootGraph} by inlining decisions made so far.
+     */
+    private int spent;
+
+    public ProfileGuidedInliningPolicy(Map<Invoke, Double> hints) {
+        super(hints);
+        this.rootGraph = null;
+        this.budget = 0;
+    }
+
+    protected ProfileGuidedInliningPolicy(Map<Invoke, Double> hints, StructuredGraph rootGraph) {
+        super(hints);
+        this.rootGraph = rootGraph;
+        OptionValues options = rootGraph.getOptions();
+        int available = MaximumDesiredSize.getValue(options) - InliningUtil.getNodeCount(rootGraph);
+        this.budget = Math.max(0, Math.min(Options.ProfileGuidedInliningBudget.getValue(options), available));
+    }
+
+    @Override
+    public InliningPolicy forRootGraph(StructuredGraph graph) {
+        return new ProfileGuidedInliningPolicy(hints, graph);
+    }
+
+    @Override
+    public LinkedList<Invoke> rootInvokes(StructuredGraph graph) {
+        LinkedList<Invoke> invokes = new InliningIterator(graph).apply();
+        if (invokes.size() > 1) {
+            FixedNodeRelativeFrequencyCache frequencies = new FixedNodeRelativeFrequencyCache();
+            invokes.sort(Comparator.comparingDouble((Invoke invoke) -> frequencies.applyAsDouble(invoke.asNode())).reversed());
+        }
+        return invokes;
+    }
+
+    @Override
+    public boolean continueInlining(StructuredGraph currentGraph) {
+        DebugContext debug = currentGraph.getDebug();
+        if (InliningUtil.getNodeCount(currentGraph) >= MaximumDesiredSize.getValue(currentGraph.getOptions())) {
+            InliningUtil.logInliningDecision(debug, "inlining is cut off by MaximumDesiredSize");
+            return false;
+        }
+        if (rootGraph != null && spent >= budget) {
+            InliningUtil.logInliningDecision(debug, "inlining is cut off by the inlining budget (%d nodes)", budget);
+            inliningStoppedByBudgetCounter.increment(debug);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Decision isWorthInlining(Replacements replacements, MethodInvocation invocation, InlineInfo calleeInfo, int inliningDepth, boolean fullyProcessed) {
+        OptionValues options = calleeInfo.graph().getOptions();
+        final boolean isTracing = TraceInlining.getValue(options) || calleeInfo.graph().getDebug().hasCompilationListener();
+        final InlineInfo info = invocation.callee();
+
+        if (InlineEverything.getValue(options)) {
+            InliningUtil.traceInlinedMethod(info, inliningDepth, fullyProcessed, "inline everything");
+            return InliningPolicy.Decision.YES.withReason(isTracing, "inline everything");
+        }
+
+        if (isIntrinsic(replacements, info)) {
+            InliningUtil.traceInlinedMethod(info, inliningDepth, fullyProcessed, "intrinsic");
+            return InliningPolicy.Decision.YES.withReason(isTracing, "intrinsic");
+        }
+
+        if (info.shouldInline()) {
+            InliningUtil.traceInlinedMethod(info, inliningDepth, fullyProcessed, "forced inlining");
+            return InliningPolicy.Decision.YES.withReason(isTracing, "forced inlining");
+        }
+
+        double inliningBonus = getInliningBonus(info);
+        int nodes = info.determineNodeCount();
+
+        if (nodes < TrivialInliningSize.getValue(options) * inliningBonus) {
+            InliningUtil.traceInlinedMethod(info, inliningDepth, fullyProcessed, "trivial (bonus=%f, nodes=%d)", inliningBonus, nodes);
+            return accept(info, fullyProcessed, nodes, isTracing, "trivial (bonus=%f, nodes=%d)", inliningBonus, nodes);
+        }
+
+        int maximumNodes = (int) (MaximumInliningSize.getValue(options) * inliningBonus);
+        if (nodes > maximumNodes) {
+            InliningUtil.traceNotInlinedMethod(info, inliningDepth, "too large (bonus=%f, nodes=%d > %d)", inliningBonus, nodes, maximumNodes);
+            return reject(info, fullyProcessed, isTracing, "too large (bonus=%f, nodes=%d > %d)", inliningBonus, nodes, maximumNodes);
+        }
+
+        int remaining = rootGraph == null ? Integer.MAX_VALUE : budget - spent;
+        if (nodes > remaining) {
+            InliningUtil.traceNotInlinedMethod(info, inliningDepth, "inlining budget exhausted (nodes=%d, remaining=%d)", nodes, remaining);
+            return reject(info, fullyProcessed, isTracing, "inlining budget exhausted (nodes=%d, remaining=%d)", nodes, remaining);
+        }
+
+        double priority = invocation.probability() * inliningBonus * benefit(invocation, info) / nodes;
+        double requiredPriority = requiredPriority(options);
+        if (priority >= requiredPriority) {
+            InliningUtil.traceInlinedMethod(info, inliningDepth, fullyProcessed, "profile-guided (probability=%f, priority=%f >= %f, nodes=%d, remaining=%d)", invocation.probability(),
+                            priority, requiredPriority, nodes, remaining);
+            return accept(info, fullyProcessed, nodes, isTracing, "profile-guided (probability=%f, priority=%f >= %f, nodes=%d, remaining=%d)", invocation.probability(), priority,
+                            requiredPriority, nodes, remaining);
+        }
+
+        InliningUtil.traceNotInlinedMethod(info, inliningDepth, "profile-guided (probability=%f, priority=%f < %f, nodes=%d, remaining=%d)", invocation.probability(), priority,
+                        requiredPriority, nodes, remaining);
+        return reject(info, fullyProcessed, isTracing, "profile-guided (probability=%f, priority=%f < %f, nodes=%d, remaining=%d)", invocation.probability(), priority, requiredPriority,
+                        nodes, remaining);
+    }
+
+    /**
+     * Gets the priority a call site currently needs to be inlined. It starts at
+     * {@link Options#ProfileGuidedInliningMinPriority} and grows inversely with the unused fraction
+     * of the budget.
+     */
+    private double requiredPriority(OptionValues options) {
+        double minPriority = Options.ProfileGuidedInliningMinPriority.getValue(options);
+        if (rootGraph == null || budget == 0) {
+            return minPriority;
+        }
+        double remainingFraction = Math.max(MIN_REMAINING_FRACTION, 1.0 - (double) spent / budget);
+        return minPriority / remainingFraction;
+    }
+
+    /**
+     * Estimates the relative benefit of inlining {@code info} beyond removing the call overhead.
+     */
+    private static double benefit(MethodInvocation invocation, InlineInfo info) {
+        double benefit = 1.0;
+        BitSet freshlyInstantiated = invocation.getFreshlyInstantiatedArguments();
+        int index = 0;
+        for (ValueNode argument : info.invoke().callTarget().arguments()) {
+            if (argument.isConstant()) {
+                benefit += CONSTANT_ARGUMENT_BENEFIT;
+            } else if ((freshlyInstantiated != null && freshlyInstantiated.get(index)) || StampTool.isExactType(argument)) {
+                benefit += TYPE_SHARPENING_BENEFIT;
+            }
+            index++;
+        }
+        /*
+         * A type-guarded inline only removes the call for the receiver types it covers; megamorphic
+         * call sites keep a virtual call for the remaining types.
+         */
+        double coverage = 0;
+        for (int i = 0; i < info.numberOfMethods(); i++) {
+            coverage += info.probabilityAt(i);
+        }
+        return benefit * Math.min(1.0, coverage);
+    }
+
+    private Decision accept(InlineInfo info, boolean fullyProcessed, int nodes, boolean isTracing, String reason, Object... args) {
+        if (fullyProcessed && info.graph() == rootGraph) {
+            spent += nodes;
+        }
+        return InliningPolicy.Decision.YES.withReason(isTracing, reason, args);
+    }
+
+    private static Decision reject(InlineInfo info, boolean fullyProcessed, boolean isTracing, String reason, Object... args) {
+        if (fullyProcessed) {
+            info.graph().getInliningLog().addDecision(info.invoke(), false, "InliningPhase", null, null, reason, args);
+        }
+        return InliningPolicy.Decision.NO.withReason(isTracing, reason, args);
+    }
+}
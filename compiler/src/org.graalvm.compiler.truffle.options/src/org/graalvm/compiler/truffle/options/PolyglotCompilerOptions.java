@@ -308,6 +308,13 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Whether to emit look-back-edge counters in the first-tier compilations.", category = OptionCategory.EXPERT)
     public static final OptionKey<Boolean> FirstTierBackedgeCounts = new OptionKey<>(true);
 
+    @Option(help = "File in which the call targets compiled by an engine are recorded when the engine is closed. " +
+            "Call targets recorded by a previous run are compiled on their first call instead of waiting for the compilation thresholds.", category = OptionCategory.EXPERT)
+    public static final OptionKey<String> WarmupCacheFile = new OptionKey<>(null, OptionType.defaultType(String.class));
+
+    @Option(help = "Maximum number of call targets recorded in the warmup cache file.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> WarmupCacheMaxEntries = new OptionKey<>(10000);
+
     // Failed compilation behavior
 
     @Option(help = "Prints the exception stack trace for compilation exceptions", category = OptionCategory.INTERNAL, deprecated = true, deprecationMessage = "Use 'engine.CompilationFailureAction=Print'")
@@ -516,6 +523,13 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Traversing queue gives first tier compilations priority.", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> TraversingQueueFirstTierPriority = new OptionKey<>(true);
 
+    @Option(help = "Half-life in milliseconds of the call and loop counts used to weight tasks in the traversing queue. " +
+                    "Tasks whose decayed counts fall below one are dequeued as stale. Disabled if 0.", category = OptionCategory.INTERNAL)
+    public static final OptionKey<Integer> TraversingQueueHotnessHalfLife = new OptionKey<>(0);
+
+    @Option(help = "Share the compiler threads fairly between engines with queued compilations. The value from the first engine compiling wins.", category = OptionCategory.INTERNAL)
+    public static final OptionKey<Boolean> TraversingQueueEngineFairness = new OptionKey<>(false);
+
     @Option(help = "Reduce or increase the compilation threshold depending on the size of the compilation queue.", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> DynamicCompilationThresholds = new OptionKey<>(true);
 
@@ -153,13 +153,14 @@ public class BackgroundCompileQueue {
 
     private BlockingQueue<Runnable> createQueue(OptimizedCallTarget callTarget, int threads) {
         if (callTarget.getOptionValue(PolyglotCompilerOptions.TraversingCompilationQueue)) {
+            boolean engineFairness = callTarget.getOptionValue(PolyglotCompilerOptions.TraversingQueueEngineFairness);
             if (callTarget.getOptionValue(PolyglotCompilerOptions.DynamicCompilationThresholds) && callTarget.getOptionValue(PolyglotCompilerOptions.BackgroundCompilation)) {
                 double minScale = callTarget.getOptionValue(PolyglotCompilerOptions.DynamicCompilationThresholdsMinScale);
                 int minNormalLoad = callTarget.getOptionValue(PolyglotCompilerOptions.DynamicCompilationThresholdsMinNormalLoad);
                 int maxNormalLoad = callTarget.getOptionValue(PolyglotCompilerOptions.DynamicCompilationThresholdsMaxNormalLoad);
-                return new DynamicThresholdsQueue(threads, minScale, minNormalLoad, maxNormalLoad);
+                return new DynamicThresholdsQueue(threads, engineFairness, minScale, minNormalLoad, maxNormalLoad);
             } else {
-                return new TraversingBlockingQueue();
+                return new TraversingBlockingQueue(threads, engineFairness);
             }
         } else {
             return new IdlingPriorityBlockingQueue<>();
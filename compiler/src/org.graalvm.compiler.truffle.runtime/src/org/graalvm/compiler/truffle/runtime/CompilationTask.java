@@ -46,9 +46,11 @@ public final class CompilationTask implements TruffleCompilationTask, Callable<V
         public void accept(CompilationTask task) {
             OptimizedCallTarget callTarget = task.targetRef.get();
             if (callTarget != null && task.start()) {
+                task.engineData.activeCompilations.incrementAndGet();
                 try {
                     ((GraalTruffleRuntime) Truffle.getRuntime()).doCompile(callTarget, task);
                 } finally {
+                    task.engineData.activeCompilations.decrementAndGet();
                     callTarget.compiledTier(task.tier());
                     task.finished();
                 }
@@ -67,6 +69,8 @@ public final class CompilationTask implements TruffleCompilationTask, Callable<V
     private int lastCount;
     private long lastTime;
     private double lastWeight;
+    // call and loop count decayed by EngineData.hotnessHalfLifeNanos
+    private double hotness;
 
     private final TruffleInlining inliningData = new TruffleInlining();
 
@@ -79,6 +83,7 @@ public final class CompilationTask implements TruffleCompilationTask, Callable<V
         lastCount = target != null ? target.getCallAndLoopCount() : Integer.MIN_VALUE;
         lastTime = System.nanoTime();
         lastWeight = target != null ? target.getCallAndLoopCount() : -1;
+        hotness = target != null ? target.getCallAndLoopCount() : 0;
         engineData = target != null ? target.engine : null;
 
     }
@@ -248,7 +253,13 @@ public final class CompilationTask implements TruffleCompilationTask, Callable<V
             return true;
         }
         int count = target.getCallAndLoopCount();
-        double weight = rate(count, elapsed) * count;
+        double weight;
+        if (hotnessDecayEnabled()) {
+            hotness = decay(hotness, elapsed) + Math.max(0.0, (double) count - lastCount);
+            weight = rate(count, elapsed) * hotness;
+        } else {
+            weight = rate(count, elapsed) * count;
+        }
         lastTime = currentTime;
         lastCount = count;
         lastWeight = weight;
@@ -256,6 +267,31 @@ public final class CompilationTask implements TruffleCompilationTask, Callable<V
         return true;
     }
 
+    private boolean hotnessDecayEnabled() {
+        return engineData != null && engineData.hotnessHalfLifeNanos > 0;
+    }
+
+    private double decay(double value, long elapsed) {
+        return value * Math.pow(0.5, (double) elapsed / engineData.hotnessHalfLifeNanos);
+    }
+
+    /**
+     * A compilation is stale if the decayed call and loop count of its target fell below one, i.e.
+     * the target was not executed for several half-lives while it waited in the queue. Stale tasks
+     * are dequeued by the traversing queue, the target is queued again once it gets hot again.
+     */
+    boolean isStale() {
+        return action == COMPILATION_ACTION && hotnessDecayEnabled() && hotness < 1.0;
+    }
+
+    boolean isCompilation() {
+        return action == COMPILATION_ACTION;
+    }
+
+    EngineData engineData() {
+        return engineData;
+    }
+
     private double rate(int count, long elapsed) {
         double rawRate = ((double) count - lastCount) / elapsed;
         return 1.0 + (Double.isNaN(rawRate) ? 0 : rawRate);
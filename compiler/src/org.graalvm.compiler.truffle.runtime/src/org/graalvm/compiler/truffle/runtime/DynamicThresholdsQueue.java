@@ -28,14 +28,13 @@ import java.util.concurrent.TimeUnit;
 
 final class DynamicThresholdsQueue extends TraversingBlockingQueue {
 
-    private final int threads;
     private final double minScale;
     private final int minNormalLoad;
     private final int maxNormalLoad;
     private final double slope;
 
-    DynamicThresholdsQueue(int threads, double minScale, int minNormalLoad, int maxNormalLoad) {
-        this.threads = threads;
+    DynamicThresholdsQueue(int threads, boolean engineFairness, double minScale, int minNormalLoad, int maxNormalLoad) {
+        super(threads, engineFairness);
         this.minScale = minScale;
         this.minNormalLoad = minNormalLoad;
         this.maxNormalLoad = maxNormalLoad;
@@ -41,6 +41,12 @@ public interface EngineCacheSupport extends GraalRuntimeServiceProvider {
 
     void onEngineClosed(EngineData e);
 
+    /**
+     * Notifies the cache support that the given call target is executed for the first time.
+     */
+    default void onCallTargetInitialized(@SuppressWarnings("unused") OptimizedCallTarget target) {
+    }
+
     boolean isStoreEnabled(OptionValues options);
 
     Object tryLoadingCachedEngine(OptionValues options, Function<String, TruffleLogger> loggerFactory);
@@ -63,6 +63,7 @@ import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Trace
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraceTransferToInterpreter;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraversingQueueWeightingBothTiers;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraversingQueueFirstTierPriority;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.TraversingQueueHotnessHalfLife;
 import static org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime.getRuntime;
 
 import java.util.ArrayList;
@@ -71,6 +72,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.logging.Level;
@@ -141,6 +144,10 @@ public final class EngineData {
     @CompilationFinal public boolean priorityQueue;
     @CompilationFinal public boolean weightingBothTiers;
     @CompilationFinal public boolean traversingFirstTierPriority;
+    @CompilationFinal public long hotnessHalfLifeNanos;
+
+    // number of compilations of this engine currently running on a compiler thread
+    final AtomicInteger activeCompilations = new AtomicInteger();
 
     // computed fields.
     @CompilationFinal public int callThresholdInInterpreter;
@@ -267,6 +274,7 @@ public final class EngineData {
         priorityQueue = options.get(PriorityQueue);
         weightingBothTiers = options.get(TraversingQueueWeightingBothTiers);
         traversingFirstTierPriority = options.get(TraversingQueueFirstTierPriority);
+        hotnessHalfLifeNanos = TimeUnit.MILLISECONDS.toNanos(options.get(TraversingQueueHotnessHalfLife));
 
         this.returnTypeSpeculation = options.get(ReturnTypeSpeculation);
         this.argumentTypeSpeculation = options.get(ArgumentTypeSpeculation);
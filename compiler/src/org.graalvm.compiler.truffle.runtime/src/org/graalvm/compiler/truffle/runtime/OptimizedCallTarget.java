@@ -434,6 +434,15 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         this.callAndLoopCount = 0;
     }
 
+    /**
+     * Raises the call and loop counts of this target such that the next call in the interpreter
+     * submits it for compilation. Used for call targets that are known to become hot.
+     */
+    final void prepareForEarlyCompilation() {
+        this.callCount = Math.max(this.callCount, engine.callThresholdInInterpreter - 1);
+        this.callAndLoopCount = Math.max(this.callAndLoopCount, scaledThreshold(engine.callAndLoopThresholdInInterpreter) - 1);
+    }
+
     @Override
     @TruffleBoundary
     public final Object call(Object... args) {
@@ -658,6 +667,7 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
                 this.uninitializedRootNode = NodeUtil.cloneNode(rootNode);
             }
             GraalRuntimeAccessor.INSTRUMENT.onFirstExecution(getRootNode(), validate);
+            runtime().getEngineCacheSupport().onCallTargetInitialized(this);
             if (engine.callTargetStatistics) {
                 this.initializedTimestamp = System.nanoTime();
             } else {
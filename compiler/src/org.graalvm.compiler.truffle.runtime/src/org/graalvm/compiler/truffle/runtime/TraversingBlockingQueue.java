@@ -24,14 +24,25 @@
  */
 package org.graalvm.compiler.truffle.runtime;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 
 class TraversingBlockingQueue implements BlockingQueue<Runnable> {
     final BlockingQueue<Runnable> entries = new LinkedBlockingDeque<>();
+    final int threads;
+    private final boolean engineFairness;
+
+    TraversingBlockingQueue(int threads, boolean engineFairness) {
+        this.threads = threads;
+        this.engineFairness = engineFairness;
+    }
 
     @SuppressWarnings("unchecked")
     private static CompilationTask task(Runnable entry) {
@@ -50,7 +61,7 @@ class TraversingBlockingQueue implements BlockingQueue<Runnable> {
 
     @Override
     public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
-        Runnable max = takeMax();
+        Runnable max = takeBest();
         if (max != null) {
             return max;
         }
@@ -59,13 +70,25 @@ class TraversingBlockingQueue implements BlockingQueue<Runnable> {
 
     @Override
     public Runnable poll() {
-        Runnable max = takeMax();
+        Runnable max = takeBest();
         if (max != null) {
             return max;
         }
         return entries.poll();
     }
 
+    private Runnable takeBest() {
+        List<CompilationTask> stale = new ArrayList<>();
+        Runnable max = takeMax(stale);
+        for (CompilationTask task : stale) {
+            OptimizedCallTarget target = task.targetRef.get();
+            if (target != null) {
+                target.cancelCompilation("Target was not executed while waiting in the compilation queue.");
+            }
+        }
+        return max;
+    }
+
     /*
      * This method traverses the entries and picks the best task according to {@link
      * CompilationTask#isHigherPriorityThan(CompilationTask)}. The method is synchronized to ensure
@@ -73,15 +96,17 @@ class TraversingBlockingQueue implements BlockingQueue<Runnable> {
      * {@link #entries} gets modified during the execution of this method (e.g. add, but that's
      * fine, because the iterator is weakly consistent). This allows the queue to not block
      * interpreter threads from adding entries to the queue while a compiler thread is looking for
-     * the best task.
+     * the best task. Stale tasks (see {@link CompilationTask#isStale()}) are removed and added to
+     * {@code stale}, they are cancelled by the caller outside of the lock.
      */
-    private synchronized Runnable takeMax() {
+    private synchronized Runnable takeMax(List<CompilationTask> stale) {
         if (entries.isEmpty()) {
             return null;
         }
         long time = System.nanoTime();
         Iterator<Runnable> it = entries.iterator();
         Runnable max = null;
+        Map<EngineData, Runnable> maxPerEngine = engineFairness ? new IdentityHashMap<>() : null;
         while (it.hasNext()) {
             Runnable entry = it.next();
             CompilationTask task = task(entry);
@@ -90,14 +115,53 @@ class TraversingBlockingQueue implements BlockingQueue<Runnable> {
                 it.remove();
                 continue;
             }
+            if (task.isStale()) {
+                it.remove();
+                stale.add(task);
+                continue;
+            }
             if (max == null || task.isHigherPriorityThan(task(max))) {
                 max = entry;
             }
+            if (maxPerEngine != null && task.isCompilation()) {
+                Runnable engineMax = maxPerEngine.get(task.engineData());
+                if (engineMax == null || task.isHigherPriorityThan(task(engineMax))) {
+                    maxPerEngine.put(task.engineData(), entry);
+                }
+            }
+        }
+        if (max == null) {
+            return null;
+        }
+        if (maxPerEngine != null && maxPerEngine.size() > 1 && task(max).isCompilation()) {
+            max = fairShare(max, maxPerEngine);
         }
         // entries.remove can only return false if a sleeping thread takes the only element
         return entries.remove(max) ? max : null;
     }
 
+    /**
+     * Each engine with queued compilations gets an equal share of the compiler threads. If the
+     * engine of the best task already uses up its share, the best task of an engine that does not
+     * is picked instead. The best task is kept if all engines use up their share.
+     */
+    private Runnable fairShare(Runnable max, Map<EngineData, Runnable> maxPerEngine) {
+        int quota = Math.max(1, threads / maxPerEngine.size());
+        if (task(max).engineData().activeCompilations.get() < quota) {
+            return max;
+        }
+        Runnable fairMax = null;
+        for (Map.Entry<EngineData, Runnable> engineMax : maxPerEngine.entrySet()) {
+            if (engineMax.getKey().activeCompilations.get() >= quota) {
+                continue;
+            }
+            if (fairMax == null || task(engineMax.getValue()).isHigherPriorityThan(task(fairMax))) {
+                fairMax = engineMax.getValue();
+            }
+        }
+        return fairMax != null ? fairMax : max;
+    }
+
     @Override
     public boolean offer(Runnable e) {
         return entries.offer(e);
@@ -130,7 +194,7 @@ class TraversingBlockingQueue implements BlockingQueue<Runnable> {
 
     @Override
     public Runnable take() throws InterruptedException {
-        Runnable max = takeMax();
+        Runnable max = takeBest();
         if (max != null) {
             return max;
         }
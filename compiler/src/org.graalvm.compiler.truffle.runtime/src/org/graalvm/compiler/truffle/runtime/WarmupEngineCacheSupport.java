@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.CompilationResultInfo;
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.GraphInfo;
+import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
+import org.graalvm.nativeimage.ImageInfo;
+import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionValues;
+
+import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Engine cache support that records which call targets were compiled by an engine and, in a later
+ * run, compiles those call targets on their first call instead of waiting for the compilation
+ * thresholds. The recorded call targets are stored in the file configured by
+ * {@link PolyglotCompilerOptions#WarmupCacheFile} when the engine is closed.
+ * <p>
+ * Call targets are identified by their root name and the location and content hash of the root
+ * source section. Call targets without an available source section are never recorded.
+ * <p>
+ * This is the fallback implementation used when no implementation capable of storing complete
+ * engines is available.
+ */
+public final class WarmupEngineCacheSupport implements EngineCacheSupport {
+
+    private static final String HEADER = "# Truffle warmup cache, version 1";
+
+    private volatile boolean listenerRegistered;
+
+    @Override
+    public void onEngineCreated(EngineData e) {
+        if (ImageInfo.inImageBuildtimeCode()) {
+            // the profile is loaded when the pre-initialized engine is patched at runtime
+            return;
+        }
+        initializeProfile(e);
+    }
+
+    @Override
+    public void onEnginePatch(EngineData e) {
+        initializeProfile(e);
+    }
+
+    @Override
+    public boolean onEngineClosing(EngineData e) {
+        return false;
+    }
+
+    @Override
+    public void onEngineClosed(EngineData e) {
+        WarmupProfile profile = e.getEngineLocal(WarmupProfile.class);
+        if (profile != null) {
+            e.clearEngineLocal(WarmupProfile.class);
+            try {
+                profile.store();
+            } catch (IOException ex) {
+                e.getEngineLogger().log(Level.WARNING, "Failed to write warmup cache file " + profile.file + ": " + ex);
+            }
+        }
+    }
+
+    @Override
+    public void onCallTargetInitialized(OptimizedCallTarget target) {
+        WarmupProfile profile = target.engine.getEngineLocal(WarmupProfile.class);
+        if (profile != null && !profile.loaded.isEmpty()) {
+            String key = keyOf(target);
+            if (key != null && profile.loaded.contains(key)) {
+                target.prepareForEarlyCompilation();
+            }
+        }
+    }
+
+    @Override
+    public boolean isStoreEnabled(OptionValues options) {
+        return false;
+    }
+
+    @Override
+    public Object tryLoadingCachedEngine(OptionValues options, Function<String, TruffleLogger> loggerFactory) {
+        return null;
+    }
+
+    @Override
+    public int getPriority() {
+        // prefer any other implementation except the disabled one
+        return Integer.MIN_VALUE + 1;
+    }
+
+    @Override
+    public OptionDescriptors getEngineOptions() {
+        return OptionDescriptors.EMPTY;
+    }
+
+    private void initializeProfile(EngineData e) {
+        String fileName = e.getEngineOptions().get(PolyglotCompilerOptions.WarmupCacheFile);
+        if (fileName == null || fileName.isEmpty() || e.getEngineLocal(WarmupProfile.class) != null) {
+            return;
+        }
+        WarmupProfile profile = new WarmupProfile(Paths.get(fileName), e.getEngineOptions().get(PolyglotCompilerOptions.WarmupCacheMaxEntries));
+        try {
+            profile.load();
+        } catch (IOException ex) {
+            e.getEngineLogger().log(Level.WARNING, "Failed to read warmup cache file " + profile.file + ": " + ex);
+        }
+        e.putEngineLocal(WarmupProfile.class, profile);
+        registerListener();
+    }
+
+    private void registerListener() {
+        if (!listenerRegistered) {
+            synchronized (this) {
+                if (!listenerRegistered) {
+                    GraalTruffleRuntime.getRuntime().addListener(new GraalTruffleRuntimeListener() {
+                        @Override
+                        public void onCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, GraphInfo graph, CompilationResultInfo result, int tier) {
+                            WarmupProfile profile = target.engine.getEngineLocal(WarmupProfile.class);
+                            if (profile != null) {
+                                String key = keyOf(target);
+                                if (key != null) {
+                                    profile.compiled.add(key);
+                                }
+                            }
+                        }
+                    });
+                    listenerRegistered = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a key identifying the call target across runs or {@code null} if the call target
+     * cannot be identified.
+     */
+    static String keyOf(OptimizedCallTarget target) {
+        RootNode root = target.getRootNode();
+        SourceSection section = root.getSourceSection();
+        if (section == null || !section.isAvailable()) {
+            return null;
+        }
+        Source source = section.getSource();
+        StringBuilder key = new StringBuilder();
+        key.append(root.getName()).append('\t');
+        key.append(source.getLanguage()).append('\t');
+        key.append(source.getName()).append('\t');
+        key.append(section.getCharIndex()).append('\t');
+        key.append(section.getCharLength()).append('\t');
+        key.append(Integer.toHexString(section.getCharacters().toString().hashCode()));
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return null;
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * The call targets recorded for one engine. Stored as an engine local.
+     */
+    static final class WarmupProfile {
+
+        final Path file;
+        final int maxEntries;
+        /** Call targets recorded by a previous run. Not modified after loading. */
+        Set<String> loaded = Collections.emptySet();
+        /** Call targets compiled by this run. */
+        final Set<String> compiled = ConcurrentHashMap.newKeySet();
+
+        WarmupProfile(Path file, int maxEntries) {
+            this.file = file;
+            this.maxEntries = maxEntries;
+        }
+
+        void load() throws IOException {
+            Set<String> keys = new LinkedHashSet<>();
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line = reader.readLine();
+                if (!HEADER.equals(line)) {
+                    // missing, foreign or outdated file
+                    return;
+                }
+                while ((line = reader.readLine()) != null && keys.size() < maxEntries) {
+                    if (!line.isEmpty()) {
+                        keys.add(line);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                return;
+            }
+            loaded = keys;
+        }
+
+        /**
+         * Writes the call targets compiled by this run followed by the ones recorded by the
+         * previous run that were not compiled again, up to {@link #maxEntries}.
+         */
+        void store() throws IOException {
+            Set<String> keys = new LinkedHashSet<>();
+            for (String key : compiled) {
+                if (keys.size() >= maxEntries) {
+                    break;
+                }
+                keys.add(key);
+            }
+            for (String key : loaded) {
+                if (keys.size() >= maxEntries) {
+                    break;
+                }
+                keys.add(key);
+            }
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    writer.write(HEADER);
+                    writer.newLine();
+                    for (String key : keys) {
+                        writer.write(key);
+                        writer.newLine();
+                    }
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+}
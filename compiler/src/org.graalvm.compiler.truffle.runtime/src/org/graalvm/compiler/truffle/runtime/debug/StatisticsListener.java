@@ -80,6 +80,7 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
 
     private final TargetLongStatistics timeToQueue = new TargetLongStatistics();
     private final TargetLongStatistics timeInQueue = new TargetLongStatistics();
+    private final TimeHistogram timeInQueueHistogram = new TimeHistogram();
 
     private final TargetIntStatistics nodeCount = new TargetIntStatistics();
     private final TargetIntStatistics nodeCountTrivial = new TargetIntStatistics();
@@ -175,6 +176,7 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         Long timeStamp = timeQueued.get(target);
         if (timeStamp != null) {
             timeInQueue.accept(times.compilationStarted - timeStamp, target);
+            timeInQueueHistogram.accept(times.compilationStarted - timeStamp);
         }
         timeQueued.remove(target);
     }
@@ -305,6 +307,7 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
             printStatistic(out, "Remaining Compilation Queue", rt.getCompilationQueueSize());
             printStatisticTime(out, "Time to queue", timeToQueue);
             printStatisticTime(out, "Time waiting in queue", timeInQueue);
+            timeInQueueHistogram.printStatistics(out);
             printStatisticTime(out, "Time for compilation", compilationTime);
             printStatisticTime(out, "  Truffle Tier", compilationTimeTruffleTier);
             printStatisticTime(out, "  Graal Tier", compilationTimeGraalTier);
@@ -375,6 +378,44 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
                         value.getAverage() / 1e6, value.getMax() / 1000000, value.getMaxName());
     }
 
+    /**
+     * Histogram of durations with power of two millisecond buckets.
+     */
+    private static final class TimeHistogram {
+
+        private final int[] buckets = new int[32];
+
+        void accept(long nanos) {
+            long millis = nanos / 1000000;
+            int bucket = millis <= 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(millis), buckets.length - 1);
+            buckets[bucket]++;
+        }
+
+        void printStatistics(PrintWriter out) {
+            long count = 0;
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                count += buckets[bucket];
+            }
+            if (count == 0) {
+                return;
+            }
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                if (buckets[bucket] == 0) {
+                    continue;
+                }
+                String label;
+                if (bucket == 0) {
+                    label = "    < 1 ms";
+                } else if (bucket == buckets.length - 1) {
+                    label = String.format("    >= %d ms", 1L << (bucket - 1));
+                } else {
+                    label = String.format("    %d - %d ms", 1L << (bucket - 1), 1L << bucket);
+                }
+                out.printf("%n  %-50s: %8d (%5.1f%%)", label, buckets[bucket], 100.0 * buckets[bucket] / count);
+            }
+        }
+    }
+
     private static final class TargetIntStatistics extends IntSummaryStatistics {
 
         private String maxName;
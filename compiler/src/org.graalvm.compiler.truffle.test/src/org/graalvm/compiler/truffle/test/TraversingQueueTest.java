@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graalvm.compiler.truffle.runtime.CompilationTask;
+import org.graalvm.compiler.truffle.runtime.EngineData;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.test.ReflectionUtils;
+
+/**
+ * Tests the hotness decay, the removal of stale tasks and the engine fairness of the traversing
+ * compilation queue. The queue is driven directly by the test, so no task is compiled.
+ */
+public class TraversingQueueTest {
+
+    private static final String RUNTIME_PACKAGE = "org.graalvm.compiler.truffle.runtime.";
+
+    private final List<Context> contexts = new ArrayList<>();
+    private final Map<Runnable, OptimizedCallTarget> taskTargets = new IdentityHashMap<>();
+
+    @After
+    public void closeContexts() {
+        for (Context context : contexts) {
+            context.close();
+        }
+        contexts.clear();
+    }
+
+    private Context createContext(String... keyValuePairs) {
+        Context.Builder builder = Context.newBuilder().allowExperimentalOptions(true).option("engine.Compilation", "false");
+        for (int i = 0; i < keyValuePairs.length; i += 2) {
+            builder.option(keyValuePairs[i], keyValuePairs[i + 1]);
+        }
+        Context context = builder.build();
+        contexts.add(context);
+        return context;
+    }
+
+    /*
+     * Call targets created while a context is entered are associated with the context's engine.
+     */
+    private static OptimizedCallTarget createTarget(Context context, String name) {
+        context.enter();
+        try {
+            return (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(new RootNode(null) {
+                @Override
+                public Object execute(VirtualFrame frame) {
+                    return 42;
+                }
+
+                @Override
+                public String getName() {
+                    return name;
+                }
+            });
+        } finally {
+            context.leave();
+        }
+    }
+
+    private static void call(OptimizedCallTarget target, int count) {
+        for (int i = 0; i < count; i++) {
+            target.call();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BlockingQueue<Runnable> createQueue(int threads, boolean engineFairness) throws ClassNotFoundException {
+        Class<?> queueClass = Class.forName(RUNTIME_PACKAGE + "TraversingBlockingQueue");
+        return (BlockingQueue<Runnable>) ReflectionUtils.newInstance(queueClass, new Class<?>[]{int.class, boolean.class}, threads, engineFairness);
+    }
+
+    /**
+     * Creates a last tier compilation task for {@code target} and makes it the target's current
+     * compilation task, as {@link OptimizedCallTarget#compile} would.
+     */
+    private CompilationTask.ExecutorServiceWrapper createTask(OptimizedCallTarget target, long id) throws ReflectiveOperationException {
+        Class<?> priorityClass = Class.forName(RUNTIME_PACKAGE + "BackgroundCompileQueue$Priority");
+        Class<?> tierClass = Class.forName(RUNTIME_PACKAGE + "BackgroundCompileQueue$Priority$Tier");
+        Object lastTier = tierClass.getEnumConstants()[2];
+        Object priority = ReflectionUtils.newInstance(priorityClass, new Class<?>[]{int.class, tierClass}, 0, lastTier);
+        CompilationTask task = (CompilationTask) ReflectionUtils.invokeStatic(CompilationTask.class, "createCompilationTask", new Class<?>[]{priorityClass, WeakReference.class, long.class},
+                        priority, new WeakReference<>(target), id);
+        CompilationTask.ExecutorServiceWrapper wrapper = ReflectionUtils.newInstance(CompilationTask.ExecutorServiceWrapper.class, new Class<?>[]{CompilationTask.class}, task);
+        Method setFuture = CompilationTask.class.getDeclaredMethod("setFuture", Future.class);
+        ReflectionUtils.setAccessible(setFuture, true);
+        setFuture.invoke(task, wrapper);
+        Field compilationTask = OptimizedCallTarget.class.getDeclaredField("compilationTask");
+        ReflectionUtils.setAccessible(compilationTask, true);
+        compilationTask.set(target, task);
+        taskTargets.put(wrapper, target);
+        return wrapper;
+    }
+
+    private OptimizedCallTarget targetOf(Runnable entry) {
+        return entry == null ? null : taskTargets.get(entry);
+    }
+
+    private static AtomicInteger activeCompilations(EngineData engine) {
+        return (AtomicInteger) ReflectionUtils.getField(engine, "activeCompilations");
+    }
+
+    /*
+     * The target that was hot a long time ago is picked without decay, the target that is hot now
+     * is picked with decay.
+     */
+    @Test
+    public void testHotnessDecay() throws Exception {
+        assertEquals("onceHot", pickHotter("0").getName());
+        assertEquals("nowHot", pickHotter("10").getName());
+    }
+
+    private OptimizedCallTarget pickHotter(String halfLife) throws Exception {
+        Context context = createContext("engine.TraversingQueueHotnessHalfLife", halfLife);
+        OptimizedCallTarget onceHot = createTarget(context, "onceHot");
+        OptimizedCallTarget nowHot = createTarget(context, "nowHot");
+        call(onceHot, 1000);
+        call(nowHot, 100);
+        BlockingQueue<Runnable> queue = createQueue(1, false);
+        queue.add(createTask(onceHot, 1));
+        queue.add(createTask(nowHot, 2));
+        // five half-lives: the count of 1000 decays to about 31, the count of 100 to about 3
+        Thread.sleep(50);
+        call(nowHot, 500);
+        OptimizedCallTarget picked = targetOf(queue.poll());
+        assertEquals(1, queue.size());
+        return picked;
+    }
+
+    @Test
+    public void testStaleTaskCancelled() throws Exception {
+        Context context = createContext("engine.TraversingQueueHotnessHalfLife", "1");
+        OptimizedCallTarget stale = createTarget(context, "stale");
+        call(stale, 10);
+        BlockingQueue<Runnable> queue = createQueue(1, false);
+        CompilationTask.ExecutorServiceWrapper staleTask = createTask(stale, 1);
+        queue.add(staleTask);
+        assertTrue(stale.isSubmittedForCompilation());
+
+        // the count of 10 decays below one after a few milliseconds
+        Thread.sleep(50);
+        OptimizedCallTarget fresh = createTarget(context, "fresh");
+        call(fresh, 10);
+        queue.add(createTask(fresh, 2));
+
+        assertSame(fresh, targetOf(queue.poll()));
+        assertTrue(queue.isEmpty());
+        assertTrue(staleTask.getCompileTask().isCancelled());
+        assertTrue(staleTask.isCancelled());
+        assertFalse(stale.isSubmittedForCompilation());
+    }
+
+    @Test
+    public void testEngineFairness() throws Exception {
+        assertEquals("a1 b1 a2 b2", pollOrder(true));
+        assertEquals("a1 a2 b1 b2", pollOrder(false));
+    }
+
+    /*
+     * Polls four tasks of two engines from a queue with two compiler threads. The tasks of engine
+     * a are hotter. Each polled task counts as running until the next but one poll.
+     */
+    private String pollOrder(boolean engineFairness) throws Exception {
+        closeContexts();
+        Context contextA = createContext();
+        Context contextB = createContext();
+        OptimizedCallTarget a1 = createTarget(contextA, "a1");
+        OptimizedCallTarget a2 = createTarget(contextA, "a2");
+        OptimizedCallTarget b1 = createTarget(contextB, "b1");
+        OptimizedCallTarget b2 = createTarget(contextB, "b2");
+        call(a1, 1000);
+        call(a2, 900);
+        call(b1, 20);
+        call(b2, 10);
+        BlockingQueue<Runnable> queue = createQueue(2, engineFairness);
+        queue.add(createTask(a1, 1));
+        queue.add(createTask(a2, 2));
+        queue.add(createTask(b1, 3));
+        queue.add(createTask(b2, 4));
+        assertNotSame(a1.engine, b1.engine);
+
+        List<OptimizedCallTarget> running = new ArrayList<>();
+        StringBuilder order = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            if (running.size() == 2) {
+                activeCompilations(running.remove(0).engine).decrementAndGet();
+            }
+            OptimizedCallTarget target = targetOf(queue.poll());
+            activeCompilations(target.engine).incrementAndGet();
+            running.add(target);
+            order.append(i == 0 ? "" : " ").append(target.getName());
+        }
+        for (OptimizedCallTarget target : running) {
+            activeCompilations(target.engine).decrementAndGet();
+        }
+        assertNull(queue.poll());
+        return order.toString();
+    }
+}
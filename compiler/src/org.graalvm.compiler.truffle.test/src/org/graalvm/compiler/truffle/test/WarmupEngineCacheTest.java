@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.runtime.WarmupEngineCacheSupport;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+public class WarmupEngineCacheTest extends TestWithPolyglotOptions {
+
+    private static final Source SOURCE = Source.newBuilder("warmup", "hot\ncold\n", "warmup.test").build();
+
+    private Path cacheFile;
+
+    @Before
+    public void setUp() throws IOException {
+        Assume.assumeTrue(GraalTruffleRuntime.getRuntime().getEngineCacheSupport() instanceof WarmupEngineCacheSupport);
+        cacheFile = Files.createTempFile("warmupcache", ".txt");
+        Files.delete(cacheFile);
+    }
+
+    @After
+    public void deleteCacheFile() throws IOException {
+        if (cacheFile != null) {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    private void setupWarmupContext(boolean useCache) {
+        if (useCache) {
+            setupContext("engine.WarmupCacheFile", cacheFile.toString(), "engine.BackgroundCompilation", "false", "engine.MultiTier", "false");
+        } else {
+            setupContext("engine.BackgroundCompilation", "false", "engine.MultiTier", "false");
+        }
+    }
+
+    private static OptimizedCallTarget createTarget(String name, int line) {
+        SourceSection section = SOURCE.createSection(line);
+        return (OptimizedCallTarget) GraalTruffleRuntime.getRuntime().createCallTarget(new RootNode(null) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return name;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public SourceSection getSourceSection() {
+                return section;
+            }
+        });
+    }
+
+    /**
+     * Compiles the target named hot in a first engine, which records it in the cache file when
+     * the engine is closed.
+     */
+    private void recordHotTarget() {
+        setupWarmupContext(true);
+        OptimizedCallTarget hot = createTarget("hot", 1);
+        hot.call();
+        hot.compile(true);
+        assertTrue(hot.isValid());
+        cleanup();
+        assertTrue(Files.exists(cacheFile));
+    }
+
+    @Test
+    public void testRestoredTargetCompiledEarly() {
+        recordHotTarget();
+
+        setupWarmupContext(true);
+        OptimizedCallTarget hot = createTarget("hot", 1);
+        OptimizedCallTarget cold = createTarget("cold", 2);
+        hot.call();
+        cold.call();
+        // the recorded target is compiled on its first call, the other one is not
+        assertTrue(hot.isValid());
+        assertFalse(cold.isValid());
+        assertEquals(1, cold.getCallCount());
+    }
+
+    @Test
+    public void testTargetsUnchangedWithoutOption() {
+        recordHotTarget();
+
+        setupWarmupContext(false);
+        OptimizedCallTarget hot = createTarget("hot", 1);
+        hot.call();
+        assertFalse(hot.isValid());
+        assertEquals(1, hot.getCallCount());
+        assertEquals(1, hot.getCallAndLoopCount());
+    }
+}
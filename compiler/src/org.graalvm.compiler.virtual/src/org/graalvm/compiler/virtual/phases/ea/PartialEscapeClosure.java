@@ -53,6 +53,7 @@ import org.graalvm.compiler.nodes.FixedNode;
 import org.graalvm.compiler.nodes.FixedWithNextNode;
 import org.graalvm.compiler.nodes.FrameState;
 import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.LogicNode;
 import org.graalvm.compiler.nodes.LoopBeginNode;
 import org.graalvm.compiler.nodes.LoopExitNode;
 import org.graalvm.compiler.nodes.NodeView;
@@ -1230,7 +1231,7 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
                              * check whether we trivially see that this is the only reference to
                              * this allocation
                              */
-                            if (virtual.hasIdentity() && !isSingleUsageAllocation(getPhiValueAt(phi, i), virtualObjs, states[i])) {
+                            if (virtual.hasIdentity() && !isSingleUsageAllocation(getPhiValueAt(phi, i), phi, getPredecessor(i), virtualObjs, states[i])) {
                                 compatible = false;
                                 break;
                             }
@@ -1282,14 +1283,14 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
             return materialized;
         }
 
-        private boolean isSingleUsageAllocation(ValueNode value, VirtualObjectNode[] virtualObjs, PartialEscapeBlockState<?> state) {
+        private boolean isSingleUsageAllocation(ValueNode value, ValuePhiNode phi, Block predecessor, VirtualObjectNode[] virtualObjs, PartialEscapeBlockState<?> state) {
             /*
              * If the phi input is an allocation, we know that it is a "fresh" value, i.e., that
              * this is a value that will only appear through this source, and cannot appear anywhere
              * else. If the phi is also the only usage of this input, we know that no other place
              * can check object identity against it, so it is safe to lose the object identity here.
              */
-            if (!(value instanceof AllocatedObjectNode && value.hasExactlyOneUsage())) {
+            if (!(value instanceof AllocatedObjectNode && value.hasExactlyOneUsage()) && !isLocalAllocation(value, phi, predecessor, state)) {
                 return false;
             }
 
@@ -1311,6 +1312,55 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
             }
             return true;
         }
+
+        /**
+         * Determines whether {@code value} is an allocation in the {@code predecessor} block of the
+         * merge whose only usage outside of that block is the phi. Allocations that are replaced
+         * in every iteration of a loop typically have this shape. Since the predecessor block ends
+         * at the merge, the allocation cannot be observed after the merge other than through the
+         * phi, so it is safe to lose its identity at the merge. Comparisons with the allocation are
+         * allowed as long as their results are only used by fixed nodes in the predecessor block.
+         * This is checked before the allocation is materialized, which avoids materializing
+         * loop-carried objects at the loop header in the first place.
+         */
+        private boolean isLocalAllocation(ValueNode value, ValuePhiNode phi, Block predecessor, PartialEscapeBlockState<?> state) {
+            if (!(value instanceof VirtualizableAllocation) || !(value instanceof FixedNode) || !GraalOptions.EscapeAnalysisMergeLocalAllocations.getValue(cfg.graph.getOptions())) {
+                return false;
+            }
+            if (cfg.blockFor(value) != predecessor) {
+                return false;
+            }
+            ValueNode alias = getAlias(value);
+            if (!(alias instanceof VirtualObjectNode) || state.contains((VirtualObjectNode) alias)) {
+                // referenced from another virtual object that may be live after the merge
+                return false;
+            }
+            for (Node usage : value.usages()) {
+                if (usage == phi) {
+                    continue;
+                }
+                if (usage instanceof LogicNode) {
+                    for (Node logicUsage : usage.usages()) {
+                        if (!(logicUsage instanceof FixedNode) || cfg.blockFor(logicUsage) != predecessor) {
+                            return false;
+                        }
+                    }
+                } else if (usage instanceof FixedNode) {
+                    if (cfg.blockFor(usage) != predecessor) {
+                        return false;
+                    }
+                } else if (usage instanceof FrameState) {
+                    for (Node stateUsage : usage.usages()) {
+                        if (!(stateUsage instanceof FixedNode) || cfg.blockFor(stateUsage) != predecessor) {
+                            return false;
+                        }
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     public ObjectState getObjectState(PartialEscapeBlockState<?> state, ValueNode value) {
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Random;
+import java.util.zip.Checksum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the {@code java.util.zip} checksums, which are intrinsified by the compiler when the
+ * target supports the required instructions. {@code CRC32C} is only available on JDK 9 and later.
+ */
+public class ChecksumBenchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class ThreadState {
+        @Param({"CRC32", "CRC32C", "Adler32"}) String algorithm;
+        @Param({"64", "4096", "65536"}) int size;
+
+        byte[] data;
+        Checksum checksum;
+
+        @Setup
+        public void setup() throws ReflectiveOperationException {
+            data = new byte[size];
+            new Random(17).nextBytes(data);
+            checksum = (Checksum) Class.forName("java.util.zip." + algorithm).getDeclaredConstructor().newInstance();
+        }
+    }
+
+    @Benchmark
+    public long update(ThreadState state) {
+        Checksum checksum = state.checksum;
+        checksum.reset();
+        checksum.update(state.data, 0, state.data.length);
+        return checksum.getValue();
+    }
+
+    @Benchmark
+    public long updateUnaligned(ThreadState state) {
+        Checksum checksum = state.checksum;
+        checksum.reset();
+        checksum.update(state.data, 3, state.data.length - 3);
+        return checksum.getValue();
+    }
+}
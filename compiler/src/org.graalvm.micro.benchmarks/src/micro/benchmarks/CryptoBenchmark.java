@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@code javax.crypto} ciphers and message digests. The AES block operations of
+ * {@code com.sun.crypto.provider.AESCrypt} are intrinsified by the compiler when the target
+ * supports AES-NI; the digests serve as a baseline.
+ */
+public class CryptoBenchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class ThreadState {
+        @Param({"128", "256"}) int keySize;
+        @Param({"1024", "16384"}) int size;
+
+        byte[] data;
+        byte[] result;
+        SecretKeySpec key;
+        Cipher ecbEncrypt;
+        Cipher ecbDecrypt;
+        Cipher cbcEncrypt;
+        Cipher cbcDecrypt;
+        Cipher gcm;
+        byte[] gcmIv = new byte[12];
+        long gcmCounter;
+        MessageDigest sha1;
+        MessageDigest sha256;
+
+        @Setup
+        public void setup() throws GeneralSecurityException {
+            Random r = new Random(17);
+            data = new byte[size];
+            r.nextBytes(data);
+            // Room for the GCM authentication tag.
+            result = new byte[size + 16];
+            byte[] keyBytes = new byte[keySize / 8];
+            r.nextBytes(keyBytes);
+            key = new SecretKeySpec(keyBytes, "AES");
+            byte[] iv = new byte[16];
+            r.nextBytes(iv);
+
+            ecbEncrypt = Cipher.getInstance("AES/ECB/NoPadding");
+            ecbEncrypt.init(Cipher.ENCRYPT_MODE, key);
+            ecbDecrypt = Cipher.getInstance("AES/ECB/NoPadding");
+            ecbDecrypt.init(Cipher.DECRYPT_MODE, key);
+            cbcEncrypt = Cipher.getInstance("AES/CBC/NoPadding");
+            cbcEncrypt.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+            cbcDecrypt = Cipher.getInstance("AES/CBC/NoPadding");
+            cbcDecrypt.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+            gcm = Cipher.getInstance("AES/GCM/NoPadding");
+            sha1 = MessageDigest.getInstance("SHA-1");
+            sha256 = MessageDigest.getInstance("SHA-256");
+        }
+    }
+
+    @Benchmark
+    public int aesEcbEncrypt(ThreadState state) throws GeneralSecurityException {
+        return state.ecbEncrypt.doFinal(state.data, 0, state.size, state.result);
+    }
+
+    @Benchmark
+    public int aesEcbDecrypt(ThreadState state) throws GeneralSecurityException {
+        return state.ecbDecrypt.doFinal(state.data, 0, state.size, state.result);
+    }
+
+    @Benchmark
+    public int aesCbcEncrypt(ThreadState state) throws GeneralSecurityException {
+        return state.cbcEncrypt.doFinal(state.data, 0, state.size, state.result);
+    }
+
+    @Benchmark
+    public int aesCbcDecrypt(ThreadState state) throws GeneralSecurityException {
+        return state.cbcDecrypt.doFinal(state.data, 0, state.size, state.result);
+    }
+
+    @Benchmark
+    public int aesGcmEncrypt(ThreadState state) throws GeneralSecurityException {
+        // GCM rejects reusing an IV for encryption, so every invocation uses a fresh one.
+        ByteBuffer.wrap(state.gcmIv).putLong(4, state.gcmCounter++);
+        state.gcm.init(Cipher.ENCRYPT_MODE, state.key, new GCMParameterSpec(128, state.gcmIv));
+        return state.gcm.doFinal(state.data, 0, state.size, state.result);
+    }
+
+    @Benchmark
+    public byte[] sha1(ThreadState state) {
+        return state.sha1.digest(state.data);
+    }
+
+    @Benchmark
+    public byte[] sha256(ThreadState state) {
+        return state.sha256.digest(state.data);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks code whose temporary objects can only be removed by escape analysis if small arrays
+ * accessed with non-constant indices and objects re-allocated in every loop iteration are
+ * virtualized. Run with {@code -prof gc} to compare the allocation rates, e.g., with
+ * {@code -Dgraal.MaximumEscapeAnalysisVariableIndexArrayLength=0
+ * -Dgraal.EscapeAnalysisMergeLocalAllocations=false} and without.
+ */
+public class EscapeAnalysisBenchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class ThreadState {
+        int a = 3;
+        int b = 5;
+        int c = 7;
+        int index = 2;
+        int iterations = 16;
+    }
+
+    private static int sum(int... values) {
+        int result = 0;
+        for (int i = 0; i < values.length; i++) {
+            result += values[i];
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int varargs(ThreadState state) {
+        return sum(state.a, state.b, state.c);
+    }
+
+    @Benchmark
+    public int variableIndexBuffer(ThreadState state) {
+        int[] buffer = new int[4];
+        buffer[state.index] = state.a;
+        buffer[(state.index + 1) & 3] = state.b;
+        return buffer[0] + buffer[1] + buffer[2] + buffer[3];
+    }
+
+    @Benchmark
+    public int iterator(ThreadState state) {
+        List<Integer> list = Arrays.asList(state.a, state.b, state.c);
+        int result = 0;
+        for (Integer value : list) {
+            result += value;
+        }
+        return result;
+    }
+
+    static final class Point {
+        final int x;
+        final int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        Point translate(int dx, int dy) {
+            return new Point(x + dx, y + dy);
+        }
+    }
+
+    @Benchmark
+    public int loopCarried(ThreadState state) {
+        Point p = new Point(state.a, state.b);
+        for (int i = 0; i < state.iterations; i++) {
+            p = p.translate(i, state.c);
+        }
+        return p.x + p.y;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks long running counted loops, which are candidates for loop strip mining. The
+ * {@code sum} benchmark measures the throughput of a loop without safepoint polls; the
+ * {@code timeToSafepoint} group measures how long a safepoint operation takes while other threads
+ * execute such loops. Compare runs with {@code -Dgraal.StripMineCountedLoops=true} and without.
+ */
+public class LoopStripMiningBenchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class ThreadState {
+        @Param({"1000000", "16000000"}) int size;
+
+        int[] data;
+
+        @Setup
+        public void setup() {
+            Random r = new Random(17);
+            data = new int[size];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = r.nextInt();
+            }
+        }
+    }
+
+    private static int sum(int[] data, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += data[i] ^ i;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int sum(ThreadState state) {
+        return sum(state.data, state.size);
+    }
+
+    @Benchmark
+    @Group("timeToSafepoint")
+    @GroupThreads(3)
+    public int loop(ThreadState state) {
+        return sum(state.data, state.size);
+    }
+
+    /**
+     * Collecting the stack traces of all threads requires a global safepoint, so the time of this
+     * benchmark is dominated by the time it takes the looping threads to reach one.
+     */
+    @Benchmark
+    @Group("timeToSafepoint")
+    @GroupThreads(1)
+    public int safepoint() {
+        return Thread.getAllStackTraces().size();
+    }
+}
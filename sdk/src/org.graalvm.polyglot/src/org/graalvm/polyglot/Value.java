@@ -438,6 +438,40 @@ public final class Value {
         dispatch.writeBufferByte(receiver, byteOffset, value);
     }
 
+    /**
+     * Reads {@code length} bytes starting at the given byte offset from the start of the buffer
+     * into the destination array, starting at the given destination offset. Buffers backed by
+     * contiguous memory, like host {@link java.nio.ByteBuffer ByteBuffers}, copy the bytes in bulk.
+     * <p>
+     * The access is <em>not</em> guaranteed to be atomic. Therefore, this method is <em>not</em>
+     * thread-safe.
+     * <p>
+     * Invoking this method does not cause any observable side-effects.
+     *
+     * @param byteOffset the offset, in bytes, from the start of the buffer at which the first byte
+     *            will be read.
+     * @param destination the array the bytes will be copied into.
+     * @param destinationOffset the index in {@code destination} at which the first byte will be
+     *            stored.
+     * @param length the number of bytes to read.
+     * @throws IndexOutOfBoundsException if
+     *             <code>byteOffset < 0 || length < 0 || byteOffset + length > </code>{@link #getBufferSize()}
+     *             or if {@code destinationOffset} and {@code length} do not denote a valid range
+     *             of {@code destination}.
+     * @throws UnsupportedOperationException if the value does not have {@link #hasBufferElements
+     *             buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 21.2
+     */
+    public void readBuffer(long byteOffset, byte[] destination, int destinationOffset, int length) throws UnsupportedOperationException, IndexOutOfBoundsException {
+        Objects.requireNonNull(destination);
+        if (destinationOffset < 0 || length < 0 || destinationOffset > destination.length - length) {
+            throw new IndexOutOfBoundsException("Invalid destination range: offset " + destinationOffset + ", length " + length + ", array length " + destination.length + ".");
+        }
+        dispatch.readBuffer(receiver, byteOffset, destination, destinationOffset, length);
+    }
+
     /**
      * Reads the short at the given byte offset from the start of the buffer in the given byte
      * order.
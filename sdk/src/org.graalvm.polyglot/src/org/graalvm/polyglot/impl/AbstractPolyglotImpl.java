@@ -638,6 +638,8 @@ public abstract class AbstractPolyglotImpl {
 
         public abstract void writeBufferByte(Object receiver, long byteOffset, byte value);
 
+        public abstract void readBuffer(Object receiver, long byteOffset, byte[] destination, int destinationOffset, int length);
+
         public abstract short readBufferShort(Object receiver, ByteOrder order, long byteOffset);
 
         public abstract void writeBufferShort(Object receiver, ByteOrder order, long byteOffset, short value);
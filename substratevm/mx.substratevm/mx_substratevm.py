@@ -327,7 +327,7 @@ def native_image_context(common_args=None, hosted_assertions=True, native_image_
             mx.log(timestr() + 'Shutting down completed')
 
 native_image_context.hosted_assertions = ['-J-ea', '-J-esa']
-_native_unittest_features = '--features=com.oracle.svm.test.ImageInfoTest$TestFeature,com.oracle.svm.test.ServiceLoaderTest$TestFeature,com.oracle.svm.test.SecurityServiceTest$TestFeature'
+_native_unittest_features = '--features=com.oracle.svm.test.ImageInfoTest$TestFeature,com.oracle.svm.test.ServiceLoaderTest$TestFeature,com.oracle.svm.test.SecurityServiceTest$TestFeature,com.oracle.svm.test.ResourcesTest$TestFeature,com.oracle.svm.test.CryptoIntrinsicsTest$TestFeature'
 
 IMAGE_ASSERTION_FLAGS = ['-H:+VerifyGraalGraphs', '-H:+VerifyPhases']
 
@@ -442,6 +442,9 @@ def native_unittests_task():
         mx_unittest.add_global_ignore_glob('com.oracle.svm.test.ProcessPropertiesTest')
 
     native_unittest(['--build-args', '-H:+AllowVMInspection', _native_unittest_features])
+    if mx.get_arch() == 'amd64':
+        # The AES and CRC32C intrinsics are only used if their CPU features are part of the image baseline.
+        native_unittest(['com.oracle.svm.test.CryptoIntrinsicsTest', '--build-args', '-H:CPUFeatures=SSE4_2,AES,SSSE3', '--features=com.oracle.svm.test.CryptoIntrinsicsTest$TestFeature'])
 
 
 def javac_image_command(javac_path):
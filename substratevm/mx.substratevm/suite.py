@@ -659,6 +659,20 @@ suite = {
             "testProject": True,
         },
 
+        "com.oracle.svm.hosted.test.jdk16": {
+            "subDir": "src",
+            "sourceDirs": ["src"],
+            "dependencies": [
+                "mx:JUNIT_TOOL",
+                "com.oracle.svm.hosted",
+            ],
+            "checkstyle": "com.oracle.svm.core",
+            "workingSets": "SVM",
+            "javaCompliance": "16+",
+            "spotbugs": "false",
+            "testProject": True,
+        },
+
         "com.oracle.svm.configure.test": {
             "subDir": "src",
             "sourceDirs": ["src"],
@@ -1360,6 +1374,7 @@ suite = {
           "dependencies" : [
             "com.oracle.svm.test",
             "com.oracle.svm.test.jdk11",
+            "com.oracle.svm.hosted.test.jdk16",
             "com.oracle.svm.configure.test",
             "com.oracle.svm.graal.test",
           ],
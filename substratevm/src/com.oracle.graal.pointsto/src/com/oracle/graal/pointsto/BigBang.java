@@ -65,6 +65,7 @@ import com.oracle.graal.pointsto.flow.MethodTypeFlowBuilder;
 import com.oracle.graal.pointsto.flow.OffsetLoadTypeFlow.AbstractUnsafeLoadTypeFlow;
 import com.oracle.graal.pointsto.flow.OffsetStoreTypeFlow.AbstractUnsafeStoreTypeFlow;
 import com.oracle.graal.pointsto.flow.TypeFlow;
+import com.oracle.graal.pointsto.flow.TypeFlowProfiler;
 import com.oracle.graal.pointsto.flow.UnknownTypeFlow;
 import com.oracle.graal.pointsto.flow.context.AnalysisContext;
 import com.oracle.graal.pointsto.flow.context.AnalysisContextPolicy;
@@ -110,6 +111,7 @@ public abstract class BigBang {
 
     protected final boolean trackTypeFlowInputs;
     protected final boolean reportAnalysisStatistics;
+    private final TypeFlowProfiler typeFlowProfiler;
 
     /**
      * Processing queue.
@@ -163,6 +165,7 @@ public abstract class BigBang {
         if (reportAnalysisStatistics) {
             PointsToStats.init(this);
         }
+        typeFlowProfiler = PointstoOptions.ProfileTypeFlows.getValue(options) ? new TypeFlowProfiler() : null;
 
         unsafeLoads = new ConcurrentHashMap<>();
         unsafeStores = new ConcurrentHashMap<>();
@@ -197,6 +200,11 @@ public abstract class BigBang {
         return reportAnalysisStatistics;
     }
 
+    /** Returns the type flow profiler, or {@code null} if type flow profiling is disabled. */
+    public TypeFlowProfiler getTypeFlowProfiler() {
+        return typeFlowProfiler;
+    }
+
     public OptionValues getOptions() {
         return options;
     }
@@ -551,7 +559,11 @@ public abstract class BigBang {
                 PointsToStats.registerTypeFlowQueuedUpdate(BigBang.this, operation);
 
                 operation.inQueue = false;
-                operation.update(BigBang.this);
+                if (typeFlowProfiler != null) {
+                    typeFlowProfiler.profileUpdate(BigBang.this, operation);
+                } else {
+                    operation.update(BigBang.this);
+                }
             }
 
             @Override
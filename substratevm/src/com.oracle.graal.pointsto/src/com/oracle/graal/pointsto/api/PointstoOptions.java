@@ -119,6 +119,12 @@ public class PointstoOptions {
     @Option(help = "Report analysis statistics.")//
     public static final OptionKey<Boolean> PrintPointsToStatistics = new OptionKey<>(false);
 
+    @Option(help = "Collect per type flow and per method counters (updates, propagated type state size, time spent in TypeFlow.update) during the analysis and print the hotspots.")//
+    public static final OptionKey<Boolean> ProfileTypeFlows = new OptionKey<>(false);
+
+    @Option(help = "Number of type flows and methods listed in the type flow hotspots report.")//
+    public static final OptionKey<Integer> ProfileTypeFlowsReportSize = new OptionKey<>(50);
+
     @Option(help = "Path to the contents of the Inspect web server.")//
     public static final OptionKey<String> InspectServerContentPath = new OptionKey<>("inspect");
 
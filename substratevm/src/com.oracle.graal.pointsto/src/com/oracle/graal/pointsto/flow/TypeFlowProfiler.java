@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.pointsto.flow;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import com.oracle.graal.pointsto.BigBang;
+import com.oracle.graal.pointsto.meta.AnalysisMethod;
+
+/**
+ * Collects per type flow counters while the analysis is running: the number of times the flow
+ * propagated its state to its uses, the accumulated size of the propagated type states, and the
+ * time spent in {@link TypeFlow#update}. The counters are aggregated per {@link AnalysisMethod} when
+ * the report is generated, so the bookkeeping during the analysis is limited to a map lookup and a
+ * few {@link LongAdder} increments per update.
+ */
+public final class TypeFlowProfiler {
+
+    public static final class FlowCounters {
+        private final TypeFlow<?> flow;
+        private final LongAdder updates = new LongAdder();
+        private final LongAdder propagatedTypes = new LongAdder();
+        private final LongAdder updateNanos = new LongAdder();
+
+        FlowCounters(TypeFlow<?> flow) {
+            this.flow = flow;
+        }
+
+        public TypeFlow<?> getFlow() {
+            return flow;
+        }
+
+        public long getUpdates() {
+            return updates.sum();
+        }
+
+        /** The sum of the type counts of all states pushed to the uses of the flow. */
+        public long getPropagatedTypes() {
+            return propagatedTypes.sum();
+        }
+
+        public long getUpdateNanos() {
+            return updateNanos.sum();
+        }
+    }
+
+    public static final class MethodCounters {
+        private final AnalysisMethod method;
+        private long flows;
+        private long saturatedFlows;
+        private long updates;
+        private long propagatedTypes;
+        private long updateNanos;
+
+        MethodCounters(AnalysisMethod method) {
+            this.method = method;
+        }
+
+        void add(FlowCounters counters) {
+            flows++;
+            if (counters.flow.isSaturated()) {
+                saturatedFlows++;
+            }
+            updates += counters.getUpdates();
+            propagatedTypes += counters.getPropagatedTypes();
+            updateNanos += counters.getUpdateNanos();
+        }
+
+        /** The method the flows belong to, or {@code null} for flows that are not method local. */
+        public AnalysisMethod getMethod() {
+            return method;
+        }
+
+        public long getFlows() {
+            return flows;
+        }
+
+        public long getSaturatedFlows() {
+            return saturatedFlows;
+        }
+
+        public long getUpdates() {
+            return updates;
+        }
+
+        public long getPropagatedTypes() {
+            return propagatedTypes;
+        }
+
+        public long getUpdateNanos() {
+            return updateNanos;
+        }
+    }
+
+    private static final Comparator<FlowCounters> FLOW_TIME_COMPARATOR = Comparator.comparingLong(FlowCounters::getUpdateNanos).reversed();
+    private static final Comparator<MethodCounters> METHOD_TIME_COMPARATOR = Comparator.comparingLong(MethodCounters::getUpdateNanos).reversed();
+
+    private final ConcurrentHashMap<TypeFlow<?>, FlowCounters> flowCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@link TypeFlow#update} for {@code flow} and records the update in the flow's counters.
+     */
+    public void profileUpdate(BigBang bb, TypeFlow<?> flow) {
+        int propagatedTypes = flow.getState().typesCount() * flow.getUses().size();
+        long start = System.nanoTime();
+        flow.update(bb);
+        long nanos = System.nanoTime() - start;
+
+        FlowCounters counters = flowCounters.get(flow);
+        if (counters == null) {
+            counters = flowCounters.computeIfAbsent(flow, FlowCounters::new);
+        }
+        counters.updates.increment();
+        counters.propagatedTypes.add(propagatedTypes);
+        counters.updateNanos.add(nanos);
+    }
+
+    public Collection<FlowCounters> getFlowCounters() {
+        return flowCounters.values();
+    }
+
+    public long getTotalUpdates() {
+        return flowCounters.values().stream().mapToLong(FlowCounters::getUpdates).sum();
+    }
+
+    public long getTotalUpdateNanos() {
+        return flowCounters.values().stream().mapToLong(FlowCounters::getUpdateNanos).sum();
+    }
+
+    /** Returns the {@code limit} flows that spent the most time in {@link TypeFlow#update}. */
+    public List<FlowCounters> getTopFlows(int limit) {
+        return flowCounters.values().stream().sorted(FLOW_TIME_COMPARATOR).limit(limit).collect(Collectors.toList());
+    }
+
+    /** Returns the {@code limit} methods whose flows spent the most time in updates. */
+    public List<MethodCounters> getTopMethods(int limit) {
+        Map<AnalysisMethod, MethodCounters> methods = new HashMap<>();
+        MethodCounters nonMethodFlows = new MethodCounters(null);
+        for (FlowCounters counters : flowCounters.values()) {
+            AnalysisMethod method = counters.flow.method();
+            if (method == null) {
+                nonMethodFlows.add(counters);
+            } else {
+                methods.computeIfAbsent(method, MethodCounters::new).add(counters);
+            }
+        }
+        List<MethodCounters> result = new ArrayList<>(methods.values());
+        if (nonMethodFlows.flows > 0) {
+            result.add(nonMethodFlows);
+        }
+        result.sort(METHOD_TIME_COMPARATOR);
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+}
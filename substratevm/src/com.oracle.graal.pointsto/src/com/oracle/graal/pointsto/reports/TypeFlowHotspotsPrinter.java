@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.pointsto.reports;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.graal.pointsto.BigBang;
+import com.oracle.graal.pointsto.api.PointstoOptions;
+import com.oracle.graal.pointsto.flow.TypeFlow;
+import com.oracle.graal.pointsto.flow.TypeFlowProfiler;
+import com.oracle.graal.pointsto.flow.TypeFlowProfiler.FlowCounters;
+import com.oracle.graal.pointsto.flow.TypeFlowProfiler.MethodCounters;
+import com.oracle.graal.pointsto.meta.AnalysisMethod;
+
+/**
+ * Prints the type flows and methods that dominate the running time of the analysis, as recorded by
+ * the {@link TypeFlowProfiler}. Flows that are updated often with large type states but are not
+ * saturated are good candidates for a lower {@link PointstoOptions#TypeFlowSaturationCutoff} or
+ * for excluding the code that creates them.
+ */
+public final class TypeFlowHotspotsPrinter {
+
+    public static void print(BigBang bigbang, String path, String reportName) {
+        TypeFlowProfiler profiler = bigbang.getTypeFlowProfiler();
+        if (profiler == null) {
+            return;
+        }
+        int limit = PointstoOptions.ProfileTypeFlowsReportSize.getValue(bigbang.getOptions());
+        ReportUtils.report("type flow hotspots", path + File.separatorChar + "reports", "typeflow_hotspots_" + reportName, "txt",
+                        writer -> printHotspots(writer, profiler, limit));
+    }
+
+    private static void printHotspots(PrintWriter out, TypeFlowProfiler profiler, int limit) {
+        long totalNanos = profiler.getTotalUpdateNanos();
+        out.format("Total type flow updates: %d%n", profiler.getTotalUpdates());
+        out.format("Total time in type flow updates: %d ms%n", TimeUnit.NANOSECONDS.toMillis(totalNanos));
+        out.println();
+
+        List<MethodCounters> methods = profiler.getTopMethods(limit);
+        out.format("Top %d methods by time spent in type flow updates%n", methods.size());
+        out.format("%8s %6s %12s %15s %10s %10s  %s%n", "Time(ms)", "%", "Updates", "PropagatedTypes", "Flows", "Saturated", "Method");
+        for (MethodCounters counters : methods) {
+            AnalysisMethod method = counters.getMethod();
+            out.format("%8d %6.2f %12d %15d %10d %10d  %s%n",
+                            TimeUnit.NANOSECONDS.toMillis(counters.getUpdateNanos()), percent(counters.getUpdateNanos(), totalNanos),
+                            counters.getUpdates(), counters.getPropagatedTypes(), counters.getFlows(), counters.getSaturatedFlows(),
+                            method == null ? "<global flows>" : method.format("%H.%n(%p)"));
+        }
+        out.println();
+
+        List<FlowCounters> flows = profiler.getTopFlows(limit);
+        out.format("Top %d type flows by time spent in updates%n", flows.size());
+        out.format("%8s %6s %12s %15s %6s %9s  %s%n", "Time(ms)", "%", "Updates", "PropagatedTypes", "Types", "Saturated", "Flow");
+        for (FlowCounters counters : flows) {
+            TypeFlow<?> flow = counters.getFlow();
+            out.format("%8d %6.2f %12d %15d %6d %9s  %s%n",
+                            TimeUnit.NANOSECONDS.toMillis(counters.getUpdateNanos()), percent(counters.getUpdateNanos(), totalNanos),
+                            counters.getUpdates(), counters.getPropagatedTypes(), flow.getState().typesCount(), flow.isSaturated() ? "yes" : "no",
+                            formatFlow(flow));
+        }
+    }
+
+    public static String formatFlow(TypeFlow<?> flow) {
+        AnalysisMethod method = flow.method();
+        String location = method == null ? "" : " in " + method.format("%H.%n(%p)");
+        return flow.getClass().getSimpleName() + "<" + flow.getSource() + ">" + location;
+    }
+
+    private static double percent(long value, long total) {
+        return total == 0 ? 0 : 100.0 * value / total;
+    }
+}
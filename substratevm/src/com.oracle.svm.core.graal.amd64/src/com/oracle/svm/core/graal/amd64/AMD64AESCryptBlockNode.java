@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.graal.amd64;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_64;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_128;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.AbstractMemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.SingleMemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Intrinsic for {@code com.sun.crypto.provider.AESCrypt.implEncryptBlock} and
+ * {@code com.sun.crypto.provider.AESCrypt.implDecryptBlock}. The callers of these methods already
+ * perform the bounds checks on the input and output blocks.
+ */
+@NodeInfo(allowedUsageTypes = Memory, size = SIZE_128, cycles = CYCLES_64)
+public final class AMD64AESCryptBlockNode extends AbstractMemoryCheckpoint implements LIRLowerable, SingleMemoryKill {
+
+    public static final NodeClass<AMD64AESCryptBlockNode> TYPE = NodeClass.create(AMD64AESCryptBlockNode.class);
+
+    @Input private ValueNode in;
+    @Input private ValueNode inOffset;
+    @Input private ValueNode out;
+    @Input private ValueNode outOffset;
+    @Input private ValueNode key;
+    @Input private ValueNode keyLength;
+
+    private final boolean encrypt;
+    private final int byteArrayBaseOffset;
+    private final int intArrayBaseOffset;
+
+    public AMD64AESCryptBlockNode(boolean encrypt, ValueNode in, ValueNode inOffset, ValueNode out, ValueNode outOffset, ValueNode key, ValueNode keyLength, int byteArrayBaseOffset,
+                    int intArrayBaseOffset) {
+        super(TYPE, StampFactory.forVoid());
+        this.encrypt = encrypt;
+        this.in = in;
+        this.inOffset = inOffset;
+        this.out = out;
+        this.outOffset = outOffset;
+        this.key = key;
+        this.keyLength = keyLength;
+        this.byteArrayBaseOffset = byteArrayBaseOffset;
+        this.intArrayBaseOffset = intArrayBaseOffset;
+    }
+
+    @Override
+    public LocationIdentity getKilledLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(JavaKind.Byte);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        LIRGeneratorTool tool = gen.getLIRGeneratorTool();
+        tool.append(new AMD64AESCryptBlockOp(tool, encrypt, byteArrayBaseOffset, intArrayBaseOffset, tool.asAllocatable(gen.operand(in)), tool.asAllocatable(gen.operand(inOffset)),
+                        tool.asAllocatable(gen.operand(out)), tool.asAllocatable(gen.operand(outOffset)), tool.asAllocatable(gen.operand(key)), tool.asAllocatable(gen.operand(keyLength))));
+    }
+}
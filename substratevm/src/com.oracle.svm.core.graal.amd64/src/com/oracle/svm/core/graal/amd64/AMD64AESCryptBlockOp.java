@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.graal.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.amd64.AMD64LIRInstruction;
+import org.graalvm.compiler.lir.asm.ArrayDataPointerConstant;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.AllocatableValue;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Encrypts or decrypts a single 16 byte block with the AES-NI instructions, using the expanded key
+ * of {@code com.sun.crypto.provider.AESCrypt}. The round count is derived from the length of the
+ * expanded key (44, 52 or 60 ints for 128, 192 or 256 bit keys).
+ *
+ * The expanded key is stored as an {@code int[]}, so every round key is byte swapped per int with
+ * {@code pshufb} after loading it. The decryption key schedule stores the final round key first,
+ * which is why decryption starts at round key 1 and finishes with round key 0.
+ */
+@Opcode("AMD64_AES_CRYPT_BLOCK")
+public final class AMD64AESCryptBlockOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64AESCryptBlockOp> TYPE = LIRInstructionClass.create(AMD64AESCryptBlockOp.class);
+
+    private static final int ROUND_KEY_SIZE = 16;
+
+    private final boolean encrypt;
+    private final int byteArrayBaseOffset;
+    private final int intArrayBaseOffset;
+
+    @Alive({REG}) private Value inValue;
+    @Alive({REG}) private Value inOffsetValue;
+    @Alive({REG}) private Value outValue;
+    @Alive({REG}) private Value outOffsetValue;
+    @Alive({REG}) private Value keyValue;
+    @Alive({REG}) private Value keyLengthValue;
+
+    @Temp({REG}) private Value indexTemp;
+    @Temp({REG}) private Value stateTemp;
+    @Temp({REG}) private Value roundKeyTemp;
+    @Temp({REG}) private Value shuffleMaskTemp;
+
+    private final ArrayDataPointerConstant keyShuffleMask = new ArrayDataPointerConstant(new int[]{0x00010203, 0x04050607, 0x08090a0b, 0x0c0d0e0f}, 16);
+
+    public AMD64AESCryptBlockOp(LIRGeneratorTool tool, boolean encrypt, int byteArrayBaseOffset, int intArrayBaseOffset, AllocatableValue in, AllocatableValue inOffset, AllocatableValue out,
+                    AllocatableValue outOffset, AllocatableValue key, AllocatableValue keyLength) {
+        super(TYPE);
+        this.encrypt = encrypt;
+        this.byteArrayBaseOffset = byteArrayBaseOffset;
+        this.intArrayBaseOffset = intArrayBaseOffset;
+        this.inValue = in;
+        this.inOffsetValue = inOffset;
+        this.outValue = out;
+        this.outOffsetValue = outOffset;
+        this.keyValue = key;
+        this.keyLengthValue = keyLength;
+        this.indexTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.stateTemp = tool.newVariable(LIRKind.value(AMD64Kind.V128_BYTE));
+        this.roundKeyTemp = tool.newVariable(LIRKind.value(AMD64Kind.V128_BYTE));
+        this.shuffleMaskTemp = tool.newVariable(LIRKind.value(AMD64Kind.V128_BYTE));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        assert masm.supports(AMD64.CPUFeature.AES) && masm.supports(AMD64.CPUFeature.SSSE3);
+        Register index = asRegister(indexTemp);
+        Register state = asRegister(stateTemp);
+        Register roundKey = asRegister(roundKeyTemp);
+        Register mask = asRegister(shuffleMaskTemp);
+        Register keyLength = asRegister(keyLengthValue);
+
+        masm.movdqu(mask, (AMD64Address) crb.recordDataReferenceInCode(keyShuffleMask));
+        masm.movslq(index, asRegister(inOffsetValue));
+        masm.movdqu(state, new AMD64Address(asRegister(inValue), index, AMD64Address.Scale.Times1, byteArrayBaseOffset));
+
+        Label lastRound = new Label();
+        int first = encrypt ? 0 : 1;
+        loadRoundKey(masm, roundKey, mask, first);
+        masm.pxor(state, roundKey);
+        for (int round = first + 1; round <= first + 9; round++) {
+            emitRound(masm, state, roundKey, mask, round);
+        }
+        masm.cmpl(keyLength, 44);
+        masm.jcc(ConditionFlag.Equal, lastRound);
+        emitRound(masm, state, roundKey, mask, first + 10);
+        emitRound(masm, state, roundKey, mask, first + 11);
+        masm.cmpl(keyLength, 52);
+        masm.jcc(ConditionFlag.Equal, lastRound);
+        emitRound(masm, state, roundKey, mask, first + 12);
+        emitRound(masm, state, roundKey, mask, first + 13);
+
+        masm.bind(lastRound);
+        if (encrypt) {
+            // The last round key is at the end of the expanded key.
+            masm.movslq(index, keyLength);
+            masm.movdqu(roundKey, new AMD64Address(asRegister(keyValue), index, AMD64Address.Scale.Times4, intArrayBaseOffset - ROUND_KEY_SIZE));
+            masm.pshufb(roundKey, mask);
+            masm.aesenclast(state, roundKey);
+        } else {
+            loadRoundKey(masm, roundKey, mask, 0);
+            masm.aesdeclast(state, roundKey);
+        }
+
+        masm.movslq(index, asRegister(outOffsetValue));
+        masm.movdqu(new AMD64Address(asRegister(outValue), index, AMD64Address.Scale.Times1, byteArrayBaseOffset), state);
+    }
+
+    private void emitRound(AMD64MacroAssembler masm, Register state, Register roundKey, Register mask, int round) {
+        loadRoundKey(masm, roundKey, mask, round);
+        if (encrypt) {
+            masm.aesenc(state, roundKey);
+        } else {
+            masm.aesdec(state, roundKey);
+        }
+    }
+
+    private void loadRoundKey(AMD64MacroAssembler masm, Register roundKey, Register mask, int round) {
+        masm.movdqu(roundKey, new AMD64Address(asRegister(keyValue), intArrayBaseOffset + round * ROUND_KEY_SIZE));
+        masm.pshufb(roundKey, mask);
+    }
+}
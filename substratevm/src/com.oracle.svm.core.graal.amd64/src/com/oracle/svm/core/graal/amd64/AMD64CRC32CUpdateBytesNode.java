@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.graal.amd64;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_64;
+
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.lir.Variable;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValueNodeUtil;
+import org.graalvm.compiler.nodes.memory.MemoryAccess;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Intrinsic for {@code java.util.zip.CRC32C.updateBytes} and
+ * {@code java.util.zip.CRC32C.updateDirectByteBuffer}. For the {@code byte[]} form, {@code buf} is
+ * the array and {@code baseOffset} the array base offset; for the direct buffer form, {@code buf}
+ * is the raw address and {@code baseOffset} is 0.
+ */
+@NodeInfo(allowedUsageTypes = Memory, size = SIZE_64, cycles = CYCLES_UNKNOWN, cyclesRationale = "depends on length")
+public final class AMD64CRC32CUpdateBytesNode extends FixedWithNextNode implements LIRLowerable, MemoryAccess {
+
+    public static final NodeClass<AMD64CRC32CUpdateBytesNode> TYPE = NodeClass.create(AMD64CRC32CUpdateBytesNode.class);
+
+    @Input private ValueNode crc;
+    @Input private ValueNode buf;
+    @Input private ValueNode off;
+    @Input private ValueNode end;
+
+    private final int baseOffset;
+
+    @OptionalInput(Memory) private MemoryKill lastLocationAccess;
+
+    public AMD64CRC32CUpdateBytesNode(ValueNode crc, ValueNode buf, ValueNode off, ValueNode end, int baseOffset) {
+        super(TYPE, StampFactory.forKind(JavaKind.Int));
+        this.crc = crc;
+        this.buf = buf;
+        this.off = off;
+        this.end = end;
+        this.baseOffset = baseOffset;
+    }
+
+    private boolean isArrayAccess() {
+        return buf.getStackKind() == JavaKind.Object;
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return isArrayAccess() ? NamedLocationIdentity.getArrayLocation(JavaKind.Byte) : LocationIdentity.any();
+    }
+
+    @Override
+    public MemoryKill getLastLocationAccess() {
+        return lastLocationAccess;
+    }
+
+    @Override
+    public void setLastLocationAccess(MemoryKill lla) {
+        updateUsages(ValueNodeUtil.asNode(lastLocationAccess), ValueNodeUtil.asNode(lla));
+        lastLocationAccess = lla;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        LIRGeneratorTool tool = gen.getLIRGeneratorTool();
+        Variable result = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
+        tool.append(new AMD64CRC32CUpdateBytesOp(tool, baseOffset, result, tool.asAllocatable(gen.operand(crc)), tool.asAllocatable(gen.operand(buf)), tool.asAllocatable(gen.operand(off)),
+                        tool.asAllocatable(gen.operand(end))));
+        gen.setResult(this, result);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.graal.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.amd64.AMD64LIRInstruction;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.AllocatableValue;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Updates a CRC32C checksum with the bytes in {@code [off, end)} of a buffer using the SSE4.2
+ * {@code crc32} instruction. The buffer is either a {@code byte[]} (with {@link #baseOffset} set
+ * to the array base offset) or a raw address (with {@link #baseOffset} set to 0).
+ *
+ * All inputs are {@link Alive} because they are read after the temporaries have been written.
+ * The checksum is accumulated in a temporary and only moved to {@link #result} at the very end,
+ * since the result register may be shared with one of the temporaries.
+ */
+@Opcode("AMD64_CRC32C_UPDATE_BYTES")
+public final class AMD64CRC32CUpdateBytesOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64CRC32CUpdateBytesOp> TYPE = LIRInstructionClass.create(AMD64CRC32CUpdateBytesOp.class);
+
+    private final int baseOffset;
+
+    @Def({REG}) private Value result;
+
+    @Alive({REG}) private Value crcValue;
+    @Alive({REG}) private Value bufValue;
+    @Alive({REG}) private Value offValue;
+    @Alive({REG}) private Value endValue;
+
+    @Temp({REG}) private Value crcTemp;
+    @Temp({REG}) private Value ptrTemp;
+    @Temp({REG}) private Value lenTemp;
+
+    public AMD64CRC32CUpdateBytesOp(LIRGeneratorTool tool, int baseOffset, AllocatableValue result, AllocatableValue crc, AllocatableValue buf, AllocatableValue off, AllocatableValue end) {
+        super(TYPE);
+        this.baseOffset = baseOffset;
+        this.result = result;
+        this.crcValue = crc;
+        this.bufValue = buf;
+        this.offValue = off;
+        this.endValue = end;
+        this.crcTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.ptrTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.lenTemp = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        assert masm.supports(AMD64.CPUFeature.SSE4_2);
+        Register crc = asRegister(crcTemp);
+        Register ptr = asRegister(ptrTemp);
+        Register len = asRegister(lenTemp);
+
+        Label tail = new Label();
+        Label loop8 = new Label();
+        Label loop1 = new Label();
+        Label done = new Label();
+
+        masm.movl(crc, asRegister(crcValue));
+        masm.movl(len, asRegister(endValue));
+        masm.subl(len, asRegister(offValue));
+        masm.movslq(ptr, asRegister(offValue));
+        masm.addq(ptr, asRegister(bufValue));
+
+        masm.cmpl(len, 8);
+        masm.jcc(ConditionFlag.Less, tail);
+
+        masm.bind(loop8);
+        masm.crc32q(crc, new AMD64Address(ptr, baseOffset));
+        masm.addq(ptr, 8);
+        masm.subl(len, 8);
+        masm.cmpl(len, 8);
+        masm.jcc(ConditionFlag.GreaterEqual, loop8);
+
+        masm.bind(tail);
+        masm.testl(len, len);
+        masm.jcc(ConditionFlag.LessEqual, done);
+
+        masm.bind(loop1);
+        masm.crc32b(crc, new AMD64Address(ptr, baseOffset));
+        masm.addq(ptr, 1);
+        masm.subl(len, 1);
+        masm.jcc(ConditionFlag.NotZero, loop1);
+
+        masm.bind(done);
+        masm.movl(asRegister(result), crc);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.graal.amd64;
+
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderContext;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin.Receiver;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins.Registration;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.LoadFieldNode;
+import org.graalvm.compiler.nodes.spi.Replacements;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.replacements.amd64.AMD64GraphBuilderPlugins;
+import org.graalvm.compiler.serviceprovider.JavaVersionUtil;
+
+import com.oracle.svm.core.config.ConfigurationValues;
+import com.oracle.svm.core.util.VMError;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+
+/**
+ * Adds the checksum and cryptography intrinsics that HotSpot implements as stubs. The intrinsics
+ * are only registered when the target architecture of the image has the required CPU features,
+ * i.e., when they are part of the baseline selected with {@code -H:CPUFeatures} or
+ * {@code -H:+NativeArchitecture}. These features are verified at image startup by
+ * {@link com.oracle.svm.core.CPUFeatureAccess}, so the generated code does not need a dynamic
+ * fallback.
+ */
+final class SubstrateAMD64GraphBuilderPlugins extends AMD64GraphBuilderPlugins {
+
+    @Override
+    public void register(Plugins plugins, Replacements replacements, Architecture architecture, boolean registerForeignCallMath, boolean useFMAIntrinsics, OptionValues options) {
+        super.register(plugins, replacements, architecture, registerForeignCallMath, useFMAIntrinsics, options);
+        AMD64 arch = (AMD64) architecture;
+        InvocationPlugins invocationPlugins = plugins.getInvocationPlugins();
+        invocationPlugins.defer(new Runnable() {
+            @Override
+            public void run() {
+                if (JavaVersionUtil.JAVA_SPEC > 8 && arch.getFeatures().contains(AMD64.CPUFeature.SSE4_2)) {
+                    registerCRC32CPlugins(invocationPlugins, replacements);
+                }
+                if (JavaVersionUtil.JAVA_SPEC > 8 && arch.getFeatures().contains(AMD64.CPUFeature.AES) && arch.getFeatures().contains(AMD64.CPUFeature.SSSE3)) {
+                    registerAESPlugins(invocationPlugins, replacements);
+                }
+            }
+        });
+    }
+
+    private static void registerCRC32CPlugins(InvocationPlugins plugins, Replacements replacements) {
+        Registration r = new Registration(plugins, "java.util.zip.CRC32C", replacements);
+        r.register4("updateBytes", int.class, byte[].class, int.class, int.class, new InvocationPlugin() {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode crc, ValueNode buf, ValueNode off, ValueNode end) {
+                int baseOffset = ConfigurationValues.getObjectLayout().getArrayBaseOffset(JavaKind.Byte);
+                b.addPush(JavaKind.Int, new AMD64CRC32CUpdateBytesNode(crc, b.nullCheckedValue(buf), off, end, baseOffset));
+                return true;
+            }
+        });
+        r.register4("updateDirectByteBuffer", int.class, long.class, int.class, int.class, new InvocationPlugin() {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode crc, ValueNode addr, ValueNode off, ValueNode end) {
+                b.addPush(JavaKind.Int, new AMD64CRC32CUpdateBytesNode(crc, addr, off, end, 0));
+                return true;
+            }
+        });
+    }
+
+    private static void registerAESPlugins(InvocationPlugins plugins, Replacements replacements) {
+        Registration r = new Registration(plugins, "com.sun.crypto.provider.AESCrypt", replacements);
+        r.register5("implEncryptBlock", Receiver.class, byte[].class, int.class, byte[].class, int.class, new AESCryptBlockPlugin(true));
+        r.register5("implDecryptBlock", Receiver.class, byte[].class, int.class, byte[].class, int.class, new AESCryptBlockPlugin(false));
+    }
+
+    private static final class AESCryptBlockPlugin implements InvocationPlugin {
+        private final boolean encrypt;
+
+        AESCryptBlockPlugin(boolean encrypt) {
+            this.encrypt = encrypt;
+        }
+
+        @Override
+        public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode in, ValueNode inOffset, ValueNode out, ValueNode outOffset) {
+            ResolvedJavaField keyField = findField(targetMethod.getDeclaringClass(), "K");
+            ValueNode key = b.nullCheckedValue(b.add(LoadFieldNode.create(b.getAssumptions(), receiver.get(), keyField)));
+            ValueNode keyLength = b.add(new ArrayLengthNode(key));
+            int byteArrayBaseOffset = ConfigurationValues.getObjectLayout().getArrayBaseOffset(JavaKind.Byte);
+            int intArrayBaseOffset = ConfigurationValues.getObjectLayout().getArrayBaseOffset(JavaKind.Int);
+            b.add(new AMD64AESCryptBlockNode(encrypt, b.nullCheckedValue(in), inOffset, b.nullCheckedValue(out), outOffset, key, keyLength, byteArrayBaseOffset, intArrayBaseOffset));
+            return true;
+        }
+    }
+
+    private static ResolvedJavaField findField(ResolvedJavaType type, String name) {
+        for (ResolvedJavaField field : type.getInstanceFields(false)) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        throw VMError.shouldNotReachHere("Field not found: " + type.toJavaName() + "." + name);
+    }
+}
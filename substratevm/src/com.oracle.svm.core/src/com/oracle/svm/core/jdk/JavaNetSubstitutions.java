@@ -188,6 +188,7 @@ public final class JavaNetSubstitutions {
             protected URLConnection openConnection(URL url) throws IOException {
                 return new URLConnection(url) {
                     private InputStream in;
+                    private long length = -1;
 
                     @Override
                     public void connect() throws IOException {
@@ -202,6 +203,7 @@ public final class JavaNetSubstitutions {
                             throw new FileNotFoundException(url.toString());
                         }
                         in = new ByteArrayInputStream(bytes.get(0));
+                        length = bytes.get(0).length;
                     }
 
                     @Override
@@ -209,6 +211,16 @@ public final class JavaNetSubstitutions {
                         connect();
                         return in;
                     }
+
+                    @Override
+                    public long getContentLengthLong() {
+                        try {
+                            connect();
+                        } catch (IOException e) {
+                            return -1;
+                        }
+                        return length;
+                    }
                 };
             }
         };
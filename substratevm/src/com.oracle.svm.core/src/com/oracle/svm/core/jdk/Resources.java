@@ -31,6 +31,10 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -50,6 +54,11 @@ import com.oracle.svm.core.util.VMError;
  *
  * Registered resources are then available from DynamicHub#getResource classes and
  * {@link Target_java_lang_ClassLoader class loaders}.
+ *
+ * The resource contents are stored as byte arrays in the read-only part of the image heap (see
+ * {@link ResourcesFeature}), so they are never modified at run time. Code that reads large resources
+ * should use {@link #getAsByteBuffer} or {@link #newByteChannel}, which expose the image heap data
+ * directly instead of copying it into freshly allocated arrays.
  */
 public final class Resources {
 
@@ -123,6 +132,26 @@ public final class Resources {
         return singleton().resources.get(name);
     }
 
+    /**
+     * Returns a read-only view of the first resource registered under {@code name}, or
+     * {@code null} if there is no such resource. The buffer is backed by the image heap and its
+     * creation does not allocate proportionally to the resource size.
+     */
+    public static ByteBuffer getAsByteBuffer(String name) {
+        List<byte[]> arr = get(name);
+        return arr == null ? null : ByteBuffer.wrap(arr.get(0)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a read-only {@link SeekableByteChannel} over the first resource registered under
+     * {@code name}, or {@code null} if there is no such resource. Reading at arbitrary positions
+     * copies only the requested bytes into the destination buffer.
+     */
+    public static SeekableByteChannel newByteChannel(String name) {
+        List<byte[]> arr = get(name);
+        return arr == null ? null : new ResourceByteChannel(arr.get(0));
+    }
+
     public static URL createURL(String name, byte[] resourceBytes) {
         class Conn extends URLConnection {
             Conn(URL url) {
@@ -157,6 +186,83 @@ public final class Resources {
     }
 }
 
+/**
+ * A read-only channel over the bytes of a resource. The channel does not copy the resource; each
+ * read transfers only the requested range into the caller's buffer.
+ */
+final class ResourceByteChannel implements SeekableByteChannel {
+
+    private final byte[] data;
+    private long position;
+    private boolean open = true;
+
+    ResourceByteChannel(byte[] data) {
+        this.data = data;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= data.length) {
+            return -1;
+        }
+        int length = (int) Math.min(dst.remaining(), data.length - position);
+        dst.put(data, (int) position, length);
+        position += length;
+        return length;
+    }
+
+    @Override
+    public synchronized int write(ByteBuffer src) throws IOException {
+        ensureOpen();
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public synchronized long size() throws IOException {
+        ensureOpen();
+        return data.length;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel truncate(long size) throws IOException {
+        ensureOpen();
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() {
+        open = false;
+    }
+}
+
 @AutomaticFeature
 final class ResourcesFeature implements Feature {
     @Override
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.classinitialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+/**
+ * Tests that the verification of build-time warm-up snapshots handles objects of records and
+ * hidden classes, whose fields cannot be accessed through {@code Unsafe.objectFieldOffset}.
+ */
+public class BuildTimeWarmUpSnapshotTest {
+
+    record Entry(String name, Object value) {
+    }
+
+    static final class Roots {
+        static Object record;
+        static Supplier<Object> lambda;
+    }
+
+    @Test
+    public void testLambdaAndRecord() {
+        Object recordValue = new Object();
+        Entry captured = new Entry("captured", "value");
+        Roots.record = new Entry("entry", recordValue);
+        Roots.lambda = () -> captured;
+
+        BuildTimeWarmUpFeature.SnapshotVerifier verifier = new BuildTimeWarmUpFeature.SnapshotVerifier();
+        verifier.addStaticFields(Roots.class);
+        verifier.run();
+
+        assertTrue(verifier.violations.isEmpty());
+        assertTrue(verifier.visited.containsKey(recordValue));
+        assertTrue(verifier.visited.containsKey(captured));
+        assertTrue(verifier.visited.containsKey(captured.value()));
+    }
+
+    @Test
+    public void testDisallowedObjectInLambdaAndRecord() {
+        Entry captured = new Entry("random", new Random());
+        Roots.record = null;
+        Roots.lambda = () -> captured;
+
+        BuildTimeWarmUpFeature.SnapshotVerifier verifier = new BuildTimeWarmUpFeature.SnapshotVerifier();
+        verifier.addStaticFields(Roots.class);
+        verifier.run();
+
+        assertEquals(1, verifier.violations.size());
+        String violation = verifier.violations.get(0);
+        assertTrue(violation, violation.contains("Random"));
+        assertTrue(violation, violation.endsWith("Entry.value"));
+    }
+}
@@ -150,6 +150,7 @@ import com.oracle.graal.pointsto.reports.CallTreePrinter;
 import com.oracle.graal.pointsto.reports.ObjectTreePrinter;
 import com.oracle.graal.pointsto.reports.ReportUtils;
 import com.oracle.graal.pointsto.reports.StatisticsPrinter;
+import com.oracle.graal.pointsto.reports.TypeFlowHotspotsPrinter;
 import com.oracle.graal.pointsto.typestate.PointsToStats;
 import com.oracle.graal.pointsto.typestate.TypeState;
 import com.oracle.graal.pointsto.util.Timer;
@@ -679,7 +680,7 @@ public class NativeImageGenerator {
                         featureHandler.forEachFeature(feature -> feature.afterHeapLayout(config));
 
                         this.image = AbstractImage.create(k, hUniverse, hMetaAccess, nativeLibraries, heap, codeCache, hostedEntryPoints, loader.getClassLoader());
-                        image.build(imageName, debug);
+                        image.build(imageName, debug, compilationExecutor);
                         if (NativeImageOptions.PrintUniverse.getValue()) {
                             /*
                              * This debug output must be printed _after_ and not _during_ image
@@ -824,6 +825,10 @@ public class NativeImageGenerator {
                     PointsToStats.report(bigbang, ReportUtils.extractImageName(imageName));
                 }
 
+                if (PointstoOptions.ProfileTypeFlows.getValue(options)) {
+                    TypeFlowHotspotsPrinter.print(bigbang, SubstrateOptions.Path.getValue(), ReportUtils.extractImageName(imageName));
+                }
+
                 if (PointstoOptions.PrintSynchronizedAnalysis.getValue(options)) {
                     TypeState allSynchronizedTypeState = bigbang.getAllSynchronizedTypeState();
                     String typesString = allSynchronizedTypeState.closeToAllInstantiated(bigbang) ? "close to all instantiated" : //
@@ -157,6 +157,9 @@ public class NativeImageOptions {
     @Option(help = "The number of threads to use for analysis during native image generation. The number must be smaller than the NumberOfThreads.")//
     public static final HostedOptionKey<Integer> NumberOfAnalysisThreads = new HostedOptionKey<>(-1);
 
+    @Option(help = "Write the objects of the image heap using multiple threads.")//
+    public static final HostedOptionKey<Boolean> ParallelImageHeapWriting = new HostedOptionKey<>(true);
+
     @Option(help = "Return after analysis")//
     public static final HostedOptionKey<Boolean> ReturnAfterAnalysis = new HostedOptionKey<>(false);
 
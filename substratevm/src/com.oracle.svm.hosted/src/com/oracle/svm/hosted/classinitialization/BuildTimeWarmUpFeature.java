@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.classinitialization;
+
+// Checkstyle: allow reflection
+
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.compiler.serviceprovider.GraalUnsafeAccess;
+import org.graalvm.nativeimage.hosted.Feature;
+
+import com.oracle.graal.pointsto.reports.ReportUtils;
+import com.oracle.graal.pointsto.util.Timer;
+import com.oracle.svm.core.SubstrateOptions;
+import com.oracle.svm.core.SubstrateUtil;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.image.DisallowedImageHeapObjects;
+import com.oracle.svm.core.util.UserError;
+import com.oracle.svm.core.util.VMError;
+import com.oracle.svm.hosted.FeatureImpl;
+import com.oracle.svm.util.ReflectionUtil;
+
+import sun.misc.Unsafe;
+
+/**
+ * Executes the warm-up methods specified with {@link ClassInitializationOptions#BuildTimeWarmUp}
+ * during image generation. The classes declaring the warm-up methods are initialized at build time,
+ * so the caches, object graphs and configuration that the warm-up methods store in static fields
+ * become part of the image heap and are available immediately at image run time.
+ *
+ * After the warm-up methods have been executed, the object graph reachable from the static fields
+ * of their declaring classes is verified before the static analysis starts. Objects that depend on
+ * the state of the image generator, e.g., open file descriptors, started threads or seeded random
+ * number generators, are reported together with the path through which they are reachable.
+ */
+@AutomaticFeature
+public class BuildTimeWarmUpFeature implements Feature {
+
+    private static final int MAX_REPORTED_VIOLATIONS = 10;
+    private static final int MAX_REPORTED_CLASSES = 50;
+
+    private final List<Method> warmUpMethods = new ArrayList<>();
+
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return ClassInitializationOptions.BuildTimeWarmUp.hasBeenSet();
+    }
+
+    @Override
+    public void duringSetup(DuringSetupAccess a) {
+        FeatureImpl.DuringSetupAccessImpl access = (FeatureImpl.DuringSetupAccessImpl) a;
+        ClassInitializationOptions.BuildTimeWarmUp.getValue().getValuesWithOrigins().forEach(entry -> {
+            for (String name : entry.getLeft().split(",")) {
+                if (!name.trim().isEmpty()) {
+                    warmUpMethods.add(lookupWarmUpMethod(access, name.trim(), entry.getRight()));
+                }
+            }
+        });
+
+        ClassInitializationSupport classInitializationSupport = access.getHostVM().getClassInitializationSupport();
+        for (Method method : warmUpMethods) {
+            classInitializationSupport.initializeAtBuildTime(method.getDeclaringClass(), "it declares the build-time warm-up method " + method.getName());
+        }
+    }
+
+    private static Method lookupWarmUpMethod(FeatureImpl.DuringSetupAccessImpl access, String name, String origin) {
+        int separator = name.lastIndexOf('.');
+        if (separator <= 0 || separator == name.length() - 1) {
+            throw UserError.abort("Build-time warm-up method must be specified as <class>.<method>. Found: %s (from %s)", name, origin);
+        }
+        String className = name.substring(0, separator);
+        Class<?> clazz = access.findClassByName(className);
+        if (clazz == null) {
+            throw UserError.abort("Class %s of build-time warm-up method %s not found (from %s)", className, name, origin);
+        }
+        Method method = ReflectionUtil.lookupMethod(true, clazz, name.substring(separator + 1));
+        if (method == null || !Modifier.isStatic(method.getModifiers())) {
+            throw UserError.abort("Build-time warm-up method %s must be a static method without parameters (from %s)", name, origin);
+        }
+        return method;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    public void beforeAnalysis(BeforeAnalysisAccess a) {
+        FeatureImpl.BeforeAnalysisAccessImpl access = (FeatureImpl.BeforeAnalysisAccessImpl) a;
+        String imageName = access.getBigBang().getHostVM().getImageName();
+        try (Timer.StopTimer ignored = new Timer(imageName, "(warmup)").start()) {
+            for (Method method : warmUpMethods) {
+                try {
+                    method.invoke(null);
+                } catch (InvocationTargetException ex) {
+                    throw UserError.abort(ex.getCause(), "Build-time warm-up method %s.%s failed", method.getDeclaringClass().getTypeName(), method.getName());
+                } catch (IllegalAccessException ex) {
+                    throw VMError.shouldNotReachHere(ex);
+                }
+            }
+
+            SnapshotVerifier verifier = new SnapshotVerifier();
+            for (Method method : warmUpMethods) {
+                verifier.addStaticFields(method.getDeclaringClass());
+            }
+            verifier.run();
+
+            String path = Paths.get(Paths.get(SubstrateOptions.Path.getValue()).toString(), "reports").toAbsolutePath().toString();
+            if (ClassInitializationOptions.PrintClassInitialization.getValue() || !verifier.violations.isEmpty()) {
+                ReportUtils.report("build-time warm-up snapshot", path, "warm_up_snapshot", "txt", verifier::printReport);
+            }
+            if (!verifier.violations.isEmpty()) {
+                List<String> messages = new ArrayList<>();
+                messages.add(verifier.violations.size() + " object(s) reachable from the static fields of build-time warm-up classes cannot be stored in the image heap. " +
+                                "See the warm_up_snapshot report in " + path + " for the full list.");
+                verifier.violations.stream().limit(MAX_REPORTED_VIOLATIONS).forEach(messages::add);
+                throw UserError.abort(messages);
+            }
+        }
+    }
+
+    /**
+     * Walks the object graph reachable from a set of static fields and collects the objects that
+     * must not be stored in the image heap, see {@link DisallowedImageHeapObjects}. The walk does
+     * not follow references into classes and class loaders.
+     */
+    static final class SnapshotVerifier {
+        private static final Unsafe UNSAFE = GraalUnsafeAccess.getUnsafe();
+
+        /** The reference through which an object was reached first, for reporting the path. */
+        private static final class Edge {
+            final Object source;
+            final String name;
+
+            Edge(Object source, String name) {
+                this.source = source;
+                this.name = name;
+            }
+        }
+
+        /**
+         * The names and offsets of all instance fields of reference type of a class. Fields of
+         * records and hidden classes have no offset available through {@link Unsafe}, they are
+         * read through reflection instead.
+         */
+        private static final class ReferenceFields {
+            final String[] names;
+            final long[] offsets;
+            /** The field to read reflectively, or {@code null} if the offset is used. */
+            final Field[] reflectionFields;
+
+            ReferenceFields(String[] names, long[] offsets, Field[] reflectionFields) {
+                this.names = names;
+                this.offsets = offsets;
+                this.reflectionFields = reflectionFields;
+            }
+
+            Object read(Object obj, int index) {
+                Field field = reflectionFields[index];
+                if (field == null) {
+                    return UNSAFE.getObject(obj, offsets[index]);
+                }
+                try {
+                    return field.get(obj);
+                } catch (IllegalAccessException ex) {
+                    throw VMError.shouldNotReachHere(ex);
+                }
+            }
+        }
+
+        final Map<Object, Edge> visited = new IdentityHashMap<>();
+        private final Deque<Object> worklist = new ArrayDeque<>();
+        private final Map<Class<?>, ReferenceFields> referenceFieldsCache = new HashMap<>();
+        private final Map<Class<?>, Integer> histogram = new HashMap<>();
+        private final List<Class<?>> roots = new ArrayList<>();
+        final List<String> violations = new ArrayList<>();
+
+        void addStaticFields(Class<?> clazz) {
+            roots.add(clazz);
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                    Object value = UNSAFE.getObject(UNSAFE.staticFieldBase(field), UNSAFE.staticFieldOffset(field));
+                    reach(value, null, clazz.getTypeName() + "." + field.getName());
+                }
+            }
+        }
+
+        void run() {
+            while (!worklist.isEmpty()) {
+                Object obj = worklist.removeFirst();
+                histogram.merge(obj.getClass(), 1, Integer::sum);
+                if (!check(obj)) {
+                    /* Do not report the objects referenced by a disallowed object. */
+                    continue;
+                }
+                if (obj instanceof Object[]) {
+                    Object[] array = (Object[]) obj;
+                    for (int i = 0; i < array.length; i++) {
+                        reach(array[i], obj, "[" + i + "]");
+                    }
+                } else if (!obj.getClass().isArray()) {
+                    ReferenceFields fields = referenceFieldsCache.computeIfAbsent(obj.getClass(), SnapshotVerifier::collectReferenceFields);
+                    for (int i = 0; i < fields.offsets.length; i++) {
+                        reach(fields.read(obj, i), obj, fields.names[i]);
+                    }
+                }
+            }
+        }
+
+        private void reach(Object value, Object source, String name) {
+            if (value == null || value instanceof Class || value instanceof ClassLoader || visited.containsKey(value)) {
+                return;
+            }
+            visited.put(value, new Edge(source, name));
+            worklist.addLast(value);
+        }
+
+        private boolean check(Object obj) {
+            try {
+                DisallowedImageHeapObjects.check(obj, (msg, o, action) -> new DisallowedObjectException(msg));
+                return true;
+            } catch (DisallowedObjectException ex) {
+                violations.add(ex.getMessage() + System.lineSeparator() + "    Reachable via: " + pathTo(obj));
+                return false;
+            }
+        }
+
+        private String pathTo(Object obj) {
+            List<String> names = new ArrayList<>();
+            for (Edge edge = visited.get(obj); edge != null; edge = edge.source == null ? null : visited.get(edge.source)) {
+                names.add(0, edge.name);
+            }
+            return String.join(" -> ", names);
+        }
+
+        private static ReferenceFields collectReferenceFields(Class<?> clazz) {
+            List<String> names = new ArrayList<>();
+            List<Long> offsets = new ArrayList<>();
+            List<Field> reflectionFields = new ArrayList<>();
+            for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+                /* Unsafe.objectFieldOffset throws for fields of records and hidden classes. */
+                boolean useReflection = isRecord(c) || SubstrateUtil.isHiddenClass(c);
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                        names.add(c.getSimpleName() + "." + field.getName());
+                        if (useReflection) {
+                            offsets.add(-1L);
+                            reflectionFields.add(ReflectionUtil.lookupField(c, field.getName()));
+                        } else {
+                            offsets.add(UNSAFE.objectFieldOffset(field));
+                            reflectionFields.add(null);
+                        }
+                    }
+                }
+            }
+            return new ReferenceFields(names.toArray(new String[0]), offsets.stream().mapToLong(Long::longValue).toArray(), reflectionFields.toArray(new Field[0]));
+        }
+
+        /**
+         * Same as {@code Class.isRecord()}, which is not available on all supported JDKs. Only
+         * records can extend {@code java.lang.Record}.
+         */
+        private static boolean isRecord(Class<?> clazz) {
+            return clazz.getSuperclass() != null && clazz.getSuperclass().getName().equals("java.lang.Record");
+        }
+
+        void printReport(PrintWriter writer) {
+            writer.println("Warm-up classes:");
+            roots.forEach(root -> writer.println("  " + root.getTypeName()));
+            writer.println();
+            writer.println("Objects reachable from static fields: " + visited.size());
+            writer.println();
+            writer.println("Most frequent classes:");
+            histogram.entrySet().stream()
+                            .sorted(Map.Entry.<Class<?>, Integer> comparingByValue(Comparator.reverseOrder()).thenComparing(e -> e.getKey().getTypeName()))
+                            .limit(MAX_REPORTED_CLASSES)
+                            .forEach(e -> writer.format("  %10d %s%n", e.getValue(), e.getKey().getTypeName()));
+            writer.println();
+            writer.println("Objects that cannot be stored in the image heap: " + violations.size());
+            violations.forEach(writer::println);
+        }
+    }
+
+    private static final class DisallowedObjectException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        DisallowedObjectException(String message) {
+            super(message);
+        }
+    }
+}
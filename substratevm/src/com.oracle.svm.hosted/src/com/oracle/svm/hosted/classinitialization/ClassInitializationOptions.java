@@ -93,4 +93,8 @@ public final class ClassInitializationOptions {
 
     @Option(help = "Prints class initialization info for all classes detected by analysis.", type = OptionType.Debug)//
     public static final HostedOptionKey<Boolean> PrintClassInitialization = new HostedOptionKey<>(false);
+
+    @Option(help = "A comma-separated list of static methods without parameters (<class>.<method>) that are executed during image generation to warm up application state. " +
+                    "The classes declaring the methods are initialized at build time, and the objects reachable from their static fields are stored in the image heap.", type = OptionType.User)//
+    public static final HostedOptionKey<LocatableMultiOptionValue.Strings> BuildTimeWarmUp = new HostedOptionKey<>(new LocatableMultiOptionValue.Strings());
 }
@@ -24,6 +24,9 @@
  */
 package com.oracle.svm.hosted.dashboard;
 
+import com.oracle.graal.pointsto.BigBang;
+import com.oracle.graal.pointsto.api.PointstoOptions;
+import com.oracle.graal.pointsto.flow.TypeFlowProfiler;
 import com.oracle.graal.pointsto.reports.ReportUtils;
 import com.oracle.svm.core.annotate.AutomaticFeature;
 import com.oracle.svm.hosted.FeatureImpl.AfterCompilationAccessImpl;
@@ -125,6 +128,20 @@ public class DashboardDumpFeature implements Feature {
                                         dumper.put(pw, "points-to", new PointsToJsonObject(access));
                                     }
                                 });
+                BigBang bigbang = ((OnAnalysisExitAccessImpl) access).getBigBang();
+                TypeFlowProfiler profiler = bigbang.getTypeFlowProfiler();
+                if (profiler != null) {
+                    int limit = PointstoOptions.ProfileTypeFlowsReportSize.getValue(bigbang.getOptions());
+                    ReportUtils.report(
+                                    "Dashboard type flow hotspots JSON dump",
+                                    getFile("dump"),
+                                    true,
+                                    os -> {
+                                        try (PrintWriter pw = new PrintWriter(os)) {
+                                            dumper.put(pw, "typeflow-hotspots", new TypeFlowHotspotsJsonObject(profiler, limit));
+                                        }
+                                    });
+                }
             }
             if (isBgvFormat()) {
                 ReportUtils.report(
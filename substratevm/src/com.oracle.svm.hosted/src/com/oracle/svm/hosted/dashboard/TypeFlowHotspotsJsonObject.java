@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.dashboard;
+
+import com.oracle.svm.hosted.dashboard.ToJson.JsonObject;
+import com.oracle.svm.hosted.dashboard.ToJson.JsonString;
+import com.oracle.svm.hosted.dashboard.ToJson.JsonNumber;
+import com.oracle.svm.hosted.dashboard.ToJson.JsonValue;
+import com.oracle.svm.hosted.dashboard.ToJson.JsonArray;
+
+import com.oracle.graal.pointsto.flow.TypeFlowProfiler;
+import com.oracle.graal.pointsto.flow.TypeFlowProfiler.FlowCounters;
+import com.oracle.graal.pointsto.flow.TypeFlowProfiler.MethodCounters;
+import com.oracle.graal.pointsto.reports.TypeFlowHotspotsPrinter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Creates a JSON representation of the type flow hotspots recorded by the {@link TypeFlowProfiler}
+ * during the analysis:
+ *
+ * <pre>
+ *   {
+ *     "total-updates": number of type flow updates (int),
+ *     "total-update-nanos": time spent in type flow updates (int),
+ *     "methods": [ { "name", "flows", "saturated-flows", "updates", "propagated-types", "update-nanos" } ... ],
+ *     "flows": [ { "name", "types", "saturated", "updates", "propagated-types", "update-nanos" } ... ]
+ *   }
+ * </pre>
+ */
+class TypeFlowHotspotsJsonObject extends JsonObject {
+
+    private static final List<String> NAMES = Arrays.asList("total-updates", "total-update-nanos", "methods", "flows");
+    private static final List<String> METHOD_NAMES = Arrays.asList("name", "flows", "saturated-flows", "updates", "propagated-types", "update-nanos");
+    private static final List<String> FLOW_NAMES = Arrays.asList("name", "types", "saturated", "updates", "propagated-types", "update-nanos");
+
+    private final TypeFlowProfiler profiler;
+    private final int limit;
+
+    TypeFlowHotspotsJsonObject(TypeFlowProfiler profiler, int limit) {
+        this.profiler = profiler;
+        this.limit = limit;
+    }
+
+    @Override
+    Stream<String> getNames() {
+        return NAMES.stream();
+    }
+
+    @Override
+    JsonValue getValue(String name) {
+        switch (name) {
+            case "total-updates":
+                return JsonNumber.get(profiler.getTotalUpdates());
+            case "total-update-nanos":
+                return JsonNumber.get(profiler.getTotalUpdateNanos());
+            case "methods":
+                return JsonArray.get(profiler.getTopMethods(limit).stream().map(TypeFlowHotspotsJsonObject::methodObject));
+            case "flows":
+                return JsonArray.get(profiler.getTopFlows(limit).stream().map(TypeFlowHotspotsJsonObject::flowObject));
+            default:
+                return null;
+        }
+    }
+
+    private static JsonValue methodObject(MethodCounters counters) {
+        return JsonObject.get(METHOD_NAMES.stream(), name -> {
+            switch (name) {
+                case "name":
+                    return counters.getMethod() == null ? JsonValue.NULL : JsonString.get(counters.getMethod().format("%H.%n(%p)"));
+                case "flows":
+                    return JsonNumber.get(counters.getFlows());
+                case "saturated-flows":
+                    return JsonNumber.get(counters.getSaturatedFlows());
+                case "updates":
+                    return JsonNumber.get(counters.getUpdates());
+                case "propagated-types":
+                    return JsonNumber.get(counters.getPropagatedTypes());
+                default:
+                    return JsonNumber.get(counters.getUpdateNanos());
+            }
+        });
+    }
+
+    private static JsonValue flowObject(FlowCounters counters) {
+        return JsonObject.get(FLOW_NAMES.stream(), name -> {
+            switch (name) {
+                case "name":
+                    return JsonString.get(TypeFlowHotspotsPrinter.formatFlow(counters.getFlow()));
+                case "types":
+                    return JsonNumber.get(counters.getFlow().getState().typesCount());
+                case "saturated":
+                    return counters.getFlow().isSaturated() ? JsonValue.TRUE : JsonValue.FALSE;
+                case "updates":
+                    return JsonNumber.get(counters.getUpdates());
+                case "propagated-types":
+                    return JsonNumber.get(counters.getPropagatedTypes());
+                default:
+                    return JsonNumber.get(counters.getUpdateNanos());
+            }
+        });
+    }
+}
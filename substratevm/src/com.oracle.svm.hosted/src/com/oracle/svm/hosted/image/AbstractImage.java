@@ -26,6 +26,7 @@ package com.oracle.svm.hosted.image;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.graalvm.compiler.debug.DebugContext;
 
@@ -121,9 +122,10 @@ public abstract class AbstractImage {
 
     /**
      * Build the image. Calling this method is a precondition to calling {@link #write}. It
-     * typically finalizes content of the object. It does not build debug information.
+     * typically finalizes content of the object. It does not build debug information. The thread
+     * pool, if not null, can be used to parallelize independent parts of the build.
      */
-    public abstract void build(String imageName, DebugContext debug);
+    public abstract void build(String imageName, DebugContext debug, ForkJoinPool threadPool);
 
     /**
      * Write the image to the named file. This also writes debug information -- either to the same
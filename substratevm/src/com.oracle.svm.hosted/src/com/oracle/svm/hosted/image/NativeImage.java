@@ -48,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import org.graalvm.collections.Pair;
@@ -399,7 +400,7 @@ public abstract class NativeImage extends AbstractImage {
      */
     @Override
     @SuppressWarnings("try")
-    public void build(String imageName, DebugContext debug) {
+    public void build(String imageName, DebugContext debug, ForkJoinPool threadPool) {
         try (DebugContext.Scope buildScope = debug.scope("NativeImage.build")) {
             final CGlobalDataFeature cGlobals = CGlobalDataFeature.singleton();
 
@@ -465,7 +466,10 @@ public abstract class NativeImage extends AbstractImage {
             heapSection = objectFile.newProgbitsSection(SectionName.SVM_HEAP.getFormatDependentName(objectFile.getFormat()), alignment, writable, false, heapSectionImpl);
             objectFile.createDefinedSymbol(heapSection.getName(), heapSection, 0, 0, false, false);
 
-            long offsetOfARelocatablePointer = writer.writeHeap(debug, heapSectionBuffer);
+            long offsetOfARelocatablePointer;
+            try (Timer.StopTimer t = new Timer(imageName, "(heap)").start()) {
+                offsetOfARelocatablePointer = writer.writeHeap(debug, heapSectionBuffer, threadPool);
+            }
             assert !SubstrateOptions.SpawnIsolates.getValue() || heapSectionBuffer.getByteBuffer().getLong((int) offsetOfARelocatablePointer) == 0L;
 
             defineDataSymbol(Isolates.IMAGE_HEAP_BEGIN_SYMBOL_NAME, heapSection, 0);
@@ -29,6 +29,10 @@ import static com.oracle.svm.core.util.VMError.shouldNotReachHere;
 import java.lang.reflect.Array;
 import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.graalvm.compiler.core.common.CompressEncoding;
 import org.graalvm.compiler.core.common.NumUtil;
@@ -50,6 +54,7 @@ import com.oracle.svm.core.heap.ObjectHeader;
 import com.oracle.svm.core.hub.DynamicHub;
 import com.oracle.svm.core.image.ImageHeapLayoutInfo;
 import com.oracle.svm.core.meta.SubstrateObjectConstant;
+import com.oracle.svm.hosted.NativeImageOptions;
 import com.oracle.svm.hosted.config.HybridLayout;
 import com.oracle.svm.hosted.image.NativeImageHeap.ObjectInfo;
 import com.oracle.svm.hosted.meta.HostedClass;
@@ -66,26 +71,38 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
  * Writes the native image heap into one or multiple {@link RelocatableBuffer}s.
  */
 public final class NativeImageHeapWriter {
+    /**
+     * Number of objects written by one task when the heap is written in parallel. Each task records
+     * its relocations in a separate {@link RelocatableBuffer#createView() view} of the buffer.
+     */
+    private static final int OBJECTS_PER_TASK = 16 * 1024;
+
     private final NativeImageHeap heap;
     private final ImageHeapLayoutInfo heapLayout;
-    private long sectionOffsetOfARelocatablePointer;
 
     public NativeImageHeapWriter(NativeImageHeap heap, ImageHeapLayoutInfo heapLayout) {
         this.heap = heap;
         this.heapLayout = heapLayout;
-        this.sectionOffsetOfARelocatablePointer = -1;
     }
 
     /**
      * Write the model of the native image heap to the RelocatableBuffers that represent the native
-     * image.
+     * image. If a thread pool is provided, the objects are written in parallel. The written bytes
+     * and the recorded relocations do not depend on the number of threads.
+     *
+     * @return the offset of a relocatable pointer in the buffer, or -1 if there is none
      */
     @SuppressWarnings("try")
-    public long writeHeap(DebugContext debug, RelocatableBuffer buffer) {
+    public long writeHeap(DebugContext debug, RelocatableBuffer buffer, ForkJoinPool threadPool) {
         try (Indent perHeapIndent = debug.logAndIndent("NativeImageHeap.writeHeap:")) {
-            for (ObjectInfo info : heap.getObjects()) {
-                assert !heap.isBlacklisted(info.getObject());
-                writeObject(info, buffer);
+            assert !buffer.hasRelocations();
+            if (threadPool != null && threadPool.getParallelism() > 1 && NativeImageOptions.ParallelImageHeapWriting.getValue()) {
+                writeObjectsInParallel(buffer, threadPool);
+            } else {
+                for (ObjectInfo info : heap.getObjects()) {
+                    assert !heap.isBlacklisted(info.getObject());
+                    writeObject(info, buffer);
+                }
             }
 
             // Only static fields that are writable get written to the native image heap,
@@ -94,7 +111,39 @@ public final class NativeImageHeapWriter {
 
             heap.getLayouter().writeMetadata(buffer.getByteBuffer(), 0);
         }
-        return sectionOffsetOfARelocatablePointer;
+        /*
+         * The relocations are sorted by their offset, so taking the first one makes the result
+         * independent of the order in which the objects were written.
+         */
+        return buffer.hasRelocations() ? buffer.getSortedRelocations().iterator().next().getKey() : -1;
+    }
+
+    /**
+     * Objects occupy disjoint ranges of the buffer, so they can be written concurrently. Every task
+     * writes a contiguous range of {@link NativeImageHeap#getObjects()} and collects the
+     * relocations in its own view of the buffer, which are merged once all tasks are done.
+     */
+    private void writeObjectsInParallel(RelocatableBuffer buffer, ForkJoinPool threadPool) {
+        List<ObjectInfo> objects = new ArrayList<>(heap.getObjects());
+        List<RelocatableBuffer> views = new ArrayList<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int start = 0; start < objects.size(); start += OBJECTS_PER_TASK) {
+            List<ObjectInfo> range = objects.subList(start, Math.min(start + OBJECTS_PER_TASK, objects.size()));
+            RelocatableBuffer view = buffer.createView();
+            views.add(view);
+            tasks.add(threadPool.submit(() -> {
+                for (ObjectInfo info : range) {
+                    assert !heap.isBlacklisted(info.getObject());
+                    writeObject(info, view);
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        for (RelocatableBuffer view : views) {
+            buffer.addRelocations(view);
+        }
     }
 
     private void writeStaticFields(RelocatableBuffer buffer) {
@@ -215,17 +264,11 @@ public final class NativeImageHeapWriter {
         assert size == 4 || size == 8;
         assert !NativeImageHeap.spawnIsolates() || heapLayout.isReadOnlyRelocatable(index);
         buffer.addRelocationWithoutAddend(index, size == 8 ? ObjectFile.RelocationKind.DIRECT_8 : ObjectFile.RelocationKind.DIRECT_4, target);
-        if (sectionOffsetOfARelocatablePointer == -1) {
-            sectionOffsetOfARelocatablePointer = index;
-        }
     }
 
     private void addDirectRelocationWithAddend(RelocatableBuffer buffer, int index, DynamicHub target, long objectHeaderBits) {
         assert !NativeImageHeap.spawnIsolates() || heapLayout.isReadOnlyRelocatable(index);
         buffer.addRelocationWithAddend(index, referenceSize() == 8 ? ObjectFile.RelocationKind.DIRECT_8 : ObjectFile.RelocationKind.DIRECT_4, objectHeaderBits, target);
-        if (sectionOffsetOfARelocatablePointer == -1) {
-            sectionOffsetOfARelocatablePointer = index;
-        }
     }
 
     /**
@@ -52,6 +52,29 @@ public final class RelocatableBuffer {
         this.relocations = new TreeMap<>();
     }
 
+    private RelocatableBuffer(ByteBuffer byteBuffer) {
+        this.byteBuffer = byteBuffer;
+        this.relocations = new TreeMap<>();
+    }
+
+    /**
+     * Creates a buffer that shares the bytes of this buffer but records its relocations separately.
+     * Views can be written concurrently as long as they write disjoint byte ranges. The relocations
+     * of a view must be transferred back with {@link #addRelocations}.
+     */
+    public RelocatableBuffer createView() {
+        return new RelocatableBuffer(byteBuffer.duplicate().order(byteBuffer.order()));
+    }
+
+    /**
+     * Adds all relocations recorded in the given {@link #createView() view} to this buffer.
+     */
+    public void addRelocations(RelocatableBuffer view) {
+        assert view.byteBuffer.array() == byteBuffer.array() : "not a view of this buffer";
+        assert Collections.disjoint(relocations.keySet(), view.relocations.keySet()) : "relocation sites must not overlap";
+        relocations.putAll(view.relocations);
+    }
+
     public void addRelocationWithoutAddend(int key, ObjectFile.RelocationKind relocationKind, Object targetObject) {
         relocations.put(key, new Info(relocationKind, null, targetObject));
     }
@@ -35,7 +35,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.oracle.svm.core.SubstrateOptions;
 import org.graalvm.compiler.core.common.calc.UnsignedMath;
@@ -454,10 +456,17 @@ public class TypeCheckBuilder {
      * Calculates all of the needed type check id information and stores it in the HostedTypes.
      */
     public boolean calculateIDs() {
+        /*
+         * Class and interface IDs are computed for disjoint sets of types, so the two builders can
+         * run in parallel. Only the slot numbers of interfaces depend on the class builder, since
+         * the interface slots are placed after the class slots.
+         */
+        InterfaceIDBuilder interfaceBuilder = new InterfaceIDBuilder(heightOrderedTypes, subtypeMap);
+        ForkJoinTask<?> interfaceTask = ForkJoinTask.adapt(interfaceBuilder::computeSlots).fork();
         ClassIDBuilder classBuilder = new ClassIDBuilder(objectType, allIncludedRoots, heightOrderedTypes, subtypeMap);
         classBuilder.computeSlots();
-        InterfaceIDBuilder interfaceBuilder = new InterfaceIDBuilder(classBuilder.numClassSlots, heightOrderedTypes, subtypeMap);
-        interfaceBuilder.computeSlots();
+        interfaceTask.join();
+        interfaceBuilder.assignTypeCheckSlots(classBuilder.numClassSlots);
         generateTypeCheckSlots(classBuilder, interfaceBuilder);
         assert TypeCheckValidator.compareTypeIDResults(heightOrderedTypes);
         return true;
@@ -471,7 +480,7 @@ public class TypeCheckBuilder {
         int numClassSlots = classBuilder.numClassSlots;
         numTypeCheckSlots = numClassSlots + interfaceBuilder.numInterfaceSlots;
         int numSlots = getNumTypeCheckSlots();
-        for (HostedType type : allIncludedTypes) {
+        allIncludedTypes.parallelStream().forEach(type -> {
             short[] typeCheckSlots = new short[numSlots];
 
             int[] slots = classBuilder.classSlotIDMap.get(type);
@@ -489,7 +498,7 @@ public class TypeCheckBuilder {
             }
 
             type.setTypeCheckSlots(typeCheckSlots);
-        }
+        });
     }
 
     /**
@@ -706,10 +715,10 @@ public class TypeCheckBuilder {
     private static final class InterfaceIDBuilder {
         final List<HostedType> heightOrderedTypes;
         final Map<HostedType, List<HostedType>> subtypeMap;
-        final int startingSlotNum;
 
         final Map<HostedType, int[]> interfaceSlotIDMap = new HashMap<>();
         int numInterfaceSlots = -1;
+        Node[] interfaceNodes;
 
         /**
          * This class is used to represent a type which is part of the interface graph
@@ -723,6 +732,9 @@ public class TypeCheckBuilder {
             final HostedType type;
             final boolean isInterface;
 
+            /** The interface slot assigned to an interface node, relative to the first one. */
+            int slotId = -1;
+
             Set<HostedType> duplicates;
 
             Node(int id, HostedType type, boolean isInterface) {
@@ -1614,8 +1626,7 @@ public class TypeCheckBuilder {
             }
         }
 
-        InterfaceIDBuilder(int startingSlotNum, List<HostedType> heightOrderedTypes, Map<HostedType, List<HostedType>> subtypeMap) {
-            this.startingSlotNum = startingSlotNum;
+        InterfaceIDBuilder(List<HostedType> heightOrderedTypes, Map<HostedType, List<HostedType>> subtypeMap) {
             this.heightOrderedTypes = heightOrderedTypes;
             this.subtypeMap = subtypeMap;
         }
@@ -1625,6 +1636,18 @@ public class TypeCheckBuilder {
             interfaceGraph.mergeDuplicates();
             interfaceGraph.generateDescendantIndex();
             calculateInterfaceIDs(interfaceGraph);
+            interfaceNodes = interfaceGraph.interfaceNodes;
+        }
+
+        /**
+         * Sets the type check slot of all interfaces. The interface slots are placed after the
+         * class slots, so this can only be done once the number of class slots is known.
+         */
+        void assignTypeCheckSlots(int startingSlotNum) {
+            for (Node interfaceNode : interfaceNodes) {
+                assert interfaceNode.slotId >= 0;
+                interfaceNode.type.setTypeCheckSlot(getShortValue(interfaceNode.slotId + startingSlotNum));
+            }
         }
 
         void calculateInterfaceIDs(Graph graph) {
@@ -1644,7 +1667,7 @@ public class TypeCheckBuilder {
                     InterfaceSlot.AddGroupingResult result = slot.tryAddGrouping(node);
                     if (result == InterfaceSlot.AddGroupingResult.SUCCESS) {
                         foundAssignment = true;
-                        node.type.setTypeCheckSlot(getShortValue(slot.id + startingSlotNum));
+                        node.slotId = slot.id;
                         break;
                     } else if (result == InterfaceSlot.AddGroupingResult.CAPACITY_OVERFLOW) {
                         /*
@@ -1659,7 +1682,7 @@ public class TypeCheckBuilder {
                     InterfaceSlot newSlot = new InterfaceSlot(slots.size());
                     InterfaceSlot.AddGroupingResult result = newSlot.tryAddGrouping(node);
                     assert result == InterfaceSlot.AddGroupingResult.SUCCESS : "must be able to add first node";
-                    node.type.setTypeCheckSlot(getShortValue(newSlot.id + startingSlotNum));
+                    node.slotId = newSlot.id;
                     slots.add(newSlot);
                 }
                 if (redoSort) {
@@ -1699,7 +1722,7 @@ public class TypeCheckBuilder {
                 int minId = Integer.MAX_VALUE;
                 int maxId = Integer.MIN_VALUE;
                 HostedType type = interfaceNode.type;
-                int slotId = Short.toUnsignedInt(type.getTypeCheckSlot()) - startingSlotNum;
+                int slotId = interfaceNode.slotId;
                 for (Node descendant : interfaceNode.sortedDescendants) {
                     int id = interfaceSlotIDMap.get(descendant.type)[slotId];
                     assert id != 0;
@@ -1726,7 +1749,7 @@ public class TypeCheckBuilder {
         static boolean compareTypeIDResults(List<HostedType> types) {
             if (!SubstrateOptions.DisableTypeIdResultVerification.getValue()) {
                 int numTypes = types.size();
-                for (int i = 0; i < numTypes; i++) {
+                IntStream.range(0, numTypes).parallel().forEach(i -> {
                     HostedType superType = types.get(i);
                     for (int j = 0; j < numTypes; j++) {
                         HostedType checkedType = types.get(j);
@@ -1743,7 +1766,7 @@ public class TypeCheckBuilder {
                             VMError.shouldNotReachHere(message.toString());
                         }
                     }
-                }
+                });
             }
             return true;
         }
@@ -39,6 +39,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
 
 import org.graalvm.collections.Pair;
 import org.graalvm.compiler.core.common.NumUtil;
@@ -116,8 +117,10 @@ public class UniverseBuilder {
     }
 
     /**
-     * This step is single threaded, i.e., all the maps are modified only by a single thread, so no
-     * synchronization is necessary. Accesses (the lookup methods) are multi-threaded.
+     * Creating the hosted elements is single threaded, i.e., all the maps are modified only by a
+     * single thread, so no synchronization is necessary. Accesses (the lookup methods) are
+     * multi-threaded. The later steps that only update the hosted elements themselves are split
+     * into tasks for independent parts of the type hierarchy.
      */
     @SuppressWarnings("try")
     public void build(DebugContext debug) {
@@ -155,17 +158,23 @@ public class UniverseBuilder {
             HostedType serializableType = hUniverse.types.get(aMetaAccess.lookupJavaType(Serializable.class));
             typeCheckBuilder = new TypeCheckBuilder(allTypes, objectType, cloneableType, serializableType);
             typeCheckBuilder.buildTypeInformation(hUniverse);
-            typeCheckBuilder.calculateIDs();
+            /*
+             * The type check IDs are first needed for the layout of the hybrid DynamicHub fields, so
+             * they are computed concurrently with the steps that do not depend on them.
+             */
+            ForkJoinTask<?> typeCheckBuildTask = ForkJoinTask.adapt(typeCheckBuilder::calculateIDs).fork();
 
             collectDeclaredMethods();
             collectMonitorFieldInfo(staticAnalysisResultsBuilder.getBigBang());
 
             ForkJoinTask<?> profilingInformationBuildTask = ForkJoinTask.adapt(this::buildProfilingInformation).fork();
 
+            collectMethodImplementations();
+            typeCheckBuildTask.join();
+
             layoutInstanceFields();
             layoutStaticFields();
 
-            collectMethodImplementations();
             buildVTables();
             buildHubs();
 
@@ -469,6 +478,11 @@ public class UniverseBuilder {
         clazz.instanceSize = layout.alignUp(nextOffset);
         clazz.afterFieldsOffset = nextOffset;
 
+        /*
+         * The layout of a subclass only depends on the end of the instance fields of its
+         * super-class, so the subtrees of the class hierarchy are laid out in parallel.
+         */
+        List<ForkJoinTask<?>> subClassTasks = new ArrayList<>();
         for (HostedType subClass : clazz.subTypes) {
             if (subClass.isInstanceClass()) {
                 /*
@@ -477,9 +491,10 @@ public class UniverseBuilder {
                  * possible because each class that needs a synthetic field gets its own synthetic
                  * field at the end of its instance fields.
                  */
-                layoutInstanceFields((HostedInstanceClass) subClass, endOfFieldsOffset);
+                subClassTasks.add(ForkJoinTask.adapt(() -> layoutInstanceFields((HostedInstanceClass) subClass, endOfFieldsOffset)));
             }
         }
+        ForkJoinTask.invokeAll(subClassTasks);
     }
 
     private void layoutStaticFields() {
@@ -565,12 +580,11 @@ public class UniverseBuilder {
     }
 
     private void collectMethodImplementations() {
-        for (HostedMethod method : hUniverse.methods.values()) {
-
+        hUniverse.methods.values().parallelStream().forEach(method -> {
             // Reuse the implementations from the analysis method.
             method.implementations = hUniverse.lookup(method.wrapped.getImplementations());
             Arrays.sort(method.implementations);
-        }
+        });
     }
 
     private void buildVTables() {
@@ -624,21 +638,19 @@ public class UniverseBuilder {
          * across the type hierarchy. We assign an importance level to each interface and then sort
          * by that number, to further reduce the filler slots.
          */
-        List<Pair<HostedType, Integer>> interfaces = new ArrayList<>();
-        for (HostedType type : hUniverse.getTypes()) {
-            if (type.isInterface()) {
-                /*
-                 * We use the number of subtypes as the importance for an interface: If an interface
-                 * is implemented often, then it can produce more unused filler slots than an
-                 * interface implemented rarely. We do not multiply with the number of methods that
-                 * the interface implements: there are usually no filler slots in between methods of
-                 * an interface, i.e., an interface that declares many methods does not lead to more
-                 * filler slots than an interface that defines only one method.
-                 */
-                int importance = collectSubtypes(type, new HashSet<>()).size();
-                interfaces.add(Pair.create(type, importance));
-            }
-        }
+        /*
+         * We use the number of subtypes as the importance for an interface: If an interface is
+         * implemented often, then it can produce more unused filler slots than an interface
+         * implemented rarely. We do not multiply with the number of methods that the interface
+         * implements: there are usually no filler slots in between methods of an interface, i.e.,
+         * an interface that declares many methods does not lead to more filler slots than an
+         * interface that defines only one method. The subtypes of each interface are collected
+         * independently, so this is done in parallel. The order of the list is not affected.
+         */
+        List<Pair<HostedType, Integer>> interfaces = hUniverse.getTypes().parallelStream()
+                        .filter(HostedType::isInterface)
+                        .map(type -> Pair.create(type, collectSubtypes(type, new HashSet<>()).size()))
+                        .collect(Collectors.toList());
         interfaces.sort((pair1, pair2) -> pair2.getRight() - pair1.getRight());
         for (Pair<HostedType, Integer> pair : interfaces) {
             assignImplementations(pair.getLeft(), vtablesMap, usedSlotsMap, vtablesSlots);
@@ -831,11 +843,12 @@ public class UniverseBuilder {
 
     private void buildHubs() {
         InstanceReferenceMapEncoder referenceMapEncoder = new InstanceReferenceMapEncoder();
-        Map<HostedType, ReferenceMapEncoder.Input> referenceMaps = new HashMap<>();
+        /* The reference maps are created in parallel, but added to the encoder in type order. */
+        Map<HostedType, ReferenceMapEncoder.Input> referenceMaps = hUniverse.getTypes().parallelStream()
+                        .collect(Collectors.toConcurrentMap(type -> type, UniverseBuilder::createReferenceMap));
         for (HostedType type : hUniverse.getTypes()) {
-            ReferenceMapEncoder.Input referenceMap = createReferenceMap(type);
+            ReferenceMapEncoder.Input referenceMap = referenceMaps.get(type);
             assert ((SubstrateReferenceMap) referenceMap).hasNoDerivedOffsets();
-            referenceMaps.put(type, referenceMap);
             referenceMapEncoder.add(referenceMap);
         }
         ImageSingletons.lookup(DynamicHubSupport.class).setData(referenceMapEncoder.encodeAll());
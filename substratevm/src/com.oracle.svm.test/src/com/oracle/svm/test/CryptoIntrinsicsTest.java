@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.nio.ByteBuffer;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Checksum;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeClassInitialization;
+import org.graalvm.nativeimage.hosted.RuntimeReflection;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests the AES and CRC32C intrinsics of Native Image against the JDK. The reference results are
+ * computed by the JDK of the image generator, the actual results by the image. The intrinsics are
+ * only used if the image is built with {@code -H:CPUFeatures=SSE4_2,AES,SSSE3}, which the
+ * {@code svmjunit} gate does on AMD64 in a separate image. In the image with the default CPU
+ * features the test checks the JDK code compiled by Native Image.
+ */
+public class CryptoIntrinsicsTest {
+
+    public static class TestFeature implements Feature {
+        @Override
+        public void beforeAnalysis(BeforeAnalysisAccess access) {
+            RuntimeClassInitialization.initializeAtBuildTime(Reference.class);
+            Class<?> crc32c = access.findClassByName("java.util.zip.CRC32C");
+            if (crc32c != null) {
+                RuntimeReflection.register(crc32c);
+                RuntimeReflection.register(crc32c.getConstructors());
+                try {
+                    RuntimeReflection.register(crc32c.getMethod("update", ByteBuffer.class));
+                } catch (NoSuchMethodException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The results computed by the JDK of the image generator.
+     */
+    static final class Reference {
+        static final long[] CRC32C = computeCRC32C();
+        static final byte[][] AES = computeAES();
+    }
+
+    private static final int[] CRC_LENGTHS = {0, 1, 3, 7, 8, 9, 15, 16, 17, 31, 32, 63, 64, 65, 127, 256, 1000, 4099};
+    private static final int MAX_OFFSET = 8;
+
+    private static final int[] AES_KEY_SIZES = {128, 192, 256};
+    private static final int[] BLOCK_LENGTHS = {16, 48, 1040};
+    private static final int[] ANY_LENGTHS = {1, 17, 1000};
+    /* Pairs of input and output offsets. */
+    private static final int[][] AES_OFFSETS = {{0, 0}, {1, 5}, {7, 3}};
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Computes the CRC32C of all combinations of {@link #CRC_LENGTHS} and offsets up to
+     * {@link #MAX_OFFSET} of a byte array, a heap and a direct byte buffer.
+     *
+     * @return null if {@code java.util.zip.CRC32C} does not exist
+     */
+    static long[] computeCRC32C() {
+        Class<?> crcClass;
+        try {
+            crcClass = Class.forName("java.util.zip.CRC32C");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        try {
+            byte[] data = randomBytes(new Random(42), CRC_LENGTHS[CRC_LENGTHS.length - 1] + MAX_OFFSET);
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+            direct.put(data);
+            ByteBuffer heap = ByteBuffer.wrap(data);
+            long[] result = new long[MAX_OFFSET * CRC_LENGTHS.length * 3];
+            int index = 0;
+            for (int offset = 0; offset < MAX_OFFSET; offset++) {
+                for (int length : CRC_LENGTHS) {
+                    Checksum crc = (Checksum) crcClass.getConstructor().newInstance();
+                    crc.update(data, offset, length);
+                    result[index++] = crc.getValue();
+                    for (ByteBuffer buffer : new ByteBuffer[]{heap, direct}) {
+                        buffer.limit(offset + length);
+                        buffer.position(offset);
+                        crc = (Checksum) crcClass.getConstructor().newInstance();
+                        crcClass.getMethod("update", ByteBuffer.class).invoke(crc, buffer);
+                        result[index++] = crc.getValue();
+                    }
+                }
+            }
+            return result;
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Encrypts with all combinations of key sizes, modes, lengths and unaligned input and output
+     * offsets, and checks that decrypting gives back the plaintext.
+     */
+    static byte[][] computeAES() {
+        try {
+            Random random = new Random(42);
+            byte[] plaintext = randomBytes(random, 2048);
+            List<byte[]> result = new ArrayList<>();
+            for (int keySize : AES_KEY_SIZES) {
+                SecretKeySpec key = new SecretKeySpec(randomBytes(random, keySize / 8), "AES");
+                for (int length : BLOCK_LENGTHS) {
+                    for (int[] offsets : AES_OFFSETS) {
+                        result.add(encryptDecrypt("AES/ECB/NoPadding", key, null, plaintext, length, offsets));
+                        result.add(encryptDecrypt("AES/CBC/NoPadding", key, new IvParameterSpec(randomBytes(random, 16)), plaintext, length, offsets));
+                    }
+                }
+                for (int length : concat(BLOCK_LENGTHS, ANY_LENGTHS)) {
+                    for (int[] offsets : AES_OFFSETS) {
+                        result.add(encryptDecrypt("AES/CBC/PKCS5Padding", key, new IvParameterSpec(randomBytes(random, 16)), plaintext, length, offsets));
+                        result.add(encryptDecrypt("AES/CTR/NoPadding", key, new IvParameterSpec(randomBytes(random, 16)), plaintext, length, offsets));
+                        // GCM does not allow to encrypt twice with the same IV
+                        result.add(encryptDecrypt("AES/GCM/NoPadding", key, new GCMParameterSpec(128, randomBytes(random, 12)), plaintext, length, offsets));
+                    }
+                }
+            }
+            return result.toArray(new byte[0][]);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static byte[] encryptDecrypt(String transformation, SecretKeySpec key, AlgorithmParameterSpec parameters, byte[] plaintext, int length, int[] offsets)
+                    throws Exception {
+        int inOffset = offsets[0];
+        int outOffset = offsets[1];
+        Cipher cipher = Cipher.getInstance(transformation);
+        if (parameters == null) {
+            cipher.init(Cipher.ENCRYPT_MODE, key);
+        } else {
+            cipher.init(Cipher.ENCRYPT_MODE, key, parameters);
+        }
+        byte[] encrypted = new byte[outOffset + cipher.getOutputSize(length)];
+        int encryptedLength = cipher.doFinal(plaintext, inOffset, length, encrypted, outOffset);
+
+        if (parameters == null) {
+            cipher.init(Cipher.DECRYPT_MODE, key);
+        } else {
+            cipher.init(Cipher.DECRYPT_MODE, key, parameters);
+        }
+        byte[] decrypted = new byte[inOffset + cipher.getOutputSize(encryptedLength)];
+        int decryptedLength = cipher.doFinal(encrypted, outOffset, encryptedLength, decrypted, inOffset);
+        if (decryptedLength != length || !Arrays.equals(Arrays.copyOfRange(plaintext, inOffset, inOffset + length), Arrays.copyOfRange(decrypted, inOffset, inOffset + length))) {
+            throw new AssertionError(transformation + " with key size " + key.getEncoded().length * 8 + " and length " + length + " does not decrypt to the plaintext");
+        }
+        return Arrays.copyOfRange(encrypted, outOffset, outOffset + encryptedLength);
+    }
+
+    @Test
+    public void testCRC32C() {
+        Assume.assumeNotNull((Object) Reference.CRC32C);
+        Assert.assertArrayEquals(Reference.CRC32C, computeCRC32C());
+    }
+
+    @Test
+    public void testAES() {
+        byte[][] actual = computeAES();
+        Assert.assertEquals(Reference.AES.length, actual.length);
+        for (int i = 0; i < actual.length; i++) {
+            Assert.assertArrayEquals("case " + i, Reference.AES[i], actual[i]);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.svm.core.jdk.Resources;
+
+public class ResourcesTest {
+
+    private static final String RESOURCE_NAME = "com/oracle/svm/test/ResourcesTest.data";
+    private static final int RESOURCE_SIZE = 1000;
+
+    public static class TestFeature implements Feature {
+        @Override
+        public void beforeAnalysis(BeforeAnalysisAccess access) {
+            Resources.registerResource(RESOURCE_NAME, new ByteArrayInputStream(resourceBytes()));
+        }
+    }
+
+    static byte[] resourceBytes() {
+        byte[] bytes = new byte[RESOURCE_SIZE];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testResourceAsStream() throws IOException {
+        try (InputStream in = ResourcesTest.class.getResourceAsStream("ResourcesTest.data")) {
+            Assert.assertNotNull(in);
+            Assert.assertTrue(in instanceof ByteArrayInputStream);
+            Assert.assertEquals(RESOURCE_SIZE, in.available());
+            Assert.assertTrue(in.markSupported());
+            in.mark(RESOURCE_SIZE);
+            Assert.assertArrayEquals(resourceBytes(), readAll(in));
+            Assert.assertEquals(-1, in.read());
+            in.reset();
+            Assert.assertEquals(10, in.skip(10));
+            Assert.assertEquals(resourceBytes()[10] & 0xff, in.read());
+        }
+        try (InputStream in = ResourcesTest.class.getClassLoader().getResourceAsStream(RESOURCE_NAME)) {
+            Assert.assertArrayEquals(resourceBytes(), readAll(in));
+        }
+        try (InputStream in = ResourcesTest.class.getResource("ResourcesTest.data").openStream()) {
+            Assert.assertArrayEquals(resourceBytes(), readAll(in));
+        }
+    }
+
+    @Test
+    public void testByteBuffer() {
+        ByteBuffer buffer = Resources.getAsByteBuffer(RESOURCE_NAME);
+        Assert.assertTrue(buffer.isReadOnly());
+        Assert.assertEquals(RESOURCE_SIZE, buffer.remaining());
+        byte[] bytes = new byte[RESOURCE_SIZE];
+        buffer.get(bytes);
+        Assert.assertArrayEquals(resourceBytes(), bytes);
+        Assert.assertNull(Resources.getAsByteBuffer("com/oracle/svm/test/ResourcesTest.missing"));
+    }
+
+    @Test
+    public void testChannelRead() throws IOException {
+        byte[] expected = resourceBytes();
+        try (SeekableByteChannel channel = Resources.newByteChannel(RESOURCE_NAME)) {
+            Assert.assertEquals(RESOURCE_SIZE, channel.size());
+            Assert.assertEquals(0, channel.position());
+
+            ByteBuffer dst = ByteBuffer.allocate(100);
+            Assert.assertEquals(100, channel.read(dst));
+            Assert.assertEquals(100, channel.position());
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(expected[i], dst.get(i));
+            }
+
+            // a read at the end of the resource only transfers the remaining bytes
+            channel.position(RESOURCE_SIZE - 30);
+            dst.clear();
+            Assert.assertEquals(30, channel.read(dst));
+            Assert.assertEquals(RESOURCE_SIZE, channel.position());
+            for (int i = 0; i < 30; i++) {
+                Assert.assertEquals(expected[RESOURCE_SIZE - 30 + i], dst.get(i));
+            }
+            dst.clear();
+            Assert.assertEquals(-1, channel.read(dst));
+
+            // positions beyond the end are allowed and read as end of stream
+            channel.position(RESOURCE_SIZE + 10);
+            Assert.assertEquals(RESOURCE_SIZE + 10, channel.position());
+            Assert.assertEquals(-1, channel.read(dst));
+            Assert.assertEquals(RESOURCE_SIZE, channel.size());
+        }
+        Assert.assertNull(Resources.newByteChannel("com/oracle/svm/test/ResourcesTest.missing"));
+    }
+
+    @Test
+    public void testChannelReadOnly() throws IOException {
+        try (SeekableByteChannel channel = Resources.newByteChannel(RESOURCE_NAME)) {
+            try {
+                channel.write(ByteBuffer.allocate(1));
+                Assert.fail("channel must not be writable");
+            } catch (NonWritableChannelException e) {
+                // expected
+            }
+            try {
+                channel.truncate(0);
+                Assert.fail("channel must not be writable");
+            } catch (NonWritableChannelException e) {
+                // expected
+            }
+            try {
+                channel.position(-1);
+                Assert.fail("negative position must be rejected");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testChannelClosed() throws IOException {
+        SeekableByteChannel channel = Resources.newByteChannel(RESOURCE_NAME);
+        Assert.assertTrue(channel.isOpen());
+        channel.close();
+        Assert.assertFalse(channel.isOpen());
+        // closing twice has no effect
+        channel.close();
+        try {
+            channel.read(ByteBuffer.allocate(1));
+            Assert.fail();
+        } catch (ClosedChannelException e) {
+            // expected
+        }
+        try {
+            channel.position();
+            Assert.fail();
+        } catch (ClosedChannelException e) {
+            // expected
+        }
+        try {
+            channel.position(0);
+            Assert.fail();
+        } catch (ClosedChannelException e) {
+            // expected
+        }
+        try {
+            channel.size();
+            Assert.fail();
+        } catch (ClosedChannelException e) {
+            // expected
+        }
+        try {
+            channel.write(ByteBuffer.allocate(1));
+            Assert.fail();
+        } catch (ClosedChannelException e) {
+            // expected
+        }
+        try {
+            channel.truncate(0);
+            Assert.fail();
+        } catch (ClosedChannelException e) {
+            // expected
+        }
+    }
+}
@@ -33,8 +33,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -65,6 +67,10 @@ import com.oracle.truffle.tools.profiler.impl.ProfilerToolFactory;
  * intervals, i.e. the state of the stack is copied and saved into trees of {@linkplain ProfilerNode
  * nodes}, which represent the profile of the execution.
  * <p>
+ * Alternatively, with {@linkplain #setSafepointSampling(boolean) safepoint sampling} enabled, no
+ * shadow stack is maintained. Instead, the guest language stack of each thread is walked when the
+ * thread reaches a safepoint, which avoids any overhead for calls while the sampler is collecting.
+ * <p>
  * Usage example: {@codesnippet CPUSamplerSnippets#example}
  *
  * @since 0.30
@@ -201,6 +207,11 @@ public final class CPUSampler implements Closeable {
 
     private int stackLimit = 10000;
 
+    /*
+     * Maximum time in milliseconds takeSample() waits for threads to reach a safepoint.
+     */
+    private static final long SAFEPOINT_SAMPLE_TIMEOUT = 100;
+
     private SourceSectionFilter filter;
 
     private boolean stackOverflowed = false;
@@ -214,6 +225,10 @@ public final class CPUSampler implements Closeable {
     private volatile ShadowStack shadowStack;
     private volatile EventBinding<?> stacksBinding;
 
+    private boolean safepointSampling = false;
+    private volatile SafepointStackSampler safepointStackSampler;
+    private final Set<TruffleContext> activeContexts = ConcurrentHashMap.newKeySet();
+
     private final Map<Thread, ProfilerNode<Payload>> rootNodes = new HashMap<>();
 
     private final Env env;
@@ -229,7 +244,7 @@ public final class CPUSampler implements Closeable {
         env.getInstrumenter().attachContextsListener(new ContextsListener() {
             @Override
             public void onContextCreated(TruffleContext context) {
-
+                activeContexts.add(context);
             }
 
             @Override
@@ -256,7 +271,11 @@ public final class CPUSampler implements Closeable {
 
             @Override
             public void onContextClosed(TruffleContext context) {
-
+                activeContexts.remove(context);
+                SafepointStackSampler sampler = safepointStackSampler;
+                if (sampler != null) {
+                    sampler.onContextClosed();
+                }
             }
         }, true);
     }
@@ -374,6 +393,30 @@ public final class CPUSampler implements Closeable {
         this.filter = filter;
     }
 
+    /**
+     * Sets whether the sampler walks the guest language stacks at safepoints instead of keeping a
+     * shadow stack. Safepoint sampling does not instrument the executed code and therefore has
+     * almost no impact on performance between two samples. Since inlined roots cannot be told
+     * apart from compilation roots when walking the stack, {@link Mode#EXCLUDE_INLINED_ROOTS}
+     * behaves like {@link Mode#ROOTS} in this mode.
+     *
+     * @param safepointSampling whether to take samples at safepoints
+     * @since 21.2
+     */
+    public synchronized void setSafepointSampling(boolean safepointSampling) {
+        enterChangeConfig();
+        this.safepointSampling = safepointSampling;
+    }
+
+    /**
+     * @return whether the sampler walks the guest language stacks at safepoints instead of keeping
+     *         a shadow stack.
+     * @since 21.2
+     */
+    public synchronized boolean isSafepointSampling() {
+        return safepointSampling;
+    }
+
     /**
      * Sets the option to delay sampling until a non-internal language is initialized. Useful to
      * avoid internal language initialisation code in the samples.
@@ -544,6 +587,9 @@ public final class CPUSampler implements Closeable {
      * @since 19.0
      */
     public Map<Thread, List<StackTraceEntry>> takeSample() {
+        if (isSafepointSampling()) {
+            return takeSafepointSample();
+        }
         ShadowStack localShadowStack = shadowStack;
         if (localShadowStack == null) {
             localShadowStack = initializeShadowStack();
@@ -569,6 +615,27 @@ public final class CPUSampler implements Closeable {
         return Collections.unmodifiableMap(stacks);
     }
 
+    private Map<Thread, List<StackTraceEntry>> takeSafepointSample() {
+        SafepointStackSampler sampler = safepointStackSampler;
+        if (sampler == null) {
+            sampler = initializeSafepointStackSampler();
+        }
+        if (delaySamplingUntilNonInternalLangInit && !nonInternalLanguageContextInitialized) {
+            return Collections.emptyMap();
+        }
+        Map<Thread, List<StackTraceEntry>> stacks = new HashMap<>();
+        for (SafepointStackSampler.StackSample sample : sampler.sample(env, activeContexts, SAFEPOINT_SAMPLE_TIMEOUT)) {
+            if (sample.overflowed) {
+                stackOverflowed = true;
+                continue;
+            }
+            final List<StackTraceEntry> stackTraceEntries = Arrays.asList(sample.stack);
+            Collections.reverse(stackTraceEntries);
+            stacks.put(sample.thread, Collections.unmodifiableList(stackTraceEntries));
+        }
+        return Collections.unmodifiableMap(stacks);
+    }
+
     static Map<Thread, StackTraceElement[]> toStackTraceElement(Map<Thread, List<StackTraceEntry>> sample) {
         Map<Thread, StackTraceElement[]> converted = new HashMap<>();
         for (Entry<Thread, List<StackTraceEntry>> entry : sample.entrySet()) {
@@ -591,6 +658,18 @@ public final class CPUSampler implements Closeable {
         return localShadowStack;
     }
 
+    private synchronized SafepointStackSampler initializeSafepointStackSampler() {
+        SafepointStackSampler sampler = safepointStackSampler;
+        if (sampler == null) {
+            SourceSectionFilter f = this.filter;
+            if (f == null) {
+                f = DEFAULT_FILTER;
+            }
+            this.safepointStackSampler = sampler = new SafepointStackSampler(env.getInstrumenter(), stackLimit, f, mode == Mode.STATEMENTS);
+        }
+        return sampler;
+    }
+
     private void resetSampling() {
         assert Thread.holdsLock(this);
         cleanup();
@@ -602,7 +681,11 @@ public final class CPUSampler implements Closeable {
             samplerThread = new Timer("Sampling thread", true);
         }
         this.stackOverflowed = false;
-        initializeShadowStack();
+        if (safepointSampling) {
+            initializeSafepointStackSampler();
+        } else {
+            initializeShadowStack();
+        }
         this.samplerTask = new SamplingTimerTask();
         this.samplerThread.schedule(samplerTask, delay, period);
     }
@@ -640,6 +723,7 @@ public final class CPUSampler implements Closeable {
     }
 
     private void invalidateStack() {
+        safepointStackSampler = null;
         ShadowStack localShadowStack = this.shadowStack;
         if (localShadowStack != null) {
             synchronized (this) {
@@ -666,19 +750,21 @@ public final class CPUSampler implements Closeable {
             }
             long timestamp = System.currentTimeMillis();
             boolean sampleTaken = false;
+            SafepointStackSampler sampler = safepointStackSampler;
+            if (sampler != null) {
+                // wait at most one period for the threads to reach a safepoint
+                for (SafepointStackSampler.StackSample sample : sampler.sample(env, activeContexts, period)) {
+                    if (sample.overflowed) {
+                        stackOverflowed = true;
+                        continue;
+                    }
+                    sampleTaken |= record(sample.stack, timestamp, findThreadNode(sample.thread));
+                }
+            }
             ShadowStack localShadowStack = shadowStack;
             if (localShadowStack != null) {
                 for (ShadowStack.ThreadLocalStack stack : localShadowStack.getStacks()) {
-                    ProfilerNode<Payload> threadNode;
-                    synchronized (CPUSampler.this) {
-                        threadNode = rootNodes.computeIfAbsent(stack.getThread(), new Function<Thread, ProfilerNode<Payload>>() {
-                            @Override
-                            public ProfilerNode<Payload> apply(Thread thread) {
-                                return new ProfilerNode<>();
-                            }
-                        });
-                    }
-                    sampleTaken |= sample(stack, timestamp, threadNode);
+                    sampleTaken |= sample(stack, timestamp, findThreadNode(stack.getThread()));
                 }
             }
             if (sampleTaken) {
@@ -686,6 +772,17 @@ public final class CPUSampler implements Closeable {
             }
         }
 
+        private ProfilerNode<Payload> findThreadNode(Thread thread) {
+            synchronized (CPUSampler.this) {
+                return rootNodes.computeIfAbsent(thread, new Function<Thread, ProfilerNode<Payload>>() {
+                    @Override
+                    public ProfilerNode<Payload> apply(Thread t) {
+                        return new ProfilerNode<>();
+                    }
+                });
+            }
+        }
+
         boolean sample(ShadowStack.ThreadLocalStack stack, long timestamp, ProfilerNode<Payload> threadNode) {
             if (stack.hasStackOverflowed()) {
                 stackOverflowed = true;
@@ -695,7 +792,10 @@ public final class CPUSampler implements Closeable {
                 // nothing on the stack
                 return false;
             }
-            StackTraceEntry[] stackFrames = stack.getStack();
+            return record(stack.getStack(), timestamp, threadNode);
+        }
+
+        boolean record(StackTraceEntry[] stackFrames, long timestamp, ProfilerNode<Payload> threadNode) {
             if (stackFrames == null || stackFrames.length == 0) {
                 return false;
             }
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.ThreadLocalAction;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.frame.FrameInstanceVisitor;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.StandardTags.RootTag;
+import com.oracle.truffle.api.instrumentation.StandardTags.StatementTag;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument.Env;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Samples guest language stacks using {@link ThreadLocalAction thread local actions} instead of
+ * maintaining a {@link ShadowStack}. The stack of each thread is walked when it reaches its next
+ * safepoint, so no instrumentation is inserted into the executed code.
+ */
+final class SafepointStackSampler {
+
+    private static final StackTraceEntry[] NO_ENTRIES = new StackTraceEntry[0];
+
+    private final Instrumenter instrumenter;
+    private final int stackLimit;
+    private final SourceSectionFilter rootFilter;
+    private final SourceSectionFilter statementFilter;
+    /*
+     * Per root node the interpreted and the compiled stack trace entry, or NO_ENTRIES if the root
+     * is not included by the filter. The entries reference the nodes of their root, so a weak-keyed
+     * map would not release them. Instead the cache is cleared whenever a context is closed.
+     */
+    private final ConcurrentHashMap<RootNode, StackTraceEntry[]> rootEntries = new ConcurrentHashMap<>();
+
+    SafepointStackSampler(Instrumenter instrumenter, int stackLimit, SourceSectionFilter filter, boolean sampleStatements) {
+        this.instrumenter = instrumenter;
+        this.stackLimit = stackLimit;
+        this.rootFilter = SourceSectionFilter.newBuilder().tagIs(RootTag.class).and(filter).build();
+        this.statementFilter = sampleStatements ? SourceSectionFilter.newBuilder().tagIs(StatementTag.class).and(filter).build() : null;
+    }
+
+    /**
+     * Requests a stack sample from all threads active in the given contexts and waits at most
+     * {@code timeoutMillis} for them to reach a safepoint. Threads that do not reach a safepoint in
+     * time are not part of the result.
+     */
+    List<StackSample> sample(Env env, Collection<TruffleContext> contexts, long timeoutMillis) {
+        SampleAction action = new SampleAction();
+        List<Future<Void>> futures = new ArrayList<>(contexts.size());
+        for (TruffleContext context : contexts) {
+            try {
+                futures.add(env.submitThreadLocal(context, null, action));
+            } catch (IllegalStateException e) {
+                // context closed concurrently
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Future<Void> future : futures) {
+            try {
+                future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(false);
+            } catch (ExecutionException e) {
+                // sampling failed for this context
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        action.closed = true;
+        return new ArrayList<>(action.samples);
+    }
+
+    /**
+     * Releases the cached entries so that the root nodes of closed contexts can be collected. The
+     * roots of other contexts are looked up again on their next sample.
+     */
+    void onContextClosed() {
+        rootEntries.clear();
+    }
+
+    private StackTraceEntry lookupEntry(RootNode root, boolean compiled) {
+        StackTraceEntry[] entries = rootEntries.get(root);
+        if (entries == null) {
+            Node node = findIncludedNode(root, rootFilter);
+            if (node == null || node.getSourceSection() == null) {
+                entries = NO_ENTRIES;
+            } else {
+                StackTraceEntry interpreted = new StackTraceEntry(instrumenter, node, StackTraceEntry.STATE_INTERPRETED);
+                if (interpreted.getRootName() == null) {
+                    entries = NO_ENTRIES;
+                } else {
+                    entries = new StackTraceEntry[]{interpreted, new StackTraceEntry(interpreted, StackTraceEntry.STATE_COMPILATION_ROOT)};
+                }
+            }
+            rootEntries.putIfAbsent(root, entries);
+        }
+        if (entries.length == 0) {
+            return null;
+        }
+        return entries[compiled ? 1 : 0];
+    }
+
+    private StackTraceEntry lookupStatementEntry(Node location, boolean compiled) {
+        for (Node node = location; node != null && !(node instanceof RootNode); node = node.getParent()) {
+            if (node.getSourceSection() != null && statementFilter.includes(node)) {
+                return new StackTraceEntry(instrumenter, node, compiled ? StackTraceEntry.STATE_COMPILATION_ROOT : StackTraceEntry.STATE_INTERPRETED);
+            }
+        }
+        return null;
+    }
+
+    private static Node findIncludedNode(Node node, SourceSectionFilter filter) {
+        if (filter.includes(node)) {
+            return node;
+        }
+        Node[] found = new Node[1];
+        NodeUtil.forEachChild(node, (child) -> {
+            found[0] = findIncludedNode(child, filter);
+            return found[0] == null;
+        });
+        return found[0];
+    }
+
+    /**
+     * The sampled stack of one thread, outermost frame first.
+     */
+    static final class StackSample {
+
+        final Thread thread;
+        final StackTraceEntry[] stack;
+        final boolean overflowed;
+
+        StackSample(Thread thread, StackTraceEntry[] stack, boolean overflowed) {
+            this.thread = thread;
+            this.stack = stack;
+            this.overflowed = overflowed;
+        }
+    }
+
+    private final class SampleAction extends ThreadLocalAction {
+
+        final ConcurrentLinkedQueue<StackSample> samples = new ConcurrentLinkedQueue<>();
+        volatile boolean closed;
+
+        SampleAction() {
+            super(false, false);
+        }
+
+        @Override
+        protected void perform(Access access) {
+            if (closed) {
+                // the sampling round already timed out
+                return;
+            }
+            StackVisitor visitor = new StackVisitor(access.getLocation());
+            Truffle.getRuntime().iterateFrames(visitor);
+            List<StackTraceEntry> entries = visitor.entries;
+            if (entries.isEmpty() && !visitor.overflowed) {
+                return;
+            }
+            StackTraceEntry[] stack = new StackTraceEntry[entries.size()];
+            for (int i = 0; i < stack.length; i++) {
+                stack[i] = entries.get(stack.length - 1 - i);
+            }
+            samples.add(new StackSample(access.getThread(), stack, visitor.overflowed));
+        }
+    }
+
+    private final class StackVisitor implements FrameInstanceVisitor<FrameInstance> {
+
+        final List<StackTraceEntry> entries = new ArrayList<>();
+        boolean overflowed;
+        private Node location;
+
+        StackVisitor(Node topLocation) {
+            this.location = topLocation;
+        }
+
+        @Override
+        public FrameInstance visitFrame(FrameInstance frameInstance) {
+            if (entries.size() >= stackLimit) {
+                overflowed = true;
+                return frameInstance;
+            }
+            Node currentLocation = location != null ? location : frameInstance.getCallNode();
+            location = null;
+            CallTarget target = frameInstance.getCallTarget();
+            if (target instanceof RootCallTarget) {
+                boolean compiled = frameInstance.isVirtualFrame();
+                if (statementFilter != null && currentLocation != null) {
+                    StackTraceEntry statement = lookupStatementEntry(currentLocation, compiled);
+                    if (statement != null) {
+                        entries.add(statement);
+                    }
+                }
+                StackTraceEntry root = lookupEntry(((RootCallTarget) target).getRootNode(), compiled);
+                if (root != null) {
+                    entries.add(root);
+                }
+            }
+            return null;
+        }
+    }
+}
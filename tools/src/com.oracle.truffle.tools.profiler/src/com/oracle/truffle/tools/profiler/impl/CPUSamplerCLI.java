@@ -130,6 +130,9 @@ class CPUSamplerCLI extends ProfilerCLI {
     @Option(name = "MinSamples", help = "Remove elements from output if they have less samples than this value (default: 0).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Integer> MIN_SAMPLES = new OptionKey<>(0);
 
+    @Option(name = "SafepointSampling", help = "Walk the guest stacks at safepoints instead of maintaining a shadow stack. Avoids instrumenting calls and reduces the overhead of sampling (default: false).", category = OptionCategory.EXPERT) //
+    static final OptionKey<Boolean> SAFEPOINT_SAMPLING = new OptionKey<>(false);
+
     static void handleOutput(TruffleInstrument.Env env, CPUSampler sampler) {
         try (PrintStream out = chooseOutputStream(env, OUTPUT_FILE)) {
             if (sampler.hasStackOverflowed()) {
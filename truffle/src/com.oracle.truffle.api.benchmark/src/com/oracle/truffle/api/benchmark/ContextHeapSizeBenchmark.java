@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.graalvm.polyglot.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Measures the cost of a heap size check of a context that retains a large heap, with and without
+ * incremental heap size accounting.
+ */
+public class ContextHeapSizeBenchmark extends TruffleBenchmark {
+
+    static final String HEAP_LANGUAGE = "benchmark-heap-size-language";
+
+    private static final int ARRAY_LENGTH = 126; // 1KB per array including the header
+
+    @State(Scope.Thread)
+    public static class HeapSizeState {
+
+        @Param({"128"}) int retainedMegabytes;
+        @Param({"false", "true"}) boolean incremental;
+
+        final AtomicBoolean cancelled = new AtomicBoolean(false);
+        Context context;
+        TruffleInstrument.Env instrumentEnv;
+        long stopAtBytes;
+
+        @Setup
+        public void setup() {
+            context = Context.newBuilder().allowExperimentalOptions(true).option("engine.IncrementalHeapSizeCalculation", String.valueOf(incremental)).build();
+            instrumentEnv = context.getEngine().getInstruments().get("InstrumentationUpdateInstrument").lookup(TruffleInstrument.Env.class);
+            context.initialize(HEAP_LANGUAGE);
+            context.enter();
+            // the check is not expected to exceed the limit
+            stopAtBytes = 2L * retainedMegabytes * 1024L * 1024L;
+            HeapSizeLanguage.getCurrentData().allocate(retainedMegabytes * 1024);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.leave();
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public long checkHeapSize(HeapSizeState state) {
+        return state.instrumentEnv.calculateContextHeapSize(state.instrumentEnv.getEnteredContext(), state.stopAtBytes, state.cancelled);
+    }
+
+    static final class HeapData {
+
+        Object[] arrays;
+
+        void allocate(int count) {
+            Object[] result = new Object[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = new long[ARRAY_LENGTH];
+            }
+            this.arrays = result;
+        }
+    }
+
+    @TruffleLanguage.Registration(id = HEAP_LANGUAGE, name = "")
+    public static class HeapSizeLanguage extends TruffleLanguage<HeapData> {
+
+        @Override
+        protected HeapData createContext(Env env) {
+            return new HeapData();
+        }
+
+        static HeapData getCurrentData() {
+            return getCurrentContext(HeapSizeLanguage.class);
+        }
+
+        @Override
+        protected CallTarget parse(ParsingRequest request) throws Exception {
+            return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(42));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * Builds short-lived objects with many different property orderings, similar to parsing JSON
+ * records, which creates wide and deep shape trees whose branches die with the objects. Compare
+ * {@link #compactedTransitions} and {@link #uncompactedTransitions} with {@code -prof gc} for the
+ * footprint of the shape trees.
+ */
+@State(Scope.Thread)
+public class ShapeTreeBenchmark extends TruffleBenchmark {
+
+    private static final DynamicObjectLibrary LIBRARY = DynamicObjectLibrary.getUncached();
+
+    @Param({"16"}) int keys;
+    @Param({"64"}) int orderings;
+    @Param({"256"}) int records;
+
+    private final Shape rootShape = Shape.newBuilder().build();
+    private Object[][] keyOrderings;
+    private int nextOrdering;
+
+    @Setup
+    public void setup() {
+        List<Object> keyList = new ArrayList<>();
+        for (int i = 0; i < keys; i++) {
+            keyList.add("key" + i);
+        }
+        Random random = new Random(42);
+        keyOrderings = new Object[orderings][];
+        for (int i = 0; i < orderings; i++) {
+            Collections.shuffle(keyList, random);
+            keyOrderings[i] = keyList.toArray();
+        }
+    }
+
+    @Benchmark
+    public Object compactedTransitions() {
+        return buildRecords();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dtruffle.object.CompactTransitionMaps=false")
+    public Object uncompactedTransitions() {
+        return buildRecords();
+    }
+
+    private Object buildRecords() {
+        Object last = null;
+        for (int i = 0; i < records; i++) {
+            Object[] ordering = keyOrderings[nextOrdering++ % orderings];
+            DynamicObject record = new BenchmarkObject(rootShape);
+            for (int k = 0; k < ordering.length; k++) {
+                LIBRARY.put(record, ordering[k], k);
+            }
+            last = LIBRARY.getOrDefault(record, ordering[0], null);
+        }
+        return last;
+    }
+
+    static final class BenchmarkObject extends DynamicObject {
+        BenchmarkObject(Shape shape) {
+            super(shape);
+        }
+    }
+}
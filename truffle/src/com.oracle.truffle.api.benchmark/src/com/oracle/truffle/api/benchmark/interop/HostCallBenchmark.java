@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark.interop;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.benchmark.TruffleBenchmark;
+
+/**
+ * Measures the cost of host method calls through interop, for single methods with primitive and
+ * string parameters, overloaded methods and methods of host collections.
+ */
+@State(Scope.Thread)
+public class HostCallBenchmark extends TruffleBenchmark {
+
+    private static final Integer ONE = 1;
+    private static final Integer TWO = 2;
+    private static final String TEXT = "text";
+
+    private Context context;
+    private Value pojo;
+    private Value list;
+
+    @Setup
+    public void setup() {
+        context = Context.newBuilder().allowHostAccess(HostAccess.ALL).build();
+        context.enter();
+        pojo = context.asValue(new HostPojo());
+        List<Object> elements = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            elements.add(i);
+        }
+        list = context.asValue(elements);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.leave();
+        context.close();
+    }
+
+    @Benchmark
+    public Object primitiveArguments() {
+        return pojo.invokeMember("add", ONE, TWO);
+    }
+
+    @Benchmark
+    public Object stringArgument() {
+        return pojo.invokeMember("length", TEXT);
+    }
+
+    @Benchmark
+    public Object overloadedPrimitive() {
+        return pojo.invokeMember("describe", ONE);
+    }
+
+    @Benchmark
+    public Object overloadedString() {
+        return pojo.invokeMember("describe", TEXT);
+    }
+
+    @Benchmark
+    public Object collectionGet() {
+        return list.invokeMember("get", ONE);
+    }
+
+    public static final class HostPojo {
+
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        public int length(String s) {
+            return s.length();
+        }
+
+        public int describe(int value) {
+            return value;
+        }
+
+        public int describe(String value) {
+            return value.length();
+        }
+    }
+}
@@ -102,6 +102,36 @@ public class RetainedSizeComputationTest {
         }
     }
 
+    @Test
+    public void testIncrementalRetainedSize() throws IOException {
+        Assume.assumeFalse(TruffleOptions.AOT);
+        Assume.assumeFalse(Truffle.getRuntime() instanceof DefaultTruffleRuntime);
+        try (Context context = Context.newBuilder().allowExperimentalOptions(true).option("engine.IncrementalHeapSizeCalculation", "true").build()) {
+            TruffleInstrument.Env instrumentEnv = context.getEngine().getInstruments().get("InstrumentationUpdateInstrument").lookup(TruffleInstrument.Env.class);
+            context.initialize(InstrumentationTestLanguage.ID);
+            context.enter();
+            try {
+                for (int i = 0; i < 10000; i++) {
+                    defineFoobarFunction(context, i);
+                }
+                long limit = 16L * 1024L * 1024L;
+                long retainedSize = instrumentEnv.calculateContextHeapSize(instrumentEnv.getEnteredContext(), limit, new AtomicBoolean(false));
+                Assert.assertTrue(retainedSize > 1024L * 1024L);
+                Assert.assertTrue(retainedSize < limit);
+                // either estimated from the allocations since the last calculation or walked again
+                long estimatedSize = instrumentEnv.calculateContextHeapSize(instrumentEnv.getEnteredContext(), limit, new AtomicBoolean(false));
+                Assert.assertTrue(estimatedSize > 1024L * 1024L);
+                Assert.assertTrue(estimatedSize <= limit);
+                // an estimate above the limit must be confirmed by walking the heap
+                long stopAtBytes = retainedSize / 2;
+                long confirmedSize = instrumentEnv.calculateContextHeapSize(instrumentEnv.getEnteredContext(), stopAtBytes, new AtomicBoolean(false));
+                Assert.assertTrue(confirmedSize > stopAtBytes);
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
     @Test
     public void testRetainedSizeWithStatementLimit() {
         Assume.assumeFalse(TruffleOptions.AOT);
@@ -1387,6 +1387,44 @@ public abstract class InteropLibrary extends Library {
         throw UnsupportedMessageException.create();
     }
 
+    /**
+     * Reads {@code length} bytes from the receiver object, starting at the given byte offset from
+     * the start of the buffer, into the destination array, starting at the given destination
+     * offset. Implementations backed by contiguous memory should override this message with a bulk
+     * copy.
+     * <p>
+     * The access is <em>not</em> guaranteed to be atomic. Therefore, this message is <em>not</em>
+     * thread-safe.
+     * <p>
+     * Invoking this message does not cause any observable side-effects.
+     * <p>
+     * By default, it reads the bytes one by one using {@link #readBufferByte(Object, long)}.
+     *
+     * @param byteOffset the offset, in bytes, from the start of the buffer at which the first byte
+     *            is read
+     * @param destination the array the bytes are copied into
+     * @param destinationOffset the index in {@code destination} at which the first byte is stored,
+     *            the caller must ensure that
+     *            <code>0 <= destinationOffset && destinationOffset + length <= destination.length</code>
+     * @param length the number of bytes to read
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset < 0 || length < 0 || byteOffset + length > </code>{@link #getBufferSize(Object)}
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} returns
+     *             {@code false}
+     * @since 21.2
+     */
+    public void readBuffer(Object receiver, long byteOffset, byte[] destination, int destinationOffset, int length) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!hasBufferElements(receiver)) {
+            throw UnsupportedMessageException.create();
+        }
+        if (byteOffset < 0 || length < 0 || byteOffset > getBufferSize(receiver) - length) {
+            throw InvalidBufferOffsetException.create(byteOffset, length);
+        }
+        for (int i = 0; i < length; i++) {
+            destination[destinationOffset + i] = readBufferByte(receiver, byteOffset + i);
+        }
+    }
+
     /**
      * Reads the short from the receiver object in the given byte order at the given byte offset
      * from the start of the buffer.
@@ -3928,6 +3966,21 @@ public abstract class InteropLibrary extends Library {
             }
         }
 
+        @Override
+        public void readBuffer(Object receiver, long byteOffset, byte[] destination, int destinationOffset, int length) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            assert preCondition(receiver);
+            try {
+                delegate.readBuffer(receiver, byteOffset, destination, destinationOffset, length);
+                assert delegate.hasBufferElements(receiver) : violationInvariant(receiver, byteOffset);
+            } catch (UnsupportedMessageException e) {
+                assert !delegate.hasBufferElements(receiver) : violationPost(receiver, e);
+                throw e;
+            } catch (InteropException e) {
+                assert e instanceof InvalidBufferOffsetException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
         @Override
         public void writeBufferByte(Object receiver, long byteOffset, byte value) throws UnsupportedMessageException, InvalidBufferOffsetException {
             assert preCondition(receiver);
@@ -333,6 +333,67 @@ public class ContextPreInitializationTest {
         assertEquals(1, secondLangCtx.disposeThreadCount);
     }
 
+    @Test
+    public void testPoolSizeExplicitEngine() throws Exception {
+        setPatchable(FIRST);
+        System.setProperty("polyglot.engine.PreInitializedContextPoolSize", "2");
+        try {
+            doContextPreinitialize(FIRST);
+        } finally {
+            System.clearProperty("polyglot.engine.PreInitializedContextPoolSize");
+        }
+        List<CountingContext> contexts = new ArrayList<>(emittedContexts);
+        assertEquals(2, contexts.size());
+        for (CountingContext langCtx : findContexts(FIRST, contexts)) {
+            assertEquals(1, langCtx.createContextCount);
+            assertEquals(0, langCtx.patchContextCount);
+        }
+        try (Engine engine = Engine.create()) {
+            try (Context ctx1 = Context.newBuilder().engine(engine).build(); Context ctx2 = Context.newBuilder().engine(engine).build()) {
+                assertEquals("test", ctx1.eval(Source.create(FIRST, "test")).asString());
+                assertEquals("test", ctx2.eval(Source.create(FIRST, "test")).asString());
+                // both contexts use a pre-initialized context from the pool
+                contexts = new ArrayList<>(emittedContexts);
+                assertEquals(2, contexts.size());
+                for (CountingContext langCtx : findContexts(FIRST, contexts)) {
+                    assertEquals(1, langCtx.createContextCount);
+                    assertEquals(1, langCtx.patchContextCount);
+                }
+                // the pool is exhausted, a further context is created on demand
+                try (Context ctx3 = Context.newBuilder().engine(engine).build()) {
+                    assertEquals("test", ctx3.eval(Source.create(FIRST, "test")).asString());
+                    contexts = new ArrayList<>(emittedContexts);
+                    assertEquals(3, contexts.size());
+                    CountingContext created = contexts.get(2);
+                    assertEquals(1, created.createContextCount);
+                    assertEquals(0, created.patchContextCount);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPoolSizeBoundEngine() throws Exception {
+        setPatchable(FIRST);
+        System.setProperty("polyglot.engine.PreInitializedContextPoolSize", "2");
+        try {
+            doContextPreinitialize(FIRST);
+        } finally {
+            System.clearProperty("polyglot.engine.PreInitializedContextPoolSize");
+        }
+        // an engine pre-initialized with a pool is not used for contexts without an explicit engine
+        assertEquals(2, emittedContexts.size());
+        try (Context ctx = Context.create()) {
+            Value res = ctx.eval(Source.create(FIRST, "test"));
+            assertEquals("test", res.asString());
+            List<CountingContext> contexts = new ArrayList<>(emittedContexts);
+            assertEquals(3, contexts.size());
+            CountingContext created = contexts.get(2);
+            assertEquals(1, created.createContextCount);
+            assertEquals(0, created.patchContextCount);
+        }
+    }
+
     @Test
     public void testMoreLanguagesPreInitialization() throws Exception {
         setPatchable(FIRST, SECOND);
@@ -1032,6 +1032,35 @@ public class HostAccessTest {
         assertEquals(43, context.asValue(43).asInt());
     }
 
+    public static class PassString {
+        @Export
+        public String f0(String arg0) {
+            return arg0;
+        }
+
+        @Export
+        public String f1(String arg0) {
+            return arg0;
+        }
+
+        @Export
+        public String f1(int arg0) {
+            return String.valueOf(arg0);
+        }
+    }
+
+    @Test
+    public void testConverterSameTypeArguments() {
+        setupEnv(HostAccess.newBuilder().targetTypeMapping(String.class, String.class, (v) -> v.equals("41"), (v) -> "42"));
+        Value value = context.asValue(new PassString());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("42", value.invokeMember("f0", "41").asString());
+            assertEquals("43", value.invokeMember("f0", "43").asString());
+            assertEquals("42", value.invokeMember("f1", "41").asString());
+            assertEquals("41", value.invokeMember("f1", 41).asString());
+        }
+    }
+
     @Test
     public void testTargetOrderStrict() {
         setupEnv(HostAccess.newBuilder().targetTypeMapping(Integer.class, Integer.class, null,
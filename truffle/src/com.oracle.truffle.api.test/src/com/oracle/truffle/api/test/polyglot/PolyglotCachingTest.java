@@ -54,6 +54,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
@@ -103,6 +105,155 @@ public class PolyglotCachingTest {
         assertEquals(4, parseCalled.get());
     }
 
+    @Test
+    public void testTraceSourceCache() throws Exception {
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        List<String> messages = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Source cachedSource = Source.newBuilder(ProxyLanguage.ID, "testTraceSourceCache", "name").cached(true).build();
+        try (Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.TraceSourceCache", "true").logHandler(handler).build()) {
+            c.eval(cachedSource);
+            c.eval(cachedSource);
+            c.eval(cachedSource);
+        }
+        Assert.assertTrue(messages.toString(), messages.stream().anyMatch((m) -> m.startsWith("Source cache statistics: hits 2, misses 1, evictions 0")));
+    }
+
+    private static AtomicInteger setupParseCounter() {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        return parseCalled;
+    }
+
+    /*
+     * The strong source cache is only used by stored engines, which cannot be created in this test
+     * environment, so the engine is marked as stored directly.
+     */
+    private static Engine createStoredEngine(String... options) throws ReflectiveOperationException {
+        Engine.Builder builder = Engine.newBuilder().allowExperimentalOptions(true);
+        for (int i = 0; i < options.length; i += 2) {
+            builder.option(options[i], options[i + 1]);
+        }
+        Engine engine = builder.build();
+        Field receiverField = Engine.class.getDeclaredField("receiver");
+        receiverField.setAccessible(true);
+        Object engineImpl = receiverField.get(engine);
+        Field storeEngineField = engineImpl.getClass().getDeclaredField("storeEngine");
+        storeEngineField.setAccessible(true);
+        storeEngineField.setBoolean(engineImpl, true);
+        return engine;
+    }
+
+    private static Source cachedSource(String characters) {
+        return Source.newBuilder(ProxyLanguage.ID, characters, characters).cached(true).buildLiteral();
+    }
+
+    @Test
+    public void testSourceCacheMaxEntries() throws Exception {
+        AtomicInteger parseCalled = setupParseCounter();
+        try (Engine engine = createStoredEngine("engine.SourceCacheMaxEntries", "2");
+                        Context c = Context.newBuilder().engine(engine).build()) {
+            c.eval(cachedSource("s1"));
+            c.eval(cachedSource("s2"));
+            assertEquals(2, parseCalled.get());
+            c.eval(cachedSource("s1"));
+            c.eval(cachedSource("s2"));
+            assertEquals(2, parseCalled.get());
+
+            // s1 is the least recently used source and is evicted
+            c.eval(cachedSource("s3"));
+            assertEquals(3, parseCalled.get());
+            c.eval(cachedSource("s2"));
+            c.eval(cachedSource("s3"));
+            assertEquals(3, parseCalled.get());
+            c.eval(cachedSource("s1"));
+            assertEquals(4, parseCalled.get());
+        }
+    }
+
+    @Test
+    public void testSourceCacheMaxBytes() throws Exception {
+        AtomicInteger parseCalled = setupParseCounter();
+        // each source has 10 characters, estimated as 20 bytes, so two sources fit in the cache
+        try (Engine engine = createStoredEngine("engine.SourceCacheMaxBytes", "50");
+                        Context c = Context.newBuilder().engine(engine).build()) {
+            c.eval(cachedSource("source0001"));
+            c.eval(cachedSource("source0002"));
+            c.eval(cachedSource("source0003"));
+            assertEquals(3, parseCalled.get());
+            c.eval(cachedSource("source0002"));
+            c.eval(cachedSource("source0003"));
+            assertEquals(3, parseCalled.get());
+            c.eval(cachedSource("source0001"));
+            assertEquals(4, parseCalled.get());
+        }
+    }
+
+    @Test
+    public void testSourceCacheUnbounded() throws Exception {
+        AtomicInteger parseCalled = setupParseCounter();
+        try (Engine engine = createStoredEngine();
+                        Context c = Context.newBuilder().engine(engine).build()) {
+            for (int i = 0; i < 100; i++) {
+                c.eval(cachedSource("s" + i));
+            }
+            for (int i = 0; i < 100; i++) {
+                c.eval(cachedSource("s" + i));
+            }
+            assertEquals(100, parseCalled.get());
+        }
+    }
+
+    /*
+     * A source that was hit once and is followed by more one-off sources than the cache holds is
+     * evicted with LRU but retained with SEGMENTED_LRU.
+     */
+    @Test
+    public void testSourceCacheEvictionPolicies() throws Exception {
+        assertEquals(5, evaluateHotSourceAndOneOffSources("LRU"));
+        assertEquals(4, evaluateHotSourceAndOneOffSources("SEGMENTED_LRU"));
+    }
+
+    private static int evaluateHotSourceAndOneOffSources(String evictionPolicy) throws Exception {
+        AtomicInteger parseCalled = setupParseCounter();
+        try (Engine engine = createStoredEngine("engine.SourceCacheMaxEntries", "3", "engine.SourceCacheEviction", evictionPolicy);
+                        Context c = Context.newBuilder().engine(engine).build()) {
+            c.eval(cachedSource("hot"));
+            c.eval(cachedSource("hot"));
+            assertEquals(1, parseCalled.get());
+            c.eval(cachedSource("once1"));
+            c.eval(cachedSource("once2"));
+            c.eval(cachedSource("once3"));
+            assertEquals(4, parseCalled.get());
+            c.eval(cachedSource("hot"));
+            return parseCalled.get();
+        }
+    }
+
     /*
      * Tests that the outer source instance is never the same as the one passed in. That allows the
      * outer source instance to be collected while the inner one is still referenced strongly. The
@@ -469,6 +469,28 @@ public class ValueAPITest {
         }
     }
 
+    @Test
+    public void testBuffersBulkRead() {
+        for (final ByteBuffer buffer : makeTestBuffers()) {
+            final Value value = context.asValue(buffer);
+            final byte[] bytes = new byte[10];
+            value.readBuffer(0, bytes, 1, 8);
+            Assert.assertArrayEquals(new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 0}, bytes);
+            value.readBuffer(6, bytes, 0, 2);
+            Assert.assertArrayEquals(new byte[]{7, 8, 2, 3, 4, 5, 6, 7, 8, 0}, bytes);
+            value.readBuffer(8, bytes, 0, 0);
+            Assert.assertEquals("Side effect: readBuffer should not modify wrapped buffer's position", 0, buffer.position());
+
+            final String className = buffer.getClass().getName();
+            assertFails(() -> value.readBuffer(-1, bytes, 0, 2), IndexOutOfBoundsException.class,
+                            "Invalid buffer access of length 2 at byte offset -1 for buffer '" + className + "[pos=0 lim=8 cap=8]'(language: Java, type: " + className + ").");
+            assertFails(() -> value.readBuffer(7, bytes, 0, 2), IndexOutOfBoundsException.class,
+                            "Invalid buffer access of length 2 at byte offset 7 for buffer '" + className + "[pos=0 lim=8 cap=8]'(language: Java, type: " + className + ").");
+            AbstractPolyglotTest.assertFails(() -> value.readBuffer(0, bytes, 9, 2), IndexOutOfBoundsException.class);
+            AbstractPolyglotTest.assertFails(() -> value.readBuffer(0, bytes, -1, 2), IndexOutOfBoundsException.class);
+        }
+    }
+
     @Test
     public void testBuffersWrite() {
         for (final ByteBuffer buffer : makeTestBuffers()) {
@@ -206,4 +206,47 @@ public class LeakCheckTest {
         assertSame(prevShape, currShape);
     }
 
+    /**
+     * Transition maps whose branches have been garbage-collected are compacted, the remaining
+     * transitions must still be cached and new transitions can be added afterwards.
+     */
+    @Test
+    public void testTransitionMapCompaction() {
+        Shape emptyShape = LAYOUT.createShape(OBJECT_TYPE);
+
+        DynamicObject obj = emptyShape.newInstance();
+        LIBRARY.put(obj, "kept", 1);
+        Shape keptShape = obj.getShape();
+
+        List<WeakReference<Shape>> weakShapeRefs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            obj = emptyShape.newInstance();
+            LIBRARY.put(obj, "dropped" + i, i);
+            weakShapeRefs.add(new WeakReference<>(obj.getShape()));
+        }
+        obj = null;
+
+        System.gc();
+        for (WeakReference<Shape> weakShapeRef : weakShapeRefs) {
+            assertNull("Shape should have been garbage-collected", weakShapeRef.get());
+        }
+
+        // lookups expunge the dropped branches and compact the transition map
+        for (int i = 0; i < 3; i++) {
+            obj = emptyShape.newInstance();
+            LIBRARY.put(obj, "kept", 1);
+            assertSame(keptShape, obj.getShape());
+        }
+
+        obj = emptyShape.newInstance();
+        LIBRARY.put(obj, "added", 1);
+        Shape addedShape = obj.getShape();
+        obj = emptyShape.newInstance();
+        LIBRARY.put(obj, "added", 1);
+        assertSame(addedShape, obj.getShape());
+        obj = emptyShape.newInstance();
+        LIBRARY.put(obj, "kept", 1);
+        assertSame(keptShape, obj.getShape());
+    }
+
 }
@@ -69,6 +69,7 @@ public final class ObjectStorageOptions {
     public static final boolean InObjectFields = booleanOption(OPTION_PREFIX + "InObjectFields", true);
 
     static final boolean TriePropertyMap = booleanOption(OPTION_PREFIX + "TriePropertyMap", true);
+    static final boolean CompactTransitionMaps = booleanOption(OPTION_PREFIX + "CompactTransitionMaps", true);
 
     // Debug options (should be final)
     /** @since 0.17 or earlier */
@@ -145,6 +145,9 @@ public abstract class ShapeImpl extends Shape {
      * <li>{@link TransitionMap}: mutable multiple entry map
      * </ol>
      *
+     * A transition map that is down to a single live entry is replaced by a single entry map again,
+     * see {@link #compactTransitionMap(TransitionMap)}.
+     *
      * @see #queryTransition(Transition)
      * @see #addTransitionInternal(Transition, ShapeImpl)
      */
@@ -382,10 +385,9 @@ public abstract class ShapeImpl extends Shape {
 
     private void addTransitionInternal(Transition transition, ShapeImpl successor) {
         CompilerAsserts.neverPartOfCompilation();
-        Object prev;
-        Object next;
-        do {
-            prev = TRANSITION_MAP_UPDATER.get(this);
+        for (;;) {
+            Object prev = TRANSITION_MAP_UPDATER.get(this);
+            Object next;
             if (prev == null) {
                 invalidateLeafAssumption();
                 next = newSingleEntry(transition, successor);
@@ -399,12 +401,18 @@ public abstract class ShapeImpl extends Shape {
                     next = newSingleEntry(transition, successor);
                 }
             } else {
-                next = addToTransitionMap(transition, successor, asTransitionMap(prev));
+                TransitionMap<Transition, ShapeImpl> map = asTransitionMap(prev);
+                if (addToTransitionMap(transition, successor, map)) {
+                    return;
+                }
+                // The map has been compacted concurrently, install its replacement and retry.
+                TRANSITION_MAP_UPDATER.compareAndSet(this, prev, map.compact());
+                continue;
             }
-            if (prev == next) {
-                break;
+            if (TRANSITION_MAP_UPDATER.compareAndSet(this, prev, next)) {
+                return;
             }
-        } while (!TRANSITION_MAP_UPDATER.compareAndSet(this, prev, next));
+        }
     }
 
     private static Object newTransitionMap(Transition firstTransition, ShapeImpl firstShape, Transition secondTransition, ShapeImpl secondShape) {
@@ -414,13 +422,24 @@ public abstract class ShapeImpl extends Shape {
         return map;
     }
 
-    private static Object addToTransitionMap(Transition transition, ShapeImpl successor, TransitionMap<Transition, ShapeImpl> map) {
+    private static boolean addToTransitionMap(Transition transition, ShapeImpl successor, TransitionMap<Transition, ShapeImpl> map) {
         if (transition.hasConstantLocation()) {
-            map.putWeakKey(transition, successor);
+            return map.putWeakKey(transition, successor);
         } else {
-            map.put(transition, successor);
+            return map.put(transition, successor);
+        }
+    }
+
+    /**
+     * Replaces a transition map whose successor shapes have been garbage collected except for at
+     * most one by a single entry map, or no map at all, to reduce the footprint of shape trees with
+     * many short-lived branches.
+     */
+    private void compactTransitionMap(TransitionMap<Transition, ShapeImpl> map) {
+        Object compacted = map.compact();
+        if (compacted != map && TRANSITION_MAP_UPDATER.compareAndSet(this, map, compacted)) {
+            shapeCacheCompacted.inc();
         }
-        return map;
     }
 
     private static TransitionMap<Transition, ShapeImpl> newTransitionMap() {
@@ -514,7 +533,11 @@ public abstract class ShapeImpl extends Shape {
         } else {
             assert isTransitionMap(trans);
             TransitionMap<Transition, ShapeImpl> map = asTransitionMap(trans);
-            return map.get(transition);
+            ShapeImpl shape = map.get(transition);
+            if (ObjectStorageOptions.CompactTransitionMaps && map.isCompactable()) {
+                compactTransitionMap(map);
+            }
+            return shape;
         }
     }
 
@@ -1556,6 +1579,7 @@ public abstract class ShapeImpl extends Shape {
     private static final DebugCounter shapeCacheMissCount = DebugCounter.create("Shape cache misses");
     static final DebugCounter shapeCacheExpunged = DebugCounter.create("Shape cache expunged");
     static final DebugCounter shapeCacheWeakKeys = DebugCounter.create("Shape cache weak keys");
+    static final DebugCounter shapeCacheCompacted = DebugCounter.create("Shape cache maps compacted");
     static final DebugCounter propertyAssumptionsCreated = DebugCounter.create("Property assumptions created");
     static final DebugCounter propertyAssumptionsRemoved = DebugCounter.create("Property assumptions removed");
 
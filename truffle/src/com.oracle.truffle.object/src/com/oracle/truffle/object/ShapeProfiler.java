@@ -75,6 +75,23 @@ class ShapeProfiler {
         }
 
         globalStats.dump(out);
+        dumpShapeTrees(out);
+    }
+
+    /**
+     * Dumps statistics of the shape trees the tracked objects belong to, i.e. the number of shapes
+     * reachable via transitions from the root shapes, the depth and the branching of the trees.
+     */
+    public void dumpShapeTrees(PrintWriter out) {
+        IdentityHashMap<Shape, Boolean> roots = new IdentityHashMap<>();
+        for (DynamicObject obj : queue) {
+            roots.put(obj.getShape().getRoot(), Boolean.TRUE);
+        }
+        ShapeTreeStats treeStats = new ShapeTreeStats();
+        for (Shape root : roots.keySet()) {
+            treeStats.profile((ShapeImpl) root);
+        }
+        treeStats.dump(out, roots.size());
     }
 
     public void dump(PrintWriter out, int topResults) {
@@ -223,6 +240,62 @@ class ShapeProfiler {
         }
     }
 
+    private static class ShapeTreeStats {
+        private final IdentityHashMap<ShapeImpl, Boolean> visited = new IdentityHashMap<>();
+        private long shapes;
+        private long leaves;
+        private long branches;
+        private long transitions;
+        private int maxTransitions;
+        private int maxDepth;
+        private int maxPropertyCount;
+
+        public void profile(ShapeImpl root) {
+            List<ShapeImpl> worklist = new ArrayList<>();
+            worklist.add(root);
+            while (!worklist.isEmpty()) {
+                ShapeImpl shape = worklist.remove(worklist.size() - 1);
+                if (visited.put(shape, Boolean.TRUE) != null) {
+                    continue;
+                }
+                shapes++;
+                maxDepth = Math.max(maxDepth, shape.getDepth());
+                maxPropertyCount = Math.max(maxPropertyCount, shape.getPropertyCount());
+                int[] successors = new int[1];
+                shape.forEachTransition((transition, successor) -> {
+                    worklist.add(successor);
+                    successors[0]++;
+                });
+                int count = successors[0];
+                transitions += count;
+                maxTransitions = Math.max(maxTransitions, count);
+                if (count == 0) {
+                    leaves++;
+                } else if (count > 1) {
+                    branches++;
+                }
+            }
+        }
+
+        public void dump(PrintWriter out, int roots) {
+            DecimalFormat format = new DecimalFormat("###.####");
+            out.println(LINE_SEPARATOR);
+            out.println(BULLET + "Shape trees of all shapes");
+            out.println(LINE_SEPARATOR);
+            out.println(BULLET + "Root shapes:\t" + roots);
+            out.println(BULLET + "Reachable shapes:\t" + shapes);
+            out.println(BULLET + "Leaf shapes:\t" + leaves);
+            out.println(BULLET + "Branching shapes:\t" + branches);
+            out.println(BULLET + "Transitions:\t" + transitions);
+            out.println(BULLET + "Average transitions of branching shapes:\t" + (branches == 0 ? "0" : format.format((double) (transitions - (shapes - leaves - branches)) / branches)));
+            out.println(BULLET + "Maximum transitions:\t" + maxTransitions);
+            out.println(BULLET + "Maximum depth:\t" + maxDepth);
+            out.println(BULLET + "Maximum property count:\t" + maxPropertyCount);
+            out.println(LINE_SEPARATOR + "\n");
+            out.flush();
+        }
+    }
+
     public static ShapeProfiler getInstance() {
         return shapeProf;
     }
@@ -51,14 +51,21 @@ import org.graalvm.collections.Equivalence;
 import org.graalvm.collections.MapCursor;
 
 /**
- * A synchronized hash map with weakly referenced values. Cleared value references are expunged only
- * when the map is mutated. Keys may be strongly or weakly referenced.
+ * A synchronized hash map with weakly referenced values. Cleared value references are expunged when
+ * the map is accessed. Keys may be strongly or weakly referenced.
+ *
+ * Once at most one live entry remains, the map can be {@linkplain #compact() compacted}, i.e.
+ * replaced by its owner with the remaining entry. A compacted map rejects further insertions.
  */
 final class TransitionMap<K, V> {
 
     /** Key is either {@code K} or {@code WeakKey<K>}. */
     private final EconomicMap<Object, StrongKeyWeakValueEntry<Object, V>> map;
     private final ReferenceQueue<V> queue;
+    /** Guarded by {@link #queue}. */
+    private boolean compacted;
+    /** Set when expunging left at most one live entry. */
+    private volatile boolean compactable;
 
     private static final Equivalence WEAK_KEY_EQUIVALENCE = new WeakKeyEquivalence();
 
@@ -78,33 +85,80 @@ final class TransitionMap<K, V> {
     @SuppressWarnings("unchecked")
     public V get(Object key) {
         synchronized (queue) {
+            expungeStaleEntries();
             return getValue(map.get(key));
         }
     }
 
-    private V putAnyKey(Object key, V value) {
+    private boolean putAnyKey(Object key, V value) {
         synchronized (queue) {
+            if (compacted) {
+                return false;
+            }
             expungeStaleEntries();
-            return getValue(map.put(key, new StrongKeyWeakValueEntry<>(key, value, queue)));
+            map.put(key, new StrongKeyWeakValueEntry<>(key, value, queue));
+            compactable = false;
+            return true;
         }
     }
 
     /**
      * Insert with strongly referenced key.
+     *
+     * @return {@code false} if the map has been compacted and the entry was not inserted
      */
-    public V put(K key, V value) {
+    public boolean put(K key, V value) {
         return putAnyKey(key, value);
     }
 
     /**
      * Insert with weakly referenced key.
+     *
+     * @return {@code false} if the map has been compacted and the entry was not inserted
      */
-    public V putWeakKey(K key, V value) {
+    public boolean putWeakKey(K key, V value) {
         ShapeImpl.shapeCacheWeakKeys.inc();
         WeakKey<K> weakKey = new WeakKey<>(key);
         return putAnyKey(weakKey, value);
     }
 
+    /**
+     * Returns {@code true} if stale entries were expunged and at most one live entry is left.
+     */
+    public boolean isCompactable() {
+        return compactable;
+    }
+
+    /**
+     * Marks the map as compacted if at most one live entry is left and returns the replacement for
+     * the map: {@code null} if there are no entries left, a single entry without reference queue if
+     * there is exactly one live entry left, or the map itself if it cannot be compacted.
+     */
+    public Object compact() {
+        synchronized (queue) {
+            expungeStaleEntries();
+            Object singleKey = null;
+            V singleValue = null;
+            MapCursor<Object, StrongKeyWeakValueEntry<Object, V>> cursor = map.getEntries();
+            while (cursor.advance()) {
+                V value = cursor.getValue().get();
+                if (value != null && unwrapKey(cursor.getKey()) != null) {
+                    if (singleValue != null) {
+                        compactable = false;
+                        return this;
+                    }
+                    singleKey = cursor.getKey();
+                    singleValue = value;
+                }
+            }
+            compacted = true;
+            if (singleValue == null) {
+                return null;
+            }
+            return new StrongKeyWeakValueEntry<>(singleKey, singleValue);
+        }
+    }
+
     public V remove(Object key) {
         synchronized (queue) {
             expungeStaleEntries();
@@ -113,15 +167,30 @@ final class TransitionMap<K, V> {
     }
 
     private void expungeStaleEntries() {
+        boolean expunged = false;
         for (Reference<? extends V> r; (r = queue.poll()) != null;) {
             if (r instanceof StrongKeyWeakValueEntry<?, ?>) {
                 StrongKeyWeakValueEntry<?, ?> entry = (StrongKeyWeakValueEntry<?, ?>) r;
                 if (map.get(entry.getKey()) == entry) {
                     map.removeKey(entry.getKey());
                     ShapeImpl.shapeCacheExpunged.inc();
+                    expunged = true;
                 }
             }
         }
+        if (expunged && map.size() <= 1) {
+            compactable = true;
+        }
+    }
+
+    /**
+     * Returns the number of entries, including entries whose value was cleared but not expunged
+     * yet.
+     */
+    public int size() {
+        synchronized (queue) {
+            return map.size();
+        }
     }
 
     public void clear() {
@@ -106,6 +106,7 @@ abstract class HostExecuteNode extends Node {
     Object doFixed(SingleMethod method, Object obj, Object[] args, PolyglotLanguageContext languageContext,
                     @Cached("method") SingleMethod cachedMethod,
                     @Cached("createToHost(method.getParameterCount())") ToHostNode[] toJavaNodes,
+                    @Cached(value = "createDirectArgTypes(cachedMethod, languageContext)", dimensions = 1) Class<?>[] directArgTypes,
                     @Cached ToGuestValueNode toGuest,
                     @Cached("createClassProfile()") ValueProfile receiverProfile,
                     @Cached BranchProfile errorBranch,
@@ -120,7 +121,7 @@ abstract class HostExecuteNode extends Node {
         Object[] convertedArguments = new Object[args.length];
         try {
             for (int i = 0; i < toJavaNodes.length; i++) {
-                convertedArguments[i] = toJavaNodes[i].execute(args[i], types[i], genericTypes[i], languageContext, true);
+                convertedArguments[i] = toHostDirect(toJavaNodes[i], args[i], directArgTypes[i], types[i], genericTypes[i], languageContext);
             }
         } catch (PolyglotEngineException e) {
             errorBranch.enter();
@@ -215,6 +216,7 @@ abstract class HostExecuteNode extends Node {
                     @Cached("createArgTypesArray(args)") TypeCheckNode[] cachedArgTypes,
                     @Cached("selectOverload(method, args, languageContext, cachedArgTypes)") SingleMethod overload,
                     @Cached("asVarArgs(args, overload, languageContext)") boolean asVarArgs,
+                    @Cached(value = "createDirectArgTypes(overload, languageContext)", dimensions = 1) Class<?>[] directArgTypes,
                     @Cached("createClassProfile()") ValueProfile receiverProfile,
                     @Cached BranchProfile errorBranch,
                     @Cached(value = "languageContext.context.engine", allowUncached = true) PolyglotEngineImpl engine) throws ArityException, UnsupportedTypeException {
@@ -234,7 +236,7 @@ abstract class HostExecuteNode extends Node {
                 convertedArguments = createVarArgsArray(overload, convertedArguments, parameterCount);
             } else {
                 for (int i = 0; i < cachedArgTypes.length; i++) {
-                    convertedArguments[i] = toJavaNode.execute(args[i], types[i], genericTypes[i], languageContext, true);
+                    convertedArguments[i] = toHostDirect(toJavaNode, args[i], directArgTypes[i], types[i], genericTypes[i], languageContext);
                 }
             }
         } catch (PolyglotEngineException e) {
@@ -284,6 +286,43 @@ abstract class HostExecuteNode extends Node {
         return convertedArguments;
     }
 
+    /**
+     * Returns for each parameter of the method the argument class for which the {@link ToHostNode}
+     * conversion is known to return the argument unchanged, or {@code null} if arguments of the
+     * parameter always need to be converted. This is the case for parameters of type
+     * {@link String} or a primitive or boxed primitive type without target type mappings, where
+     * an argument of the exact (boxed) parameter type is passed through as is.
+     */
+    @TruffleBoundary
+    static Class<?>[] createDirectArgTypes(SingleMethod method, PolyglotLanguageContext languageContext) {
+        Class<?>[] types = method.getParameterTypes();
+        Class<?>[] directTypes = new Class<?>[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i].isPrimitive() ? primitiveTypeToBoxedType(types[i]) : types[i];
+            if (isDirectArgType(type) && TargetMappingNode.getMappings(languageContext, types[i]).length == 0) {
+                directTypes[i] = type;
+            }
+        }
+        return directTypes;
+    }
+
+    private static boolean isDirectArgType(Class<?> type) {
+        // char is excluded as it is converted from single character strings.
+        return type == String.class || type == Boolean.class || type == Byte.class || type == Short.class || type == Integer.class || type == Long.class || type == Float.class ||
+                        type == Double.class;
+    }
+
+    /**
+     * Converts the argument using the {@link ToHostNode} unless it is an instance of the exact
+     * direct argument type, in which case the conversion would be the identity.
+     */
+    private static Object toHostDirect(ToHostNode toJavaNode, Object arg, Class<?> directType, Class<?> type, Type genericType, PolyglotLanguageContext languageContext) {
+        if (directType != null && arg != null && arg.getClass() == directType) {
+            return arg;
+        }
+        return toJavaNode.execute(arg, type, genericType, languageContext, true);
+    }
+
     static TypeCheckNode[] createArgTypesArray(Object[] args) {
         TypeCheckNode[] nodes = new TypeCheckNode[args.length];
         // fill with null checks so the DSL does not complain when it tries to adopt
@@ -41,6 +41,7 @@
 package com.oracle.truffle.polyglot;
 
 import java.lang.reflect.Array;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.ReadOnlyBufferException;
@@ -914,6 +915,31 @@ final class HostObject implements TruffleObject {
         buffer.put(index, value);
     }
 
+    @ExportMessage
+    public void readBuffer(long index, byte[] destination, int destinationOffset, int length,
+                    @Shared("isBuffer") @Cached IsBufferNode isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Shared("classProfile") @Cached("createClassProfile()") ValueProfile classProfile) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.execute(this)) {
+            error.enter();
+            throw UnsupportedMessageException.create();
+        }
+        final ByteBuffer buffer = (ByteBuffer) classProfile.profile(obj);
+        if (index < 0 || length < 0 || index > getBufferSizeBoundary(buffer) - length) {
+            error.enter();
+            throw InvalidBufferOffsetException.create(index, length);
+        }
+        getBufferBoundary(buffer, (int) index, destination, destinationOffset, length);
+    }
+
+    @TruffleBoundary
+    private static void getBufferBoundary(ByteBuffer buffer, int index, byte[] destination, int destinationOffset, int length) {
+        final ByteBuffer view = buffer.duplicate();
+        // Cast to Buffer for compatibility with the JDK 8 method signature.
+        ((Buffer) view).position(index);
+        view.get(destination, destinationOffset, length);
+    }
+
     @ExportMessage
     public short readBufferShort(ByteOrder order, long index,
                     @Shared("isBuffer") @Cached IsBufferNode isBuffer,
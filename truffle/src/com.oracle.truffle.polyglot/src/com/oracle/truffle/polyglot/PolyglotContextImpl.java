@@ -240,6 +240,7 @@ final class PolyglotContextImpl implements com.oracle.truffle.polyglot.PolyglotI
     private final ContextLocalsTL contextThreadLocals = new ContextLocalsTL();
 
     private ObjectSizeCalculator objectSizeCalculator;
+    private PolyglotHeapSizeAccounting heapSizeAccounting;
 
     final PolyglotThreadLocalActions threadLocalActions;
     private Collection<Closeable> closeables;
@@ -1368,19 +1369,62 @@ final class PolyglotContextImpl implements com.oracle.truffle.polyglot.PolyglotI
     long calculateHeapSize(long stopAtBytes, AtomicBoolean calculationCancelled) {
         try {
             ObjectSizeCalculator localObjectSizeCalculator;
+            PolyglotHeapSizeAccounting accounting = null;
             synchronized (this) {
                 localObjectSizeCalculator = objectSizeCalculator;
                 if (localObjectSizeCalculator == null) {
                     localObjectSizeCalculator = new ObjectSizeCalculator();
                     objectSizeCalculator = localObjectSizeCalculator;
                 }
+                if (engine.engineOptionValues.get(PolyglotEngineOptions.IncrementalHeapSizeCalculation)) {
+                    accounting = heapSizeAccounting;
+                    if (accounting == null) {
+                        accounting = new PolyglotHeapSizeAccounting();
+                        heapSizeAccounting = accounting;
+                    }
+                }
+            }
+            if (accounting == null) {
+                return localObjectSizeCalculator.calculateObjectSize(getContextHeapRoots(), stopAtBytes, calculationCancelled);
             }
-            return localObjectSizeCalculator.calculateObjectSize(getContextHeapRoots(), stopAtBytes, calculationCancelled);
+            Thread[] contextThreads = getContextHeapThreads();
+            long estimate = accounting.estimateHeapSize(contextThreads);
+            if (estimate >= 0 && estimate <= stopAtBytes) {
+                return estimate;
+            }
+            /*
+             * The limit might be exceeded, walk the heap to confirm. Allocations are sampled before
+             * the walk so that objects allocated during the walk are accounted for by the next
+             * estimate.
+             */
+            Map<Thread, Long> allocatedBeforeCalculation = PolyglotHeapSizeAccounting.getAllocatedBytes(contextThreads);
+            long heapSize = localObjectSizeCalculator.calculateObjectSize(getContextHeapRoots(), stopAtBytes, calculationCancelled);
+            if (allocatedBeforeCalculation != null && heapSize <= stopAtBytes) {
+                accounting.update(heapSize, allocatedBeforeCalculation);
+            }
+            return heapSize;
         } catch (UnsupportedOperationException e) {
             throw new UnsupportedOperationException("Polyglot context heap size calculation is not supported on current Truffle runtime.", e);
         }
     }
 
+    private Thread[] getContextHeapThreads() {
+        List<Thread> contextThreads = new ArrayList<>();
+        addContextHeapThreads(contextThreads);
+        return contextThreads.toArray(new Thread[contextThreads.size()]);
+    }
+
+    private void addContextHeapThreads(List<Thread> contextThreads) {
+        PolyglotContextImpl[] childContextStartPoints;
+        synchronized (this) {
+            contextThreads.addAll(threads.keySet());
+            childContextStartPoints = childContexts.toArray(new PolyglotContextImpl[childContexts.size()]);
+        }
+        for (PolyglotContextImpl childCtx : childContextStartPoints) {
+            childCtx.addContextHeapThreads(contextThreads);
+        }
+    }
+
     Object[] getContextHeapRoots() {
         List<Object> heapRoots = new ArrayList<>();
         addRootPointersForContext(heapRoots);
@@ -67,9 +67,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Queue;
 import java.util.Set;
 import java.util.WeakHashMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -181,11 +182,12 @@ final class PolyglotEngineImpl implements com.oracle.truffle.polyglot.PolyglotIm
      * that strong references for source caches should be used.
      */
     boolean storeEngine; // modified on patch
+    PolyglotSourceCache.Config sourceCacheConfig; // modified on patch
     Handler logHandler;     // effectively final
     final Exception createdLocation = DEBUG_MISSING_CLOSE ? new Exception() : null;
     private final EconomicSet<ContextWeakReference> contexts = EconomicSet.create(Equivalence.IDENTITY);
     final ReferenceQueue<PolyglotContextImpl> contextsReferenceQueue = new ReferenceQueue<>();
-    private final AtomicReference<PolyglotContextImpl> preInitializedContext = new AtomicReference<>();
+    private final Queue<PolyglotContextImpl> preInitializedContexts = new ConcurrentLinkedQueue<>();
 
     PolyglotLanguage hostLanguage;
     @CompilationFinal Assumption singleContext = Truffle.getRuntime().createAssumption("Single context per engine.");
@@ -297,6 +299,7 @@ final class PolyglotEngineImpl implements com.oracle.truffle.polyglot.PolyglotIm
         parseOptions(options, languagesOptions, instrumentsOptions);
 
         this.conservativeContextReferences = engineOptionValues.get(PolyglotEngineOptions.UseConservativeContextReferences);
+        this.sourceCacheConfig = PolyglotSourceCache.Config.create(engineOptionValues);
 
         for (PolyglotLanguage language : languagesOptions.keySet()) {
             language.getOptionValues().putAll(languagesOptions.get(language), allowExperimentalOptions);
@@ -400,6 +403,7 @@ final class PolyglotEngineImpl implements com.oracle.truffle.polyglot.PolyglotIm
 
         this.engineOptionValues = prototype.engineOptionValues.copy();
         this.conservativeContextReferences = engineOptionValues.get(PolyglotEngineOptions.UseConservativeContextReferences);
+        this.sourceCacheConfig = PolyglotSourceCache.Config.create(engineOptionValues);
 
         if (!boundEngine) {
             initializeMultiContext(null);
@@ -485,6 +489,7 @@ final class PolyglotEngineImpl implements com.oracle.truffle.polyglot.PolyglotIm
         this.logLevels = newLogConfig.logLevels;
         boolean wasStore = this.storeEngine;
         this.storeEngine = RUNTIME.isStoreEnabled(engineOptions);
+        this.sourceCacheConfig = PolyglotSourceCache.Config.create(engineOptions);
         this.engineLoggerSupplier = logSupplier;
         this.engineLogger = null;
         logSupplier.setEngine(this);
@@ -1118,6 +1123,11 @@ final class PolyglotEngineImpl implements com.oracle.truffle.polyglot.PolyglotIm
                     getEngineLogger().log(Level.INFO, String.format("Specialization histogram: %n%s", logMessage.toString()));
                 }
 
+                PolyglotSourceCache.Statistics sourceCacheStatistics = sourceCacheConfig.statistics;
+                if (sourceCacheStatistics != null) {
+                    getEngineLogger().log(Level.INFO, sourceCacheStatistics.toString());
+                }
+
                 if (!inShutdownHook) {
                     RUNTIME.onEngineClosed(this.runtimeData);
 
@@ -1224,7 +1234,12 @@ final class PolyglotEngineImpl implements com.oracle.truffle.polyglot.PolyglotIm
 
     void preInitialize() {
         synchronized (this.lock) {
-            this.preInitializedContext.set(PolyglotContextImpl.preInitialize(this));
+            // a bound engine can only create a single context
+            int poolSize = boundEngine ? 1 : Math.max(1, engineOptionValues.get(PolyglotEngineOptions.PreInitializedContextPoolSize));
+            this.preInitializedContexts.clear();
+            for (int i = 0; i < poolSize; i++) {
+                this.preInitializedContexts.add(PolyglotContextImpl.preInitialize(this));
+            }
         }
     }
 
@@ -1702,8 +1717,9 @@ final class PolyglotEngineImpl implements com.oracle.truffle.polyglot.PolyglotIm
     }
 
     private PolyglotContextImpl loadPreinitializedContext(PolyglotContextConfig config, HostAccess hostAccess) {
-        PolyglotContextImpl context = preInitializedContext.getAndSet(null);
+        PolyglotContextImpl context = preInitializedContexts.poll();
         if (!getEngineOptionValues().get(PolyglotEngineOptions.UsePreInitializedContext)) {
+            preInitializedContexts.clear();
             context = null;
         }
         if (context != null) {
@@ -1748,12 +1764,22 @@ final class PolyglotEngineImpl implements com.oracle.truffle.polyglot.PolyglotIm
                     PolyglotContextImpl.disposeStaticContext(null);
                     config.fileSystem = oldFileSystem;
                     config.internalFileSystem = oldInternalFileSystem;
-                    PolyglotEngineImpl engine = new PolyglotEngineImpl(this);
-                    ensureClosed(true, false);
-                    synchronized (engine.lock) {
-                        engine.initializeHostAccess(hostAccess);
-                        context = new PolyglotContextImpl(engine, config);
-                        engine.addContext(context);
+                    preInitializedContexts.clear();
+                    if (!boundEngine) {
+                        /*
+                         * An explicit engine is referenced by the embedder and may already be
+                         * used by other contexts, so it must not be replaced. A new context is
+                         * created by the caller instead.
+                         */
+                        context = null;
+                    } else {
+                        PolyglotEngineImpl engine = new PolyglotEngineImpl(this);
+                        ensureClosed(true, false);
+                        synchronized (engine.lock) {
+                            engine.initializeHostAccess(hostAccess);
+                            context = new PolyglotContextImpl(engine, config);
+                            engine.addContext(context);
+                        }
                     }
                 }
             }
@@ -97,4 +97,37 @@ final class PolyglotEngineOptions {
                     "Use pre-initialized context when it's available.")//
     static final OptionKey<Boolean> UsePreInitializedContext = new OptionKey<>(true);
 
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "" +
+                    "Number of contexts pre-initialized when the engine is pre-initialized. " +
+                    "Each pre-initialized context is used for one context created with the engine, later contexts are initialized on demand. " +
+                    "Every pre-initialized context retains its heap until it is used (default: 1).")//
+    static final OptionKey<Integer> PreInitializedContextPoolSize = new OptionKey<>(1);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "" +
+                    "Maximum number of sources per language retained by the strong source cache. " +
+                    "The strong source cache is used if the engine is stored. By default 0, which does not limit the number of sources.")//
+    static final OptionKey<Integer> SourceCacheMaxEntries = new OptionKey<>(0);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "" +
+                    "Maximum size in bytes of the sources per language retained by the strong source cache, estimated from the source contents. " +
+                    "By default 0, which does not limit the size.")//
+    static final OptionKey<Long> SourceCacheMaxBytes = new OptionKey<>(0L);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "" +
+                    "Eviction policy of a bounded strong source cache. " +
+                    "'LRU' evicts the least recently used source. " +
+                    "'SEGMENTED_LRU' keeps sources that were hit since they were cached in a protected segment of 80% of the entries and " +
+                    "evicts the least recently used source that was not hit first (default: LRU).")//
+    static final OptionKey<PolyglotSourceCache.EvictionPolicy> SourceCacheEviction = new OptionKey<>(PolyglotSourceCache.EvictionPolicy.LRU);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "" +
+                    "Print the number of source cache hits, misses and evictions and the parse time saved by the source cache when the engine is closed.")//
+    static final OptionKey<Boolean> TraceSourceCache = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "" +
+                    "Estimate the retained heap size of a context from the bytes allocated by its threads since the last complete calculation. " +
+                    "The context heap is only walked if the estimate exceeds the requested limit. " +
+                    "Requires support for thread allocation accounting by the JVM.")//
+    static final OptionKey<Boolean> IncrementalHeapSizeCalculation = new OptionKey<>(false);
+
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.polyglot;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Incremental heap size accounting of a polyglot context. After a complete heap size calculation,
+ * the bytes allocated by the threads of the context are an upper bound for the growth of the
+ * retained size. As long as that bound stays below the requested limit, the heap size can be
+ * estimated without walking the context heap again. A walk is only needed once the estimate
+ * suggests that the limit might be exceeded, or when a thread of the context terminated and its
+ * allocations can no longer be accounted for.
+ * <p>
+ * Objects allocated by threads that never entered the context are not accounted for, so the
+ * estimate relies on the context heap being populated by its own threads.
+ */
+final class PolyglotHeapSizeAccounting {
+
+    private static volatile ThreadMXBean threadBean;
+
+    private long lastHeapSize = -1;
+    private Map<Thread, Long> allocatedAtLastCalculation;
+
+    /**
+     * Returns an upper bound for the current heap size of the context with the given threads, or
+     * <code>-1</code> if the heap needs to be walked.
+     */
+    synchronized long estimateHeapSize(Thread[] contextThreads) {
+        Map<Thread, Long> baseline = this.allocatedAtLastCalculation;
+        if (lastHeapSize < 0 || baseline == null) {
+            return -1;
+        }
+        Map<Thread, Long> current = getAllocatedBytes(contextThreads);
+        if (current == null) {
+            return -1;
+        }
+        for (Thread thread : baseline.keySet()) {
+            if (!current.containsKey(thread)) {
+                // allocations of the thread since the last calculation are unknown
+                return -1;
+            }
+        }
+        long estimate = lastHeapSize;
+        for (Map.Entry<Thread, Long> entry : current.entrySet()) {
+            Long allocatedBefore = baseline.get(entry.getKey());
+            estimate += entry.getValue() - (allocatedBefore != null ? allocatedBefore : 0L);
+        }
+        return estimate;
+    }
+
+    synchronized void update(long heapSize, Map<Thread, Long> allocatedBeforeCalculation) {
+        this.lastHeapSize = heapSize;
+        this.allocatedAtLastCalculation = allocatedBeforeCalculation;
+    }
+
+    /**
+     * Returns the bytes allocated so far by each of the given live threads, or <code>null</code>
+     * if thread allocation accounting is not available.
+     */
+    static Map<Thread, Long> getAllocatedBytes(Thread[] threads) {
+        ThreadMXBean bean = getThreadBean();
+        if (bean == null) {
+            return null;
+        }
+        Map<Thread, Long> allocated = new HashMap<>();
+        for (Thread thread : threads) {
+            long bytes = bean.getThreadAllocatedBytes(thread.getId());
+            if (bytes >= 0) {
+                allocated.put(thread, bytes);
+            }
+        }
+        return allocated;
+    }
+
+    private static ThreadMXBean getThreadBean() {
+        ThreadMXBean bean = threadBean;
+        if (bean == null) {
+            /*
+             * getThreadMXBean is synchronized so better cache in a local volatile field to avoid
+             * contention.
+             */
+            threadBean = bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        }
+        if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        return bean;
+    }
+}
@@ -247,8 +247,8 @@ public final class PolyglotImpl extends AbstractPolyglotImpl {
             EngineLoggerProvider loggerProvider = new PolyglotLoggers.EngineLoggerProvider(logHandler, logConfig.logLevels);
 
             impl = (PolyglotEngineImpl) EngineAccessor.RUNTIME.tryLoadCachedEngine(engineOptions, loggerProvider);
-            if (impl == null && boundEngine && !EngineAccessor.RUNTIME.isStoreEnabled(engineOptions)) {
-                impl = preInitializedEngineRef.getAndSet(null);
+            if (impl == null && !EngineAccessor.RUNTIME.isStoreEnabled(engineOptions)) {
+                impl = takePreInitializedEngine(boundEngine);
             }
 
             if (impl != null) {
@@ -303,7 +303,7 @@ public final class PolyglotImpl extends AbstractPolyglotImpl {
      */
     @Override
     public void preInitializeEngine() {
-        PolyglotEngineImpl engine = createDefaultEngine();
+        PolyglotEngineImpl engine = createDefaultEngine(true);
         try {
             engine.preInitialize();
         } finally {
@@ -318,19 +318,42 @@ public final class PolyglotImpl extends AbstractPolyglotImpl {
     }
 
     /*
-     * Used for preinitialized contexts and fallback engine.
+     * Returns the pre-initialized engine if it matches the kind of engine being built. A bound
+     * pre-initialized engine is used for contexts created without an explicit engine, an engine
+     * pre-initialized with a pool of contexts is used for an explicitly created engine.
+     */
+    private PolyglotEngineImpl takePreInitializedEngine(boolean boundEngine) {
+        PolyglotEngineImpl engine = preInitializedEngineRef.get();
+        if (engine != null && engine.boundEngine == boundEngine && preInitializedEngineRef.compareAndSet(engine, null)) {
+            return engine;
+        }
+        return null;
+    }
+
+    /*
+     * Used for fallback engine.
      */
     PolyglotEngineImpl createDefaultEngine() {
+        return createDefaultEngine(false);
+    }
+
+    /*
+     * Used for preinitialized contexts and fallback engine. A pool of pre-initialized contexts can
+     * only be used by an engine that creates more than one context, so an engine pre-initialized
+     * with a pool is not bound to a single context.
+     */
+    private PolyglotEngineImpl createDefaultEngine(boolean preInitialization) {
         Map<String, String> options = new HashMap<>();
         PolyglotEngineImpl.readOptionsFromSystemProperties(options);
         LogConfig logConfig = new LogConfig();
         OptionValuesImpl engineOptions = PolyglotImpl.createEngineOptions(options, logConfig, true);
+        boolean boundEngine = !preInitialization || engineOptions.get(PolyglotEngineOptions.PreInitializedContextPoolSize) <= 1;
         DispatchOutputStream out = INSTRUMENT.createDispatchOutput(System.out);
         DispatchOutputStream err = INSTRUMENT.createDispatchOutput(System.err);
         Handler logHandler = PolyglotEngineImpl.createLogHandler(logConfig, err);
         EngineLoggerProvider loggerProvider = new PolyglotLoggers.EngineLoggerProvider(logHandler, logConfig.logLevels);
         final PolyglotEngineImpl engine = new PolyglotEngineImpl(this, out, err, System.in, engineOptions, logConfig.logLevels, loggerProvider, options, true,
-                        TruffleOptions.AOT ? null : Thread.currentThread().getContextClassLoader(), true, true, null, logHandler);
+                        TruffleOptions.AOT ? null : Thread.currentThread().getContextClassLoader(), boundEngine, true, null, logHandler);
         return engine;
     }
 
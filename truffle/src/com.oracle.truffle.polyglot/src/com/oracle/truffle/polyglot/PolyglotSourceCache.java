@@ -47,8 +47,15 @@ import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.graalvm.options.OptionValues;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.source.Source;
@@ -98,6 +105,39 @@ final class PolyglotSourceCache {
         return parsedTarget;
     }
 
+    /**
+     * Parses the source and records a cache miss. Returns the parse time in nanoseconds in
+     * {@code parseTime[0]}.
+     */
+    private static CallTarget parseMiss(PolyglotLanguageContext context, String[] argumentNames, Source source, long[] parseTime) {
+        long start = System.nanoTime();
+        CallTarget target = parseImpl(context, argumentNames, source);
+        parseTime[0] = System.nanoTime() - start;
+        Statistics statistics = context.getEngine().sourceCacheConfig.statistics;
+        if (statistics != null) {
+            statistics.misses.incrementAndGet();
+        }
+        return target;
+    }
+
+    private static void recordHit(PolyglotLanguageContext context, long parseTime) {
+        Statistics statistics = context.getEngine().sourceCacheConfig.statistics;
+        if (statistics != null) {
+            statistics.hits.incrementAndGet();
+            statistics.parseTimeSaved.addAndGet(parseTime);
+        }
+    }
+
+    /**
+     * Estimates the memory retained by the source contents of a cache entry.
+     */
+    private static long estimateSize(Source source) {
+        if (!source.hasCharacters() && !source.hasBytes()) {
+            return 0;
+        }
+        return source.hasCharacters() ? source.getLength() * 2L : source.getLength();
+    }
+
     private static void validateSource(PolyglotLanguageContext context, Source source) {
         if (!source.hasBytes() && !source.hasCharacters()) {
             throw PolyglotEngineException.illegalArgument(String.format("Error evaluating the source. The source does not specify characters nor bytes."));
@@ -175,20 +215,59 @@ final class PolyglotSourceCache {
 
     private static final class StrongCache extends Cache {
 
-        private final ConcurrentHashMap<SourceKey, CallTarget> sourceCache = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<SourceKey, StrongCacheValue> sourceCache = new ConcurrentHashMap<>();
+        /*
+         * Eviction order of the entries if the cache is bounded. Guarded by this cache.
+         */
+        private EvictionQueue evictionQueue;
 
         @Override
         CallTarget lookup(PolyglotLanguageContext context, Source source, String[] argumentNames, boolean parse) {
             SourceKey key = new SourceKey(source, argumentNames);
-            CallTarget target = sourceCache.get(key);
-            if (target == null && parse) {
-                target = parseImpl(context, argumentNames, source);
-                CallTarget prevTarget = sourceCache.putIfAbsent(key, target);
-                if (prevTarget != null) {
-                    target = prevTarget;
+            Config config = context.getEngine().sourceCacheConfig;
+            StrongCacheValue value = sourceCache.get(key);
+            if (value != null) {
+                recordHit(context, value.parseTime);
+                if (config.isBounded()) {
+                    synchronized (this) {
+                        if (evictionQueue != null) {
+                            evictionQueue.touch(key);
+                        }
+                    }
+                }
+                return value.target;
+            } else if (parse) {
+                long[] parseTime = new long[1];
+                value = new StrongCacheValue(parseMiss(context, argumentNames, source, parseTime), parseTime[0], estimateSize(source));
+                StrongCacheValue prevValue = sourceCache.putIfAbsent(key, value);
+                if (prevValue != null) {
+                    value = prevValue;
+                } else if (config.isBounded()) {
+                    evict(config, key, value);
+                }
+                return value.target;
+            }
+            return null;
+        }
+
+        private synchronized void evict(Config config, SourceKey addedKey, StrongCacheValue addedValue) {
+            EvictionQueue queue = this.evictionQueue;
+            if (queue == null || queue.policy != config.evictionPolicy) {
+                // first bounded insertion or policy changed on engine patch
+                this.evictionQueue = queue = new EvictionQueue(config.evictionPolicy, config.maxEntries);
+                for (Map.Entry<SourceKey, StrongCacheValue> entry : sourceCache.entrySet()) {
+                    if (entry.getKey() != addedKey) {
+                        queue.add(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            queue.add(addedKey, addedValue);
+            while (queue.size() > 1 && queue.exceeds(config)) {
+                SourceKey victim = queue.removeVictim();
+                if (sourceCache.remove(victim) != null && config.statistics != null) {
+                    config.statistics.evictions.incrementAndGet();
                 }
             }
-            return target;
         }
 
         @Override
@@ -206,6 +285,148 @@ final class PolyglotSourceCache {
 
     }
 
+    static final class StrongCacheValue {
+
+        final CallTarget target;
+        final long parseTime;
+        final long size;
+
+        StrongCacheValue(CallTarget target, long parseTime, long size) {
+            this.target = target;
+            this.parseTime = parseTime;
+            this.size = size;
+        }
+
+    }
+
+    /**
+     * Maintains the eviction order of a bounded strong cache. With {@link EvictionPolicy#LRU} the
+     * least recently used entry is evicted first. With {@link EvictionPolicy#SEGMENTED_LRU} the
+     * entries are split into a probation and a protected segment, each ordered by recency. New
+     * entries start in the probation segment and are promoted to the protected segment when they
+     * are hit; when the protected segment is full, its least recently used entry is demoted back
+     * to probation. Entries are evicted from the probation segment first, so sources that are
+     * evaluated only once cannot displace sources that were hit. The policy does not count how
+     * often an entry was hit: a new entry is always admitted, whatever the hit frequency of the
+     * entry it evicts.
+     */
+    private static final class EvictionQueue {
+
+        private static final int PROTECTED_PERCENTAGE = 80;
+
+        final EvictionPolicy policy;
+        private final LinkedHashMap<SourceKey, StrongCacheValue> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<SourceKey, StrongCacheValue> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxProtected;
+        private long size;
+
+        EvictionQueue(EvictionPolicy policy, int maxEntries) {
+            this.policy = policy;
+            int protectedEntries = maxEntries > 0 ? (int) ((long) maxEntries * PROTECTED_PERCENTAGE / 100) : Integer.MAX_VALUE;
+            this.maxProtected = policy == EvictionPolicy.SEGMENTED_LRU ? protectedEntries : 0;
+        }
+
+        int size() {
+            return probation.size() + protectedSegment.size();
+        }
+
+        boolean exceeds(Config config) {
+            return (config.maxEntries > 0 && size() > config.maxEntries) || (config.maxBytes > 0 && size > config.maxBytes);
+        }
+
+        void add(SourceKey key, StrongCacheValue value) {
+            if (protectedSegment.containsKey(key)) {
+                return;
+            }
+            if (probation.put(key, value) == null) {
+                size += value.size;
+            }
+        }
+
+        void touch(SourceKey key) {
+            if (maxProtected == 0) {
+                // LRU: update the access order only
+                probation.get(key);
+                return;
+            }
+            if (protectedSegment.get(key) != null) {
+                return;
+            }
+            StrongCacheValue value = probation.remove(key);
+            if (value != null) {
+                protectedSegment.put(key, value);
+                if (protectedSegment.size() > maxProtected) {
+                    // demote the least recently used protected entry
+                    Iterator<Map.Entry<SourceKey, StrongCacheValue>> iterator = protectedSegment.entrySet().iterator();
+                    Map.Entry<SourceKey, StrongCacheValue> demoted = iterator.next();
+                    iterator.remove();
+                    probation.put(demoted.getKey(), demoted.getValue());
+                }
+            }
+        }
+
+        SourceKey removeVictim() {
+            LinkedHashMap<SourceKey, StrongCacheValue> segment = probation.isEmpty() ? protectedSegment : probation;
+            Iterator<Map.Entry<SourceKey, StrongCacheValue>> iterator = segment.entrySet().iterator();
+            Map.Entry<SourceKey, StrongCacheValue> victim = iterator.next();
+            iterator.remove();
+            size -= victim.getValue().size;
+            return victim.getKey();
+        }
+    }
+
+    enum EvictionPolicy {
+        LRU,
+        SEGMENTED_LRU
+    }
+
+    /**
+     * Source cache configuration of an engine.
+     */
+    static final class Config {
+
+        final int maxEntries;
+        final long maxBytes;
+        final EvictionPolicy evictionPolicy;
+        final Statistics statistics;
+
+        private Config(int maxEntries, long maxBytes, EvictionPolicy evictionPolicy, Statistics statistics) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+            this.evictionPolicy = evictionPolicy;
+            this.statistics = statistics;
+        }
+
+        boolean isBounded() {
+            return maxEntries > 0 || maxBytes > 0;
+        }
+
+        static Config create(OptionValues options) {
+            return new Config(options.get(PolyglotEngineOptions.SourceCacheMaxEntries),
+                            options.get(PolyglotEngineOptions.SourceCacheMaxBytes),
+                            options.get(PolyglotEngineOptions.SourceCacheEviction),
+                            options.get(PolyglotEngineOptions.TraceSourceCache) ? new Statistics() : null);
+        }
+    }
+
+    /**
+     * Source cache statistics of an engine, collected if
+     * {@link PolyglotEngineOptions#TraceSourceCache} is enabled.
+     */
+    static final class Statistics {
+
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+        final AtomicLong parseTimeSaved = new AtomicLong();
+
+        @Override
+        public String toString() {
+            return String.format("Source cache statistics: hits %d, misses %d, evictions %d, parse time saved %d ms",
+                            hits.get(), misses.get(), evictions.get(), TimeUnit.NANOSECONDS.toMillis(parseTimeSaved.get()));
+        }
+    }
+
     private static final class WeakCache extends Cache {
 
         private final ConcurrentHashMap<WeakSourceKey, WeakCacheValue> sourceCache = new ConcurrentHashMap<>();
@@ -220,7 +441,8 @@ final class PolyglotSourceCache {
             WeakCacheValue value = sourceCache.get(ref);
             if (value == null) {
                 if (parse) {
-                    value = new WeakCacheValue(parseImpl(context, argumentNames, sourceValue), sourceValue);
+                    long[] parseTime = new long[1];
+                    value = new WeakCacheValue(parseMiss(context, argumentNames, sourceValue, parseTime), sourceValue, parseTime[0]);
                     WeakCacheValue prev = sourceCache.putIfAbsent(ref, value);
                     if (prev != null) {
                         /*
@@ -231,6 +453,8 @@ final class PolyglotSourceCache {
                 } else {
                     return null;
                 }
+            } else {
+                recordHit(context, value.parseTime);
             }
             return value.target;
         }
@@ -262,10 +486,12 @@ final class PolyglotSourceCache {
 
         final CallTarget target;
         final Source source;
+        final long parseTime;
 
-        WeakCacheValue(CallTarget target, Source source) {
+        WeakCacheValue(CallTarget target, Source source, long parseTime) {
             this.target = target;
             this.source = source;
+            this.parseTime = parseTime;
         }
 
     }
@@ -348,6 +348,7 @@ public class ValueAssert {
                     assertFails(() -> value.getBufferSize(), UnsupportedOperationException.class);
                     assertFails(() -> value.readBufferByte(0), UnsupportedOperationException.class);
                     assertFails(() -> value.writeBufferByte(0, (byte) 0), UnsupportedOperationException.class);
+                    assertFails(() -> value.readBuffer(0, new byte[1], 0, 1), UnsupportedOperationException.class);
                     assertFails(() -> value.readBufferShort(ByteOrder.LITTLE_ENDIAN, 0), UnsupportedOperationException.class);
                     assertFails(() -> value.writeBufferShort(ByteOrder.LITTLE_ENDIAN, 0, (short) 0), UnsupportedOperationException.class);
                     assertFails(() -> value.readBufferInt(ByteOrder.LITTLE_ENDIAN, 0), UnsupportedOperationException.class);
@@ -775,6 +776,12 @@ public class ValueAssert {
             }
         }
 
+        final byte[] bytes = new byte[(int) Math.min(value.getBufferSize(), 1024)];
+        value.readBuffer(0, bytes, 0, bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(value.readBufferByte(i), bytes[i]);
+        }
+
         for (long i = 0L; i < value.getBufferSize() - 1; i += 2) {
             final short result = value.readBufferShort(ByteOrder.LITTLE_ENDIAN, i);
             if (isWritable) {